@@ -0,0 +1,147 @@
+package com.cineclub_backend.cineclub_backend.config;
+
+import com.cineclub_backend.cineclub_backend.movies.dtos.DirectorDto;
+import com.cineclub_backend.cineclub_backend.movies.dtos.MovieDto;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Serialización de los valores de cache (MovieDto y DirectorDto con sus películas) con el
+ * serializador JSON genérico anterior y con CacheValueCodec en cada formato. El tamaño promedio
+ * de cada variante se imprime en el setup; el tiempo lo miden los benchmarks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheValueCodecBenchmark {
+
+  private static final int SAMPLES = 1024;
+
+  @Param({ "GENERIC_JSON", "JSON", "SMILE", "SMILE_LZ4" })
+  private String serializer;
+
+  private RedisSerializer<Object> codec;
+  private MovieDto[] movies;
+  private DirectorDto[] directors;
+  private byte[][] encodedMovies;
+  private byte[][] encodedDirectors;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    codec = createSerializer(serializer);
+    Random random = new Random(7);
+
+    movies = new MovieDto[SAMPLES];
+    directors = new DirectorDto[SAMPLES];
+    encodedMovies = new byte[SAMPLES][];
+    encodedDirectors = new byte[SAMPLES][];
+    long movieBytes = 0;
+    long directorBytes = 0;
+
+    for (int i = 0; i < SAMPLES; i++) {
+      movies[i] = MovieDto.builder()
+        .id(Long.toHexString(random.nextLong()) + Integer.toHexString(i))
+        .externalId(random.nextInt(1_000_000))
+        .title("Movie " + i)
+        .overview(overview(random))
+        .genres("Drama, Thriller, Science Fiction")
+        .releaseDate(new Date(random.nextLong(-631152000000L, 1735689600000L)))
+        .posterPath("/poster" + i + ".jpg")
+        .runtime(80 + random.nextInt(100))
+        .originalLanguage("en")
+        .upVotes(random.nextInt(5000))
+        .downVotes(random.nextInt(500))
+        .director("Director " + random.nextInt(500))
+        .build();
+
+      DirectorDto director = new DirectorDto();
+      director.setId(Long.toHexString(random.nextLong()));
+      director.setDirector("Director " + i);
+      List<DirectorDto.MovieInfo> filmography = new ArrayList<>();
+      for (int m = 0, count = 1 + random.nextInt(30); m < count; m++) {
+        DirectorDto.MovieInfo info = new DirectorDto.MovieInfo();
+        info.setId(Long.toHexString(random.nextLong()));
+        info.setTitle("Movie " + random.nextInt(45000));
+        filmography.add(info);
+      }
+      director.setMovies(filmography);
+      directors[i] = director;
+
+      encodedMovies[i] = codec.serialize(movies[i]);
+      encodedDirectors[i] = codec.serialize(directors[i]);
+      movieBytes += encodedMovies[i].length;
+      directorBytes += encodedDirectors[i].length;
+    }
+
+    System.out.printf(
+      "%n%s: MovieDto %d bytes, DirectorDto %d bytes en promedio%n",
+      serializer,
+      movieBytes / SAMPLES,
+      directorBytes / SAMPLES
+    );
+  }
+
+  private static RedisSerializer<Object> createSerializer(String name) {
+    List<Class<?>> types = List.of(MovieDto.class, DirectorDto.class);
+    return switch (name) {
+      case "GENERIC_JSON" -> new GenericJackson2JsonRedisSerializer();
+      case "JSON" -> new CacheValueCodec(CacheValueCodec.Format.JSON, 0, types);
+      case "SMILE" -> new CacheValueCodec(CacheValueCodec.Format.SMILE, 0, types);
+      case "SMILE_LZ4" -> new CacheValueCodec(CacheValueCodec.Format.SMILE, 256, types);
+      default -> throw new IllegalArgumentException(name);
+    };
+  }
+
+  private static String overview(Random random) {
+    StringBuilder overview = new StringBuilder();
+    for (int w = 0, words = 20 + random.nextInt(60); w < words; w++) {
+      overview.append(w > 0 ? " " : "").append("palabra").append(random.nextInt(300));
+    }
+    return overview.toString();
+  }
+
+  private int next() {
+    cursor = (cursor + 1) & (SAMPLES - 1);
+    return cursor;
+  }
+
+  @Benchmark
+  public byte[] encodeMovie() {
+    return codec.serialize(movies[next()]);
+  }
+
+  @Benchmark
+  public Object decodeMovie() {
+    return codec.deserialize(encodedMovies[next()]);
+  }
+
+  @Benchmark
+  public byte[] encodeDirector() {
+    return codec.serialize(directors[next()]);
+  }
+
+  @Benchmark
+  public Object decodeDirector() {
+    return codec.deserialize(encodedDirectors[next()]);
+  }
+}
@@ -0,0 +1,170 @@
+package com.cineclub_backend.cineclub_backend.movies.helpers;
+
+import com.cineclub_backend.cineclub_backend.movies.dtos.MovieDto;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversión y parseo de documentos crudos de movies con datos sintéticos. Cada invocación toma
+ * el siguiente elemento de un arreglo pre-generado para no medir siempre la misma entrada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MovieDocumentHelperBenchmark {
+
+  private static final int SAMPLES = 1024;
+  private static final String[] GENRES = {
+    "Action",
+    "Adventure",
+    "Animation",
+    "Comedy",
+    "Crime",
+    "Documentary",
+    "Drama",
+    "Family",
+    "Fantasy",
+    "History",
+    "Horror",
+    "Music",
+    "Mystery",
+    "Romance",
+    "Science Fiction",
+    "Thriller",
+    "War",
+    "Western",
+  };
+
+  private String[] pythonGenres;
+  private String[] jsonGenres;
+  private List<?>[] documentGenres;
+  private String[] releaseDateStrings;
+  private Date[] releaseDates;
+  private Document[] rawMovies;
+  private Document[] projectedMovies;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(7);
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+
+    pythonGenres = new String[SAMPLES];
+    jsonGenres = new String[SAMPLES];
+    documentGenres = new List<?>[SAMPLES];
+    releaseDateStrings = new String[SAMPLES];
+    releaseDates = new Date[SAMPLES];
+    rawMovies = new Document[SAMPLES];
+    projectedMovies = new Document[SAMPLES];
+
+    for (int i = 0; i < SAMPLES; i++) {
+      int genreCount = 1 + random.nextInt(4);
+      StringBuilder python = new StringBuilder("[");
+      StringBuilder json = new StringBuilder("[");
+      List<Document> documents = new ArrayList<>();
+      for (int g = 0; g < genreCount; g++) {
+        int id = random.nextInt(GENRES.length);
+        String separator = g > 0 ? ", " : "";
+        python.append(separator).append("{'id': ").append(id);
+        python.append(", 'name': '").append(GENRES[id]).append("'}");
+        json.append(separator).append("{\"id\": ").append(id);
+        json.append(", \"name\": \"").append(GENRES[id]).append("\"}");
+        documents.add(new Document("id", id).append("name", GENRES[id]));
+      }
+      pythonGenres[i] = python.append("]").toString();
+      jsonGenres[i] = json.append("]").toString();
+      documentGenres[i] = documents;
+
+      Date releaseDate = new Date(random.nextLong(-631152000000L, 1735689600000L));
+      releaseDates[i] = releaseDate;
+      releaseDateStrings[i] = format.format(releaseDate);
+
+      ObjectId id = new ObjectId();
+      rawMovies[i] = new Document("_id", id)
+        .append("external_id", random.nextInt(1_000_000))
+        .append("title", "Movie " + i)
+        .append("overview", "Synthetic overview for movie " + i)
+        .append("genres", pythonGenres[i])
+        .append("release_date", releaseDate)
+        .append("poster_path", "/poster" + i + ".jpg")
+        .append("original_language", "en")
+        .append("runtime", 80 + random.nextInt(100))
+        .append("up_votes", random.nextInt(5000))
+        .append("down_votes", random.nextInt(500));
+
+      projectedMovies[i] = new Document("id", id)
+        .append("externalId", random.nextInt(1_000_000))
+        .append("title", "Movie " + i)
+        .append("overview", "Synthetic overview for movie " + i)
+        .append("genres", pythonGenres[i])
+        .append("releaseDate", releaseDate)
+        .append("posterPath", "/poster" + i + ".jpg")
+        .append("originalLanguage", "en")
+        .append("runtime", 80 + random.nextInt(100))
+        .append("director", "Director " + random.nextInt(500))
+        .append("upVotes", random.nextInt(5000))
+        .append("downVotes", random.nextInt(500))
+        .append("vote", List.of(new Document("type", "UP")));
+    }
+  }
+
+  private int next() {
+    cursor = (cursor + 1) & (SAMPLES - 1);
+    return cursor;
+  }
+
+  @Benchmark
+  public Set<String> extractGenresFromPythonRepr() {
+    return MovieDocumentHelper.extractGenres(pythonGenres[next()]);
+  }
+
+  @Benchmark
+  public Set<String> extractGenresFromJson() {
+    return MovieDocumentHelper.extractGenres(jsonGenres[next()]);
+  }
+
+  @Benchmark
+  public Set<String> extractGenresFromDocuments() {
+    return MovieDocumentHelper.extractGenres(documentGenres[next()]);
+  }
+
+  @Benchmark
+  public Integer extractYearFromString() {
+    return MovieDocumentHelper.extractYear(releaseDateStrings[next()]);
+  }
+
+  @Benchmark
+  public Integer extractYearFromDate() {
+    return MovieDocumentHelper.extractYear(releaseDates[next()]);
+  }
+
+  @Benchmark
+  public MovieDto toMovieDto() {
+    return MovieDocumentHelper.toMovieDto(rawMovies[next()]);
+  }
+
+  @Benchmark
+  public MovieDto fromProjection() {
+    return MovieDocumentHelper.fromProjection(projectedMovies[next()]);
+  }
+}
@@ -0,0 +1,182 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import com.cineclub_backend.cineclub_backend.movies.services.MovieCatalogIndexService.Snapshot;
+import com.cineclub_backend.cineclub_backend.movies.services.MovieRecommendationService.ScoredMovie;
+import com.cineclub_backend.cineclub_backend.movies.services.MovieRecommendationService.UserProfile;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scoring de candidatos de cada estrategia y ordenamiento top-N sobre un catálogo sintético. Las
+ * estrategias se llaman directamente, sin el pool ni los plazos de {@code run}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecommendationScoringBenchmark {
+
+  private static final String[] GENRES = {
+    "Action",
+    "Adventure",
+    "Animation",
+    "Comedy",
+    "Crime",
+    "Documentary",
+    "Drama",
+    "Family",
+    "Fantasy",
+    "History",
+    "Horror",
+    "Music",
+    "Mystery",
+    "Romance",
+    "Science Fiction",
+    "Thriller",
+    "War",
+    "Western",
+  };
+
+  @Param({ "5000", "45000" })
+  private int catalogSize;
+
+  @Param({ "200" })
+  private int likedMovies;
+
+  private Snapshot catalog;
+  private UserProfile profile;
+  private MovieRecommendationService service;
+  private List<ScoredMovie> unsorted;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(11);
+    List<Document> movies = new ArrayList<>(catalogSize);
+    List<Document> directors = new ArrayList<>(catalogSize);
+
+    for (int i = 0; i < catalogSize; i++) {
+      ObjectId id = new ObjectId();
+      List<Document> genres = new ArrayList<>();
+      int genreCount = 1 + random.nextInt(3);
+      for (int g = 0; g < genreCount; g++) {
+        genres.add(new Document("name", GENRES[random.nextInt(GENRES.length)]));
+      }
+      movies.add(
+        new Document("_id", id)
+          .append("genres", genres)
+          .append("release_date", new Date(random.nextLong(-631152000000L, 1735689600000L)))
+          .append("up_votes", random.nextInt(5000))
+          .append("down_votes", random.nextInt(500))
+      );
+      directors.add(
+        new Document("movie_id", id.toHexString()).append(
+          "director",
+          "Director " + random.nextInt(Math.max(1, catalogSize / 5))
+        )
+      );
+    }
+
+    catalog = MovieCatalogIndexService.buildSnapshot(movies, directors, Map.of(), catalogSize);
+    profile = buildProfile(random);
+    service = MovieRecommendationService.forScoring(ForkJoinPool.commonPool(), 300);
+
+    unsorted = new ArrayList<>(catalogSize);
+    for (int ordinal = 0; ordinal < catalogSize; ordinal++) {
+      unsorted.add(new ScoredMovie(ordinal, random.nextDouble() * 100));
+    }
+  }
+
+  /**
+   * Perfil equivalente al que arma buildUserProfile a partir de películas votadas al azar
+   */
+  private UserProfile buildProfile(Random random) {
+    UserProfile built = new UserProfile();
+    built.userId = "benchmark";
+    Map<Integer, Integer> decadeCounts = new HashMap<>();
+
+    for (int i = 0; i < likedMovies; i++) {
+      int ordinal = random.nextInt(catalog.size());
+      built.votedMovieIds.add(catalog.movieId(ordinal));
+      built.votedOrdinals.set(ordinal);
+
+      long bits = catalog.genreBits(ordinal);
+      while (bits != 0) {
+        built.genreCounts[Long.numberOfTrailingZeros(bits)]++;
+        bits &= bits - 1;
+      }
+      built.directorCounts.merge(catalog.directorId(ordinal), 1, Integer::sum);
+      decadeCounts.merge((catalog.year(ordinal) / 10) * 10, 1, Integer::sum);
+    }
+
+    List<Integer> genreBits = new ArrayList<>();
+    for (int bit = 0; bit < catalog.genreCount(); bit++) {
+      genreBits.add(bit);
+    }
+    genreBits.sort(Comparator.comparingInt((Integer bit) -> built.genreCounts[bit]).reversed());
+    for (int i = 0; i < Math.min(5, genreBits.size()); i++) {
+      built.topGenresMask |= 1L << genreBits.get(i);
+      if (i < 3) {
+        built.mainGenresMask |= 1L << genreBits.get(i);
+      }
+    }
+
+    built.directorCounts.entrySet()
+      .stream()
+      .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+      .limit(10)
+      .forEach(entry -> built.topDirectors.add(entry.getKey()));
+    decadeCounts.entrySet()
+      .stream()
+      .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+      .limit(3)
+      .forEach(entry -> built.favoriteDecades.add(entry.getKey()));
+    return built;
+  }
+
+  @Benchmark
+  public List<ScoredMovie> directorScoring() {
+    return service.getDirectorRecommendations(profile, catalog, 50);
+  }
+
+  @Benchmark
+  public List<ScoredMovie> genreScoring() {
+    return service.getGenreRecommendations(profile, catalog, 100);
+  }
+
+  @Benchmark
+  public List<ScoredMovie> temporalScoring() {
+    return service.getTemporalDiscovery(profile, catalog, 50);
+  }
+
+  @Benchmark
+  public List<ScoredMovie> serendipityScoring() {
+    return service.getSerendipityRecommendations(profile, catalog, 50);
+  }
+
+  @Benchmark
+  public List<ScoredMovie> sortCandidates() {
+    return service.topScored(new ArrayList<>(unsorted), 100);
+  }
+}
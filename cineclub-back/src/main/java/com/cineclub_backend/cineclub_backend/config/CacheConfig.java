@@ -1,45 +1,143 @@
 package com.cineclub_backend.cineclub_backend.config;
 
+import com.cineclub_backend.cineclub_backend.movies.dtos.DirectorDto;
+import com.cineclub_backend.cineclub_backend.movies.dtos.MovieDto;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import org.springframework.cache.CacheManager;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+  public static final Duration MOVIES_DETAILS_TTL = Duration.ofMinutes(15);
+
+  /**
+   * Serializador de los valores de cache; lo comparten el cache manager y las lecturas por lote
+   * de MovieCacheService, que acceden a las mismas claves. Los DTO cacheados se registran para
+   * que viajen con un id de tipo en lugar del nombre de clase (solo se agregan al final).
+   */
+  @Bean
+  public RedisSerializer<Object> cacheValueSerializer(
+    @Value("${cache.codec.format:SMILE}") CacheValueCodec.Format format,
+    @Value("${cache.codec.compress-threshold:1024}") int compressThreshold
+  ) {
+    return new CacheValueCodec(
+      format,
+      compressThreshold,
+      List.of(MovieDto.class, DirectorDto.class)
+    );
+  }
+
   @Bean
-  public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+  public TwoLevelCacheManager cacheManager(
+    RedisConnectionFactory connectionFactory,
+    RedisSerializer<Object> cacheValueSerializer,
+    RedisTemplate<String, String> redisTemplate,
+    @Value("${cache.l1.movies-details.max-size:10000}") long moviesLocalSize,
+    @Value("${cache.l1.movies-details.ttl-seconds:60}") long moviesLocalTtl,
+    @Value("${cache.l1.directors-details.max-size:5000}") long directorsLocalSize,
+    @Value("${cache.l1.directors-details.ttl-seconds:60}") long directorsLocalTtl,
+    @Value("${cache.single-flight.redis-lock:false}") boolean redisLock,
+    @Value("${cache.single-flight.lock-ms:5000}") long lockMs,
+    @Value("${cache.early-refresh.beta:1.0}") double earlyRefreshBeta,
+    MeterRegistry meterRegistry
+  ) {
     RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
       .entryTtl(Duration.ofHours(1))
       .serializeKeysWith(
         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
       )
       .serializeValuesWith(
-        RedisSerializationContext.SerializationPair.fromSerializer(
-          new GenericJackson2JsonRedisSerializer()
-        )
+        RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer)
       );
 
     Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
 
-    cacheConfigurations.put("movies:details", defaultConfig.entryTtl(Duration.ofMinutes(15)));
+    cacheConfigurations.put("movies:details", defaultConfig.entryTtl(MOVIES_DETAILS_TTL));
 
     cacheConfigurations.put("directors:details", defaultConfig.entryTtl(Duration.ofMinutes(15)));
 
-    return RedisCacheManager.builder(connectionFactory)
+    // L1 en memoria por nodo; un cache sin entrada aquí (o con tamaño 0) va directo a Redis
+    Map<String, TwoLevelCacheManager.LocalSpec> localSpecs = new HashMap<>();
+
+    localSpecs.put(
+      "movies:details",
+      new TwoLevelCacheManager.LocalSpec(moviesLocalSize, Duration.ofSeconds(moviesLocalTtl))
+    );
+
+    localSpecs.put(
+      "directors:details",
+      new TwoLevelCacheManager.LocalSpec(directorsLocalSize, Duration.ofSeconds(directorsLocalTtl))
+    );
+
+    RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
       .cacheDefaults(defaultConfig)
       .withInitialCacheConfigurations(cacheConfigurations)
       .build();
+    redisCacheManager.afterPropertiesSet();
+
+    return new TwoLevelCacheManager(
+      redisCacheManager,
+      localSpecs,
+      redisTemplate,
+      new TwoLevelCacheManager.LoadSettings(redisLock, Duration.ofMillis(lockMs), earlyRefreshBeta),
+      cacheRefreshExecutor(),
+      meterRegistry
+    );
+  }
+
+  /**
+   * Hilos para las recargas anticipadas; con la cola llena se omite la recarga y la clave vence
+   * normalmente
+   */
+  @Bean(name = "cacheRefreshExecutor", destroyMethod = "shutdown")
+  public ExecutorService cacheRefreshExecutor() {
+    return new ThreadPoolExecutor(
+      2,
+      2,
+      60L,
+      TimeUnit.SECONDS,
+      new ArrayBlockingQueue<>(100),
+      runnable -> {
+        Thread thread = new Thread(runnable, "cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+      },
+      new ThreadPoolExecutor.AbortPolicy()
+    );
+  }
+
+  /**
+   * Suscripción a las invalidaciones de L1 publicadas por los otros nodos
+   */
+  @Bean
+  public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+    RedisConnectionFactory connectionFactory,
+    TwoLevelCacheManager cacheManager
+  ) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.CHANNEL));
+    return container;
   }
 }
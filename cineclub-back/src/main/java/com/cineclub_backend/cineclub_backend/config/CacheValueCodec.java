@@ -0,0 +1,194 @@
+package com.cineclub_backend.cineclub_backend.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Serializador de los valores de cache con cabecera versionada:
+ *
+ * <pre>
+ * [0xCC][versión][formato][flags][tipo] ([largo nombre][nombre de clase]) ([largo original]) datos
+ * </pre>
+ *
+ * <p>El tipo es el índice en {@code knownTypes} (1, 2, ...), así un MovieDto no repite su nombre
+ * de clase en cada entrada; una clase no registrada viaja con su nombre, pero al leer solo se
+ * aceptan nombres de clases registradas: no se instancian clases arbitrarias leídas de Redis y
+ * cualquier otra se lee como ausente. Con LZ4 activo los datos que superan el umbral se comprimen
+ * y se descomprimen con el decompresor seguro, que valida los límites de la entrada. Se escribe
+ * en el formato configurado y se leen todos, así cambiar de formato no invalida el cache; una
+ * entrada sin la cabecera o de otra versión (por ejemplo el JSON de antes) se lee como ausente y
+ * se vuelve a cargar.
+ */
+public class CacheValueCodec implements RedisSerializer<Object> {
+
+  public static final byte MAGIC = (byte) 0xCC;
+  public static final byte VERSION = 1;
+
+  private static final int FLAG_LZ4 = 1;
+  private static final int NAMED_TYPE = 0xFF;
+  private static final int HEADER_SIZE = 5;
+  private static final int MAX_LENGTH = 64 * 1024 * 1024;
+
+  public enum Format {
+    JSON(1),
+    SMILE(2);
+
+    private final byte id;
+
+    Format(int id) {
+      this.id = (byte) id;
+    }
+  }
+
+  private final Format format;
+  private final int compressThreshold;
+  private final List<Class<?>> knownTypes;
+  private final Map<Class<?>, Integer> typeIds = new HashMap<>();
+  private final Map<String, Class<?>> typesByName = new HashMap<>();
+  private final ObjectMapper jsonMapper = mapper(new ObjectMapper());
+  private final ObjectMapper smileMapper = mapper(new ObjectMapper(new SmileFactory()));
+  private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+  private final LZ4SafeDecompressor decompressor = LZ4Factory.fastestInstance().safeDecompressor();
+
+  /**
+   * @param compressThreshold tamaño en bytes a partir del cual se comprime; 0 no comprime
+   * @param knownTypes clases con id compacto; el orden es parte del formato, solo se agrega al
+   *     final
+   */
+  public CacheValueCodec(Format format, int compressThreshold, List<Class<?>> knownTypes) {
+    this.format = format;
+    this.compressThreshold = compressThreshold;
+    this.knownTypes = List.copyOf(knownTypes);
+    for (int i = 0; i < this.knownTypes.size(); i++) {
+      typeIds.put(this.knownTypes.get(i), i + 1);
+      typesByName.put(this.knownTypes.get(i).getName(), this.knownTypes.get(i));
+    }
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    if (value == null) {
+      return null;
+    }
+    byte[] data;
+    try {
+      data = mapperFor(format).writeValueAsBytes(value);
+    } catch (IOException e) {
+      throw new SerializationException("No se pudo serializar el valor de cache", e);
+    }
+
+    Integer typeId = typeIds.get(value.getClass());
+    byte[] typeName = typeId == null
+      ? value.getClass().getName().getBytes(StandardCharsets.UTF_8)
+      : null;
+    boolean compress = compressThreshold > 0 && data.length >= compressThreshold;
+    byte[] payload = compress ? compressor.compress(data) : data;
+
+    ByteBuffer buffer = ByteBuffer.allocate(
+      HEADER_SIZE +
+        (typeName != null ? 2 + typeName.length : 0) +
+        (compress ? 4 : 0) +
+        payload.length
+    );
+    buffer
+      .put(MAGIC)
+      .put(VERSION)
+      .put(format.id)
+      .put((byte) (compress ? FLAG_LZ4 : 0))
+      .put((byte) (typeId != null ? typeId : NAMED_TYPE));
+    if (typeName != null) {
+      buffer.putShort((short) typeName.length).put(typeName);
+    }
+    if (compress) {
+      buffer.putInt(data.length);
+    }
+    return buffer.put(payload).array();
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length < HEADER_SIZE || bytes[0] != MAGIC || bytes[1] != VERSION) {
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+    Format entryFormat = formatOf(buffer.get());
+    int flags = buffer.get();
+    int typeId = buffer.get() & 0xFF;
+    if (entryFormat == null) {
+      return null;
+    }
+
+    try {
+      Class<?> type;
+      if (typeId == NAMED_TYPE) {
+        byte[] typeName = new byte[buffer.getShort()];
+        buffer.get(typeName);
+        type = typesByName.get(new String(typeName, StandardCharsets.UTF_8));
+        if (type == null) {
+          return null;
+        }
+      } else if (typeId >= 1 && typeId <= knownTypes.size()) {
+        type = knownTypes.get(typeId - 1);
+      } else {
+        return null;
+      }
+
+      byte[] data;
+      if ((flags & FLAG_LZ4) != 0) {
+        int length = buffer.getInt();
+        if (length < 0 || length > MAX_LENGTH) {
+          throw new SerializationException("Largo inválido en el valor de cache: " + length);
+        }
+        data = new byte[length];
+        int read = decompressor.decompress(
+          bytes,
+          buffer.position(),
+          buffer.remaining(),
+          data,
+          0,
+          length
+        );
+        if (read != length) {
+          throw new SerializationException("El valor de cache comprimido está incompleto");
+        }
+      } else {
+        data = new byte[buffer.remaining()];
+        buffer.get(data);
+      }
+      return mapperFor(entryFormat).readValue(data, type);
+    } catch (SerializationException e) {
+      throw e;
+    } catch (IOException | RuntimeException e) {
+      throw new SerializationException("No se pudo leer el valor de cache", e);
+    }
+  }
+
+  private ObjectMapper mapperFor(Format format) {
+    return format == Format.SMILE ? smileMapper : jsonMapper;
+  }
+
+  private static Format formatOf(byte id) {
+    for (Format candidate : Format.values()) {
+      if (candidate.id == id) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  private static ObjectMapper mapper(ObjectMapper mapper) {
+    return mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  }
+}
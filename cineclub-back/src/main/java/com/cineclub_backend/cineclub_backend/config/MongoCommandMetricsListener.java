@@ -0,0 +1,236 @@
+package com.cineclub_backend.cineclub_backend.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Latencia de cada comando de Mongo etiquetada por el método de la aplicación que lo originó
+ * (por ejemplo CrudMovieService.getAllMovies), publicada como histograma en mongo.command.
+ *
+ * <p>El driver es síncrono y avisa en el hilo que ejecuta la consulta, así que el origen se toma
+ * del stack en commandStarted. Opcionalmente, una muestra de las consultas lentas se repite con
+ * explain en segundo plano para registrar documentos examinados contra devueltos.
+ */
+@Slf4j
+public class MongoCommandMetricsListener implements CommandListener {
+
+  private static final String APP_PACKAGE = "com.cineclub_backend.cineclub_backend.";
+  private static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count");
+  private static final Set<String> SESSION_FIELDS = Set.of("lsid", "txnNumber", "$db");
+
+  private final MeterRegistry meterRegistry;
+  private final ObjectProvider<MongoTemplate> mongoTemplate;
+  private final ExecutorService explainExecutor;
+  private final long slowMs;
+  private final double explainSampleRate;
+  private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+
+  private record Started(String caller, String collection, BsonDocument command) {}
+
+  public MongoCommandMetricsListener(
+    MeterRegistry meterRegistry,
+    ObjectProvider<MongoTemplate> mongoTemplate,
+    ExecutorService explainExecutor,
+    long slowMs,
+    double explainSampleRate
+  ) {
+    this.meterRegistry = meterRegistry;
+    this.mongoTemplate = mongoTemplate;
+    this.explainExecutor = explainExecutor;
+    this.slowMs = slowMs;
+    this.explainSampleRate = explainSampleRate;
+  }
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    String commandName = event.getCommandName();
+    BsonDocument command = explainSampleRate > 0 && EXPLAINABLE.contains(commandName)
+      ? event.getCommand().clone()
+      : null;
+    inFlight.put(
+      event.getRequestId(),
+      new Started(caller(), collectionOf(commandName, event.getCommand()), command)
+    );
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    Started started = inFlight.remove(event.getRequestId());
+    if (started == null) {
+      return;
+    }
+    long elapsedNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+    timer(event.getCommandName(), started, "success").record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+    if (
+      started.command() != null &&
+      TimeUnit.NANOSECONDS.toMillis(elapsedNanos) >= slowMs &&
+      ThreadLocalRandom.current().nextDouble() < explainSampleRate
+    ) {
+      explainLater(event.getDatabaseName(), started);
+    }
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    Started started = inFlight.remove(event.getRequestId());
+    if (started != null) {
+      timer(event.getCommandName(), started, "error").record(
+        event.getElapsedTime(TimeUnit.NANOSECONDS),
+        TimeUnit.NANOSECONDS
+      );
+    }
+  }
+
+  private Timer timer(String commandName, Started started, String status) {
+    return Timer.builder("mongo.command")
+      .tag("command", commandName)
+      .tag("collection", started.collection())
+      .tag("caller", started.caller())
+      .tag("status", status)
+      .publishPercentileHistogram()
+      .register(meterRegistry);
+  }
+
+  /**
+   * Repite la consulta con explain(executionStats). Corre en un pool de un hilo con cola acotada;
+   * si está lleno la muestra se descarta.
+   */
+  private void explainLater(String database, Started started) {
+    Document explain = new Document("explain", withoutSessionFields(started.command())).append(
+      "verbosity",
+      "executionStats"
+    );
+    try {
+      explainExecutor.execute(() -> {
+        try {
+          Document result = mongoTemplate
+            .getObject()
+            .getMongoDatabaseFactory()
+            .getMongoDatabase(database)
+            .runCommand(explain);
+          recordExplain(started, result);
+        } catch (RuntimeException e) {
+          log.warn("No se pudo ejecutar explain para {}: {}", started.caller(), e.getMessage());
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // Ya hay suficientes explain en curso
+    }
+  }
+
+  private void recordExplain(Started started, Document result) {
+    long examined = sum(result, "totalDocsExamined");
+    long returned = sum(result, "nReturned");
+
+    DistributionSummary.builder("mongo.command.docs.examined")
+      .tag("caller", started.caller())
+      .tag("collection", started.collection())
+      .register(meterRegistry)
+      .record(examined);
+    DistributionSummary.builder("mongo.command.docs.returned")
+      .tag("caller", started.caller())
+      .tag("collection", started.collection())
+      .register(meterRegistry)
+      .record(returned);
+
+    log.warn(
+      "Consulta lenta en {} ({}): {} documentos examinados, {} devueltos",
+      started.caller(),
+      started.collection(),
+      examined,
+      returned
+    );
+  }
+
+  /**
+   * El explain de un aggregate reparte executionStats entre etapas; se suman todas
+   */
+  private static long sum(Object node, String field) {
+    long total = 0;
+    if (node instanceof Document document) {
+      if (document.get("executionStats") instanceof Document stats) {
+        Object value = stats.get(field);
+        total += value instanceof Number number ? number.longValue() : 0;
+      }
+      for (Map.Entry<String, Object> entry : document.entrySet()) {
+        if (!"executionStats".equals(entry.getKey())) {
+          total += sum(entry.getValue(), field);
+        }
+      }
+    } else if (node instanceof Iterable<?> values) {
+      for (Object value : values) {
+        total += sum(value, field);
+      }
+    }
+    return total;
+  }
+
+  private static Document withoutSessionFields(BsonDocument command) {
+    Document document = new Document();
+    for (Map.Entry<String, BsonValue> entry : command.entrySet()) {
+      String key = entry.getKey();
+      if (!SESSION_FIELDS.contains(key) && !key.startsWith("$")) {
+        document.put(key, entry.getValue());
+      }
+    }
+    return document;
+  }
+
+  private static String collectionOf(String commandName, BsonDocument command) {
+    BsonValue value = "getMore".equals(commandName)
+      ? command.get("collection")
+      : command.get(commandName);
+    return value != null && value.isString() ? value.asString().getValue() : "none";
+  }
+
+  /**
+   * Primer método de la aplicación en el stack, sin proxies de Spring ni esta configuración;
+   * las lambdas se atribuyen al método que las contiene
+   */
+  private static String caller() {
+    return StackWalker.getInstance()
+      .walk(frames ->
+        frames
+          .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE))
+          .filter(frame -> !frame.getClassName().startsWith(APP_PACKAGE + "config."))
+          .filter(frame -> !frame.getClassName().contains("$$"))
+          .findFirst()
+          .map(frame -> simpleName(frame.getClassName()) + "." + methodName(frame.getMethodName()))
+      )
+      .orElse("framework");
+  }
+
+  private static String simpleName(String className) {
+    String simple = className.substring(className.lastIndexOf('.') + 1);
+    int inner = simple.indexOf('$');
+    return inner > 0 ? simple.substring(0, inner) : simple;
+  }
+
+  private static String methodName(String method) {
+    if (method.startsWith("lambda$")) {
+      String name = method.substring("lambda$".length());
+      int end = name.indexOf('$');
+      return end > 0 ? name.substring(0, end) : name;
+    }
+    return method;
+  }
+}
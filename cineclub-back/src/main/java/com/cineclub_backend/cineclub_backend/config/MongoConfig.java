@@ -1,6 +1,10 @@
 package com.cineclub_backend.cineclub_backend.config;
 
+import com.cineclub_backend.cineclub_backend.shared.migrations.Migration;
+import com.cineclub_backend.cineclub_backend.shared.migrations.ObjectIdReferenceMigration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
 @Configuration
@@ -14,4 +18,40 @@ import org.springframework.data.mongodb.repository.config.EnableMongoRepositorie
     "com.cineclub_backend.cineclub_backend.notifications.repositories",
   }
 )
-public class MongoConfig {}
+public class MongoConfig {
+
+  @Bean
+  public Migration movieVotesObjectIdsMigration(MongoTemplate mongoTemplate) {
+    return new ObjectIdReferenceMigration(mongoTemplate, "movie_votes");
+  }
+
+  @Bean
+  public Migration directorsObjectIdsMigration(MongoTemplate mongoTemplate) {
+    return new ObjectIdReferenceMigration(mongoTemplate, "directors");
+  }
+
+  @Bean
+  public Migration reviewsObjectIdsMigration(MongoTemplate mongoTemplate) {
+    return new ObjectIdReferenceMigration(mongoTemplate, "reviews");
+  }
+
+  @Bean
+  public Migration commentsObjectIdsMigration(MongoTemplate mongoTemplate) {
+    return new ObjectIdReferenceMigration(mongoTemplate, "comments");
+  }
+
+  @Bean
+  public Migration reviewLikesObjectIdsMigration(MongoTemplate mongoTemplate) {
+    return new ObjectIdReferenceMigration(mongoTemplate, "review_likes");
+  }
+
+  @Bean
+  public Migration commentLikesObjectIdsMigration(MongoTemplate mongoTemplate) {
+    return new ObjectIdReferenceMigration(mongoTemplate, "comment_likes");
+  }
+
+  @Bean
+  public Migration collectionsObjectIdsMigration(MongoTemplate mongoTemplate) {
+    return new ObjectIdReferenceMigration(mongoTemplate, "collections");
+  }
+}
@@ -0,0 +1,54 @@
+package com.cineclub_backend.cineclub_backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@Configuration
+public class MongoMetricsConfig {
+
+  /**
+   * Un solo hilo para los explain de muestra; con la cola llena se descartan
+   */
+  @Bean(name = "mongoExplainExecutor", destroyMethod = "shutdown")
+  public ExecutorService mongoExplainExecutor() {
+    return new ThreadPoolExecutor(
+      1,
+      1,
+      60L,
+      TimeUnit.SECONDS,
+      new ArrayBlockingQueue<>(20),
+      runnable -> {
+        Thread thread = new Thread(runnable, "mongo-explain");
+        thread.setDaemon(true);
+        return thread;
+      },
+      new ThreadPoolExecutor.AbortPolicy()
+    );
+  }
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer mongoCommandMetrics(
+    MeterRegistry meterRegistry,
+    ObjectProvider<MongoTemplate> mongoTemplate,
+    @Value("${mongo.metrics.slow-ms:200}") long slowMs,
+    @Value("${mongo.metrics.explain-sample-rate:0}") double explainSampleRate
+  ) {
+    MongoCommandMetricsListener listener = new MongoCommandMetricsListener(
+      meterRegistry,
+      mongoTemplate,
+      mongoExplainExecutor(),
+      slowMs,
+      explainSampleRate
+    );
+    return settings -> settings.addCommandListener(listener);
+  }
+}
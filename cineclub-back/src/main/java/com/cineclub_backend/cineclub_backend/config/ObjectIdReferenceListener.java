@@ -0,0 +1,32 @@
+package com.cineclub_backend.cineclub_backend.config;
+
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences;
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences.Reference;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Completa los campos ObjectId paralelos en cada save/insert. Los modelos siguen exponiendo los
+ * ids como String, así que el campo se agrega sobre el documento ya convertido.
+ */
+@Component
+public class ObjectIdReferenceListener extends AbstractMongoEventListener<Object> {
+
+  @Override
+  public void onBeforeSave(BeforeSaveEvent<Object> event) {
+    Document document = event.getDocument();
+    if (document == null) {
+      return;
+    }
+    for (Reference reference : ObjectIdReferences.forCollection(event.getCollectionName())) {
+      Object value = ObjectIdReferences.toObjectIds(document.get(reference.field()));
+      if (value != null) {
+        document.put(reference.objectIdField(), value);
+      } else {
+        document.remove(reference.objectIdField());
+      }
+    }
+  }
+}
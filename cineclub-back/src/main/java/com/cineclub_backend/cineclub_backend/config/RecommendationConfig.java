@@ -0,0 +1,42 @@
+package com.cineclub_backend.cineclub_backend.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RecommendationConfig {
+
+  /**
+   * Pool acotado donde corren en paralelo las estrategias de recomendación. Si la cola se llena
+   * la tarea se rechaza y esa estrategia no aporta candidatos en lugar de encolar sin límite.
+   */
+  @Bean(name = "recommendationExecutor", destroyMethod = "shutdown")
+  public ExecutorService recommendationExecutor(
+    @Value("${recommendations.executor.threads:8}") int threads,
+    @Value("${recommendations.executor.queue-capacity:200}") int queueCapacity
+  ) {
+    AtomicInteger counter = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "recommendation-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+
+    return new ThreadPoolExecutor(
+      threads,
+      threads,
+      60L,
+      TimeUnit.SECONDS,
+      new ArrayBlockingQueue<>(queueCapacity),
+      threadFactory,
+      new ThreadPoolExecutor.AbortPolicy()
+    );
+  }
+}
@@ -59,7 +59,14 @@ public class SecurityConfig {
   @Order(1)
   public SecurityFilterChain docsSecurityFilterChain(HttpSecurity http) throws Exception {
     http
-      .securityMatcher("/docs", "/api-docs.html")
+      .securityMatcher(
+        "/docs",
+        "/api-docs.html",
+        "/actuator/indexes",
+        "/actuator/prometheus",
+        "/exports/**",
+        "/movies/imports/**"
+      )
       .authorizeHttpRequests(auth -> auth.anyRequest().authenticated())
       .httpBasic(basic -> {})
       .csrf(AbstractHttpConfigurer::disable);
@@ -0,0 +1,294 @@
+package com.cineclub_backend.cineclub_backend.config;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+/**
+ * Cache de dos niveles: Caffeine en memoria (L1, acotado y por nodo) delante del cache de Redis
+ * (L2, compartido). Las lecturas prueban L1 y luego L2; las escrituras y desalojos van a los dos
+ * y se avisan al resto de los nodos para que descarten su L1.
+ *
+ * <p>Con {@code @Cacheable(sync = true)} las cargas pasan por {@link #get(Object, Callable)}:
+ * las peticiones concurrentes por una misma clave esperan a una sola carga (y, si está activo,
+ * a la de otro nodo mediante un lock en Redis), y las claves leídas poco antes de vencer en Redis
+ * se recargan en segundo plano con probabilidad creciente (XFetch) para que no venzan en frío.
+ *
+ * <p>Los valores de L1 son las mismas instancias que reciben todos los llamadores: no deben
+ * modificarse.
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+  private static final long WAIT_STEP_MS = 50;
+
+  /**
+   * Valor en L1 con el vencimiento conocido en Redis (0 si se desconoce) y lo que costó cargarlo
+   */
+  private record Entry(Object value, long expiresAt, long loadMillis) {}
+
+  private final String name;
+  private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+  private final Cache remote;
+  private final RedisCacheWriter.TtlFunction remoteTtl;
+  private final TwoLevelCacheManager manager;
+  private final ConcurrentHashMap<Object, CompletableFuture<Object>> loading =
+    new ConcurrentHashMap<>();
+  private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+  private volatile long averageLoadMillis = 50;
+
+  TwoLevelCache(
+    String name,
+    com.github.benmanes.caffeine.cache.Cache<Object, Object> local,
+    Cache remote,
+    RedisCacheWriter.TtlFunction remoteTtl,
+    TwoLevelCacheManager manager
+  ) {
+    super(true);
+    this.name = name;
+    this.local = local;
+    this.remote = remote;
+    this.remoteTtl = remoteTtl;
+    this.manager = manager;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return remote.getNativeCache();
+  }
+
+  @Override
+  protected Object lookup(Object key) {
+    if (local.getIfPresent(key) instanceof Entry entry) {
+      return entry.value();
+    }
+    ValueWrapper wrapper = remote.get(key);
+    if (wrapper == null) {
+      return null;
+    }
+    return cacheFromRemote(key, toStoreValue(wrapper.get()));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    if (local.getIfPresent(key) instanceof Entry entry) {
+      if (shouldRefreshEarly(entry)) {
+        refreshAsync(key, valueLoader);
+      }
+      return (T) fromStoreValue(entry.value());
+    }
+    return (T) fromStoreValue(loadOnce(key, valueLoader));
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    remote.put(key, value);
+    local.put(key, new Entry(toStoreValue(value), expiresAt(key, value), 0));
+    manager.publishEvict(name, key);
+  }
+
+  @Override
+  public void evict(Object key) {
+    remote.evict(key);
+    local.invalidate(key);
+    manager.publishEvict(name, key);
+  }
+
+  @Override
+  public void clear() {
+    remote.clear();
+    local.invalidateAll();
+    manager.publishClear(name);
+  }
+
+  /**
+   * Solo L1; para lecturas por lote que resuelven los faltantes contra Redis por su cuenta
+   */
+  public Object getLocal(Object key) {
+    return local.getIfPresent(key) instanceof Entry entry ? fromStoreValue(entry.value()) : null;
+  }
+
+  /**
+   * Guarda en L1 un valor leído de Redis por fuera del cache; no se avisa a los otros nodos
+   * porque el valor no cambió
+   */
+  public void putLocal(Object key, Object value) {
+    local.put(key, new Entry(toStoreValue(value), 0, 0));
+  }
+
+  void evictLocal(Object key) {
+    local.invalidate(key);
+  }
+
+  void clearLocal() {
+    local.invalidateAll();
+  }
+
+  /**
+   * Single-flight: la primera petición carga y las concurrentes por la misma clave esperan su
+   * resultado
+   */
+  private Object loadOnce(Object key, Callable<?> valueLoader) {
+    CompletableFuture<Object> created = new CompletableFuture<>();
+    CompletableFuture<Object> inFlight = loading.putIfAbsent(key, created);
+    if (inFlight != null) {
+      manager.recordCoalesced(name, "local");
+      try {
+        return inFlight.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException cause
+          ? cause
+          : new ValueRetrievalException(key, valueLoader, e.getCause());
+      }
+    }
+
+    try {
+      ValueWrapper wrapper = remote.get(key);
+      Object value = wrapper != null
+        ? cacheFromRemote(key, toStoreValue(wrapper.get()))
+        : loadAndStore(key, valueLoader);
+      created.complete(value);
+      return value;
+    } catch (RuntimeException e) {
+      created.completeExceptionally(e);
+      throw e;
+    } finally {
+      loading.remove(key, created);
+    }
+  }
+
+  /**
+   * Ejecuta la carga y guarda el resultado en los dos niveles. Con el lock entre nodos activo,
+   * si otro nodo ya está cargando la clave se espera a que aparezca en Redis (hasta el TTL del
+   * lock) antes de cargarla de todos modos.
+   */
+  private Object loadAndStore(Object key, Callable<?> valueLoader) {
+    boolean locked = false;
+    if (manager.isRedisLockEnabled()) {
+      locked = manager.tryLock(name, key);
+      if (!locked) {
+        Object value = waitForRemote(key);
+        if (value != null) {
+          manager.recordCoalesced(name, "remote");
+          return value;
+        }
+      }
+    }
+
+    try {
+      long start = System.nanoTime();
+      Object value;
+      try {
+        value = valueLoader.call();
+      } catch (Exception e) {
+        throw new ValueRetrievalException(key, valueLoader, e);
+      }
+      long loadMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+      averageLoadMillis = (averageLoadMillis * 7 + loadMillis) / 8;
+
+      remote.put(key, value);
+      Object storeValue = toStoreValue(value);
+      local.put(key, new Entry(storeValue, expiresAt(key, value), loadMillis));
+      return storeValue;
+    } finally {
+      if (locked) {
+        manager.unlock(name, key);
+      }
+    }
+  }
+
+  private Object waitForRemote(Object key) {
+    long deadline = System.currentTimeMillis() + manager.getLockTtl().toMillis();
+    while (System.currentTimeMillis() < deadline) {
+      try {
+        Thread.sleep(WAIT_STEP_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+      ValueWrapper wrapper = remote.get(key);
+      if (wrapper != null) {
+        return cacheFromRemote(key, toStoreValue(wrapper.get()));
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Un valor leído de Redis no trae su vencimiento: solo se consulta (PTTL) si XFetch lo va a usar
+   */
+  private Object cacheFromRemote(Object key, Object storeValue) {
+    long expiresAt = 0;
+    if (manager.getEarlyRefreshBeta() > 0) {
+      long remainingMillis = manager.remainingTtlMillis(name, key);
+      expiresAt = remainingMillis > 0 ? System.currentTimeMillis() + remainingMillis : 0;
+    }
+    local.put(key, new Entry(storeValue, expiresAt, 0));
+    return storeValue;
+  }
+
+  /**
+   * Vencimiento en Redis de un valor recién escrito, según el TTL configurado del cache
+   */
+  private long expiresAt(Object key, Object value) {
+    if (remoteTtl == null) {
+      return 0;
+    }
+    Duration ttl = remoteTtl.getTimeToLive(key, value);
+    return ttl != null && !ttl.isZero() && !ttl.isNegative()
+      ? System.currentTimeMillis() + ttl.toMillis()
+      : 0;
+  }
+
+  /**
+   * XFetch: recarga antes de vencer con probabilidad que crece al acercarse el vencimiento y
+   * con el costo de la carga. Con beta 0 o vencimiento desconocido nunca se adelanta.
+   */
+  private boolean shouldRefreshEarly(Entry entry) {
+    double beta = manager.getEarlyRefreshBeta();
+    if (entry.expiresAt() == 0 || beta <= 0) {
+      return false;
+    }
+    long loadMillis = entry.loadMillis() > 0 ? entry.loadMillis() : averageLoadMillis;
+    double gap = -loadMillis * beta * Math.log(ThreadLocalRandom.current().nextDouble());
+    return System.currentTimeMillis() + gap >= entry.expiresAt();
+  }
+
+  private void refreshAsync(Object key, Callable<?> valueLoader) {
+    if (!refreshing.add(key)) {
+      return;
+    }
+    try {
+      manager
+        .getRefreshExecutor()
+        .execute(() -> {
+          try {
+            loadAndStore(key, valueLoader);
+            manager.recordEarlyRefresh(name);
+            manager.publishEvict(name, key);
+          } catch (Exception e) {
+            log.error("Error recargando {} en el cache {}: {}", key, name, e.getMessage());
+          } finally {
+            refreshing.remove(key);
+          }
+        });
+    } catch (RejectedExecutionException e) {
+      refreshing.remove(key);
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package com.cineclub_backend.cineclub_backend.config;
+
+import com.cineclub_backend.cineclub_backend.shared.helpers.RedisLockHelper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Envuelve el RedisCacheManager y agrega un L1 de Caffeine a los caches que tienen tamaño
+ * configurado; el resto se sirve solo desde Redis. Los desalojos se publican en el canal
+ * {@link #CHANNEL} y cada nodo descarta esas claves de su L1, ignorando sus propios mensajes.
+ * Las claves viajan como texto, así que el L1 solo sirve para caches con claves String.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+  public static final String CHANNEL = "cache:invalidation";
+
+  private static final String CLEAR = "*";
+
+  /**
+   * Tamaño máximo y TTL del L1 de un cache; el TTL de L1 acota cuánto puede durar un valor viejo
+   * si se pierde un mensaje de invalidación
+   */
+  public record LocalSpec(long maxSize, Duration ttl) {}
+
+  /**
+   * Protección ante estampidas: lock en Redis para coordinar la carga entre nodos (opcional),
+   * su TTL, que también es la espera máxima de los otros nodos, y el beta de XFetch (0 desactiva
+   * la recarga anticipada)
+   */
+  public record LoadSettings(boolean redisLock, Duration lockTtl, double earlyRefreshBeta) {}
+
+  private final CacheManager remote;
+  private final Map<String, LocalSpec> localSpecs;
+  private final RedisTemplate<String, String> redisTemplate;
+  private final LoadSettings loadSettings;
+  private final Executor refreshExecutor;
+  private final MeterRegistry meterRegistry;
+  private final String nodeId = UUID.randomUUID().toString();
+  private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+  public TwoLevelCacheManager(
+    CacheManager remote,
+    Map<String, LocalSpec> localSpecs,
+    RedisTemplate<String, String> redisTemplate,
+    LoadSettings loadSettings,
+    Executor refreshExecutor,
+    MeterRegistry meterRegistry
+  ) {
+    this.remote = remote;
+    this.localSpecs = localSpecs;
+    this.redisTemplate = redisTemplate;
+    this.loadSettings = loadSettings;
+    this.refreshExecutor = refreshExecutor;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    return caches.computeIfAbsent(name, this::createCache);
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return remote.getCacheNames();
+  }
+
+  private Cache createCache(String name) {
+    Cache remoteCache = remote.getCache(name);
+    LocalSpec spec = localSpecs.get(name);
+    if (remoteCache == null || spec == null || spec.maxSize() <= 0) {
+      return remoteCache;
+    }
+    RedisCacheWriter.TtlFunction remoteTtl = remoteCache instanceof RedisCache redisCache
+      ? redisCache.getCacheConfiguration().getTtlFunction()
+      : null;
+    return new TwoLevelCache(
+      name,
+      Caffeine.newBuilder().maximumSize(spec.maxSize()).expireAfterWrite(spec.ttl()).build(),
+      remoteCache,
+      remoteTtl,
+      this
+    );
+  }
+
+  boolean isRedisLockEnabled() {
+    return loadSettings.redisLock();
+  }
+
+  Duration getLockTtl() {
+    return loadSettings.lockTtl();
+  }
+
+  double getEarlyRefreshBeta() {
+    return loadSettings.earlyRefreshBeta();
+  }
+
+  Executor getRefreshExecutor() {
+    return refreshExecutor;
+  }
+
+  /**
+   * Si Redis falla se carga sin lock: una carga repetida es preferible a no responder
+   */
+  boolean tryLock(String cacheName, Object key) {
+    try {
+      return RedisLockHelper.tryAcquire(
+        redisTemplate,
+        lockKey(cacheName, key),
+        nodeId,
+        loadSettings.lockTtl()
+      );
+    } catch (Exception e) {
+      log.error("Error tomando el lock de carga del cache {}: {}", cacheName, e.getMessage());
+      return true;
+    }
+  }
+
+  /**
+   * Solo borra el lock si sigue siendo de este nodo: si venció y lo tomó otro, no se le quita
+   */
+  void unlock(String cacheName, Object key) {
+    try {
+      RedisLockHelper.release(redisTemplate, lockKey(cacheName, key), nodeId);
+    } catch (Exception e) {
+      log.error("Error liberando el lock de carga del cache {}: {}", cacheName, e.getMessage());
+    }
+  }
+
+  /**
+   * Milisegundos que le quedan a la clave en Redis; 0 si no vence o no se pudo consultar
+   */
+  long remainingTtlMillis(String cacheName, Object key) {
+    try {
+      Long ttl = redisTemplate.getExpire(redisKey(cacheName, key), TimeUnit.MILLISECONDS);
+      return ttl != null && ttl > 0 ? ttl : 0;
+    } catch (Exception e) {
+      return 0;
+    }
+  }
+
+  void recordCoalesced(String cacheName, String scope) {
+    Counter.builder("cache.requests.coalesced")
+      .description("Peticiones que esperaron la carga de otra en lugar de ir a la base")
+      .tag("cache", cacheName)
+      .tag("scope", scope)
+      .register(meterRegistry)
+      .increment();
+  }
+
+  void recordEarlyRefresh(String cacheName) {
+    Counter.builder("cache.refresh.early")
+      .tag("cache", cacheName)
+      .register(meterRegistry)
+      .increment();
+  }
+
+  /**
+   * Misma clave que usa RedisCacheManager (prefijo simple "nombre::")
+   */
+  private static String redisKey(String cacheName, Object key) {
+    return cacheName + "::" + key;
+  }
+
+  private static String lockKey(String cacheName, Object key) {
+    return redisKey(cacheName, key) + ":loading";
+  }
+
+  void publishEvict(String cacheName, Object key) {
+    publish(cacheName, String.valueOf(key));
+  }
+
+  void publishClear(String cacheName) {
+    publish(cacheName, CLEAR);
+  }
+
+  /**
+   * Mensaje: nodo, cache y clave separados por salto de línea. Si Redis falla los otros nodos
+   * conservan su L1 hasta que venza el TTL local.
+   */
+  private void publish(String cacheName, String key) {
+    try {
+      redisTemplate.convertAndSend(CHANNEL, nodeId + "\n" + cacheName + "\n" + key);
+    } catch (Exception e) {
+      log.error("Error publicando la invalidación del cache {}: {}", cacheName, e.getMessage());
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+    if (parts.length < 3 || nodeId.equals(parts[0])) {
+      return;
+    }
+    if (caches.get(parts[1]) instanceof TwoLevelCache cache) {
+      if (CLEAR.equals(parts[2])) {
+        cache.clearLocal();
+      } else {
+        cache.evictLocal(parts[2]);
+      }
+    }
+  }
+}
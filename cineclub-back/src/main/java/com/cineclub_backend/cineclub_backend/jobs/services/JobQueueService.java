@@ -2,6 +2,7 @@ package com.cineclub_backend.cineclub_backend.jobs.services;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +30,31 @@ public class JobQueueService {
     }
   }
 
+  /**
+   * Encola el job solo si no se encoló otro con la misma clave dentro de la ventana indicada.
+   * Sirve para que varias instancias (o varios eventos seguidos) no dupliquen el mismo trabajo.
+   *
+   * @return true si el job se encoló
+   */
+  public boolean enqueueJobOnce(Map<String, Object> jobData, String dedupeKey, Duration window) {
+    Boolean acquired = redisTemplate
+      .opsForValue()
+      .setIfAbsent(JOB_QUEUE + ":dedupe:" + dedupeKey, LocalDateTime.now().toString(), window);
+    if (!Boolean.TRUE.equals(acquired)) {
+      return false;
+    }
+    enqueueJob(jobData);
+    return true;
+  }
+
+  /**
+   * Libera la clave de deduplicación para que un nuevo evento pueda volver a encolar el job.
+   * El worker la libera al empezar a procesarlo, así los eventos posteriores no se pierden.
+   */
+  public void releaseJobOnce(String dedupeKey) {
+    redisTemplate.delete(JOB_QUEUE + ":dedupe:" + dedupeKey);
+  }
+
   public Map<String, Object> dequeueJob() {
     try {
       String json = redisTemplate.opsForList().leftPop(JOB_QUEUE);
@@ -1,6 +1,14 @@
 package com.cineclub_backend.cineclub_backend.jobs.workers;
 
 import com.cineclub_backend.cineclub_backend.jobs.services.JobQueueService;
+import com.cineclub_backend.cineclub_backend.movies.services.CollaborativeFilteringService;
+import com.cineclub_backend.cineclub_backend.movies.services.MovieImportService;
+import com.cineclub_backend.cineclub_backend.movies.services.MovieSimilarityService;
+import com.cineclub_backend.cineclub_backend.movies.services.MovieVoteCounterService;
+import com.cineclub_backend.cineclub_backend.movies.services.RecommendationBatchService;
+import com.cineclub_backend.cineclub_backend.movies.services.UserTasteProfileService;
+import com.cineclub_backend.cineclub_backend.shared.indexes.IndexService;
+import com.cineclub_backend.cineclub_backend.shared.migrations.MigrationService;
 import com.cineclub_backend.cineclub_backend.shared.services.EmailService;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +27,30 @@ public class JobWorkerService {
   @Autowired
   private EmailService emailService;
 
+  @Autowired
+  private UserTasteProfileService userTasteProfileService;
+
+  @Autowired
+  private RecommendationBatchService recommendationBatchService;
+
+  @Autowired
+  private MovieSimilarityService movieSimilarityService;
+
+  @Autowired
+  private CollaborativeFilteringService collaborativeFilteringService;
+
+  @Autowired
+  private MovieVoteCounterService movieVoteCounterService;
+
+  @Autowired
+  private MigrationService migrationService;
+
+  @Autowired
+  private IndexService indexService;
+
+  @Autowired
+  private MovieImportService movieImportService;
+
   @Async
   @Scheduled(fixedDelay = 3000)
   public void processJobs() {
@@ -58,6 +90,25 @@ public class JobWorkerService {
             emailService.sendEmail(to, subject, body);
             System.out.println("📨 Email de colección enviado a " + to);
           }
+          case "USER_PROFILE_REBUILD" -> {
+            String userId = (String) job.get("userId");
+            if (userId != null) {
+              userTasteProfileService.rebuild(userId);
+            } else {
+              userTasteProfileService.rebuildAll();
+            }
+          }
+          case "USER_PROFILE_VERIFY" -> userTasteProfileService.verifyAll();
+          case "RECOMMENDATIONS_REFRESH" -> recommendationBatchService.refresh(
+            (String) job.get("userId")
+          );
+          case "RECOMMENDATIONS_REFRESH_ALL" -> recommendationBatchService.refreshAll();
+          case "MOVIE_SIMILARITY_BUILD" -> movieSimilarityService.rebuild();
+          case "ALS_TRAIN" -> collaborativeFilteringService.train();
+          case MovieVoteCounterService.RECONCILE_JOB -> movieVoteCounterService.reconcile();
+          case MigrationService.RUN_JOB -> migrationService.runPending();
+          case IndexService.RECONCILE_JOB -> indexService.reconcile();
+          case MovieImportService.RUN_JOB -> movieImportService.run((String) job.get("importId"));
           default -> System.out.println("⚠️ Tipo de job desconocido: " + type);
         }
       } catch (Exception e) {
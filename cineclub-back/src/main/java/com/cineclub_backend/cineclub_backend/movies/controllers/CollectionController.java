@@ -38,6 +38,14 @@ public class CollectionController {
     @ParameterObject FindCollectionPagedDto findCollectionPagedDto,
     @AuthenticationPrincipal String userId
   ) {
+    if (findCollectionPagedDto.usesCursor()) {
+      return crudCollectionService.getCollectionsByCursor(
+        findCollectionPagedDto.getTitle(),
+        userId,
+        findCollectionPagedDto.toPageable(),
+        findCollectionPagedDto.getAfter()
+      );
+    }
     PagedResponseDto<CollectionResponseDto> collections = crudCollectionService.getPagedCollections(
       findCollectionPagedDto.getTitle(),
       userId,
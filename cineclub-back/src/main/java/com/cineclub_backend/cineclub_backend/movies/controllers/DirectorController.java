@@ -42,6 +42,15 @@ public class DirectorController {
   public PagedResponseDto<DirectorDto> getPagedDirectorsWithMovies(
     @ParameterObject FindDirectorDto findDirectorDto
   ) {
+    if (findDirectorDto.usesCursor()) {
+      return new PagedResponseDto<>(
+        crudDirectorService.getPagedDirectorsWithMoviesByCursor(
+          findDirectorDto.getDirector(),
+          findDirectorDto.toPageable(),
+          findDirectorDto.getAfter()
+        )
+      );
+    }
     Page<DirectorDto> page = crudDirectorService.getPagedDirectorsWithMovies(
       findDirectorDto.getDirector(),
       findDirectorDto.toPageable()
@@ -54,6 +63,15 @@ public class DirectorController {
   public PagedResponseDto<DirectorDto> getPagedDirectors(
     @ParameterObject FindDirectorDto findDirectorDto
   ) {
+    if (findDirectorDto.usesCursor()) {
+      return new PagedResponseDto<>(
+        crudDirectorService.getPagedDirectorsByCursor(
+          findDirectorDto.getDirector(),
+          findDirectorDto.toPageable(),
+          findDirectorDto.getAfter()
+        )
+      );
+    }
     Page<DirectorDto> page = crudDirectorService.getPagedDirectors(
       findDirectorDto.getDirector(),
       findDirectorDto.toPageable()
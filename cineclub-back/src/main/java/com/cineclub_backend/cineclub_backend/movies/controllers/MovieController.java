@@ -7,7 +7,8 @@ import com.cineclub_backend.cineclub_backend.movies.dtos.UpdateMovieDto;
 import com.cineclub_backend.cineclub_backend.movies.dtos.VoteMovieDto;
 import com.cineclub_backend.cineclub_backend.movies.services.CrudMovieService;
 import com.cineclub_backend.cineclub_backend.movies.services.CrudMovieVoteService;
-import com.cineclub_backend.cineclub_backend.movies.services.MovieRecommendationService;
+import com.cineclub_backend.cineclub_backend.movies.services.MovieSimilarityService;
+import com.cineclub_backend.cineclub_backend.movies.services.RecommendationBatchService;
 import com.cineclub_backend.cineclub_backend.shared.dtos.ApiResponse;
 import com.cineclub_backend.cineclub_backend.shared.dtos.PagedResponseDto;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,6 +16,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
@@ -38,16 +40,19 @@ public class MovieController {
 
   private final CrudMovieService crudMovieService;
   private final CrudMovieVoteService crudMovieVoteService;
-  private final MovieRecommendationService movieRecommendationService;
+  private final RecommendationBatchService recommendationBatchService;
+  private final MovieSimilarityService movieSimilarityService;
 
   public MovieController(
     CrudMovieService crudMovieService,
     CrudMovieVoteService crudMovieVoteService,
-    MovieRecommendationService movieRecommendationService
+    RecommendationBatchService recommendationBatchService,
+    MovieSimilarityService movieSimilarityService
   ) {
     this.crudMovieService = crudMovieService;
     this.crudMovieVoteService = crudMovieVoteService;
-    this.movieRecommendationService = movieRecommendationService;
+    this.recommendationBatchService = recommendationBatchService;
+    this.movieSimilarityService = movieSimilarityService;
   }
 
   @GetMapping
@@ -56,6 +61,16 @@ public class MovieController {
     @ParameterObject FindMovieDto findMovieDto,
     @AuthenticationPrincipal String userId
   ) {
+    if (findMovieDto.usesCursor()) {
+      return new PagedResponseDto<>(
+        crudMovieService.getAllMoviesByCursor(
+          findMovieDto.getTitle(),
+          findMovieDto.toPageable(),
+          findMovieDto.getAfter(),
+          userId
+        )
+      );
+    }
     Page<MovieDto> page = crudMovieService.getAllMovies(
       findMovieDto.getTitle(),
       findMovieDto.toPageable(),
@@ -64,6 +79,18 @@ public class MovieController {
     return new PagedResponseDto<>(page);
   }
 
+  @GetMapping("/batch")
+  @Operation(
+    summary = "Obtener varias películas por ID",
+    description = "Retorna las películas en el orden recibido, omitiendo IDs inexistentes"
+  )
+  public ResponseEntity<ApiResponse<List<MovieDto>>> getMoviesByIds(
+    @RequestParam @Size(min = 1, max = 100) List<String> ids
+  ) {
+    List<MovieDto> movies = crudMovieService.getMoviesByIds(ids);
+    return ResponseEntity.ok(ApiResponse.success(movies));
+  }
+
   @GetMapping("/{id}")
   @Operation(
     summary = "Obtener película por ID",
@@ -145,7 +172,20 @@ public class MovieController {
   public ResponseEntity<ApiResponse<List<MovieDto>>> getRecommendedMovies(
     @AuthenticationPrincipal String userId
   ) {
-    List<MovieDto> movies = movieRecommendationService.run(userId);
+    List<MovieDto> movies = recommendationBatchService.getRecommendations(userId);
+    return ResponseEntity.ok(ApiResponse.success(movies));
+  }
+
+  @GetMapping("/{id}/similar")
+  @Operation(
+    summary = "Películas similares",
+    description = "Obtiene las películas que más coinciden en votos UP con la película indicada"
+  )
+  public ResponseEntity<ApiResponse<List<MovieDto>>> getSimilarMovies(
+    @PathVariable String id,
+    @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit
+  ) {
+    List<MovieDto> movies = movieSimilarityService.getSimilarMovies(id, limit);
     return ResponseEntity.ok(ApiResponse.success(movies));
   }
 
@@ -0,0 +1,86 @@
+package com.cineclub_backend.cineclub_backend.movies.controllers;
+
+import com.cineclub_backend.cineclub_backend.movies.dtos.MovieImportDto;
+import com.cineclub_backend.cineclub_backend.movies.dtos.StartMovieImportDto;
+import com.cineclub_backend.cineclub_backend.movies.services.MovieImportService;
+import com.cineclub_backend.cineclub_backend.shared.dtos.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * /movies/imports: requiere las credenciales de docs (ver SecurityConfig)
+ */
+@RestController
+@RequestMapping("/movies/imports")
+@Tag(name = "Movie imports", description = "Importación masiva de películas (NDJSON o CSV)")
+public class MovieImportController {
+
+  private final MovieImportService movieImportService;
+
+  public MovieImportController(MovieImportService movieImportService) {
+    this.movieImportService = movieImportService;
+  }
+
+  @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  @Operation(
+    summary = "Subir archivo de importación",
+    description = "Guarda el archivo y encola la importación; formato según la extensión"
+  )
+  public ResponseEntity<ApiResponse<MovieImportDto>> uploadImport(
+    @RequestPart("file") MultipartFile file,
+    @RequestParam(required = false) String format
+  ) {
+    MovieImportDto movieImport = movieImportService.startUpload(file, format);
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+      ApiResponse.success("Importación encolada", movieImport)
+    );
+  }
+
+  @PostMapping("/local")
+  @Operation(
+    summary = "Importar archivo del servidor",
+    description = "Encola la importación de un archivo ubicado en el directorio de importaciones"
+  )
+  public ResponseEntity<ApiResponse<MovieImportDto>> startLocalImport(
+    @Valid @RequestBody StartMovieImportDto dto
+  ) {
+    MovieImportDto movieImport = movieImportService.startLocal(dto);
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+      ApiResponse.success("Importación encolada", movieImport)
+    );
+  }
+
+  @GetMapping("/{id}")
+  @Operation(
+    summary = "Estado de una importación",
+    description = "Retorna el avance: registros procesados, insertados, actualizados e inválidos"
+  )
+  public ResponseEntity<ApiResponse<MovieImportDto>> getImport(@PathVariable String id) {
+    return ResponseEntity.ok(ApiResponse.success(movieImportService.getImport(id)));
+  }
+
+  @PostMapping("/{id}/resume")
+  @Operation(
+    summary = "Retomar una importación",
+    description = "Vuelve a encolar una importación fallida o interrumpida desde el último lote"
+  )
+  public ResponseEntity<ApiResponse<MovieImportDto>> resumeImport(@PathVariable String id) {
+    MovieImportDto movieImport = movieImportService.resume(id);
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+      ApiResponse.success("Importación encolada", movieImport)
+    );
+  }
+}
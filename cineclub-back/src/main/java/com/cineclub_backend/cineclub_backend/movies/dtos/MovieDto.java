@@ -2,9 +2,15 @@ package com.cineclub_backend.cineclub_backend.movies.dtos;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.Date;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
 public class MovieDto {
 
   private String id;
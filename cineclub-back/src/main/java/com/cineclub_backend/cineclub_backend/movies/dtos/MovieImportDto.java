@@ -0,0 +1,24 @@
+package com.cineclub_backend.cineclub_backend.movies.dtos;
+
+import java.util.Date;
+import lombok.Data;
+
+@Data
+public class MovieImportDto {
+
+  private String id;
+  private String file;
+  private String format;
+  private String status;
+  private long fileSize;
+  private long bytesRead;
+  private long processed;
+  private long inserted;
+  private long updated;
+  private long invalid;
+  private double rowsPerSecond;
+  private String error;
+  private Date startedAt;
+  private Date updatedAt;
+  private Date finishedAt;
+}
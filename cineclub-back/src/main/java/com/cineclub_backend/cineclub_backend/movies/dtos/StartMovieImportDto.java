@@ -0,0 +1,19 @@
+package com.cineclub_backend.cineclub_backend.movies.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class StartMovieImportDto {
+
+  @NotBlank(message = "El archivo es obligatorio")
+  @Schema(
+    description = "Nombre del archivo dentro del directorio de importaciones del servidor",
+    example = "tmdb_movies.ndjson"
+  )
+  private String file;
+
+  @Schema(description = "NDJSON o CSV; por defecto se deduce de la extensión", example = "NDJSON")
+  private String format;
+}
@@ -0,0 +1,60 @@
+package com.cineclub_backend.cineclub_backend.movies.helpers;
+
+import java.util.Arrays;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+
+/**
+ * Director de respaldo para las películas que MovieDirectorMigration todavía no alcanzó: no
+ * tienen director ni director_id y se toman de la colección directors, como antes de
+ * desnormalizarlos. Solo se usa mientras la migración no terminó.
+ */
+public final class DirectorFallbackHelper {
+
+  private DirectorFallbackHelper() {}
+
+  /**
+   * Completa director y director_id cuando faltan
+   *
+   * @param movieIdPath expresión con el id de la película ("$_id" en movies, "$movie_id" en
+   *     reviews)
+   * @param moviePrefix prefijo de los campos de la película ("" en movies, "movie." si está unida)
+   */
+  public static List<AggregationOperation> stages(String movieIdPath, String moviePrefix) {
+    Document match = new Document(
+      "$match",
+      new Document(
+        "$expr",
+        new Document("$eq", Arrays.asList("$movie_id", "$$movie_id_str"))
+      )
+    );
+    Document lookup = new Document("from", "directors")
+      .append("let", new Document("movie_id_str", new Document("$toString", movieIdPath)))
+      .append("pipeline", List.of(match, new Document("$limit", 1)))
+      .append("as", "director_doc");
+
+    String director = moviePrefix + "director";
+    String directorId = moviePrefix + "director_id";
+    Document fields = new Document(
+      director,
+      new Document("$ifNull", Arrays.asList("$" + director, first("$director_doc.director")))
+    ).append(
+      directorId,
+      new Document(
+        "$ifNull",
+        Arrays.asList("$" + directorId, new Document("$toString", first("$director_doc._id")))
+      )
+    );
+
+    return List.of(
+      Aggregation.stage(new Document("$lookup", lookup)),
+      Aggregation.stage(new Document("$addFields", fields))
+    );
+  }
+
+  private static Document first(String arrayPath) {
+    return new Document("$arrayElemAt", Arrays.asList(arrayPath, 0));
+  }
+}
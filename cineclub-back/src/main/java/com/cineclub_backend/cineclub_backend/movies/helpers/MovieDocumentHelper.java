@@ -0,0 +1,260 @@
+package com.cineclub_backend.cineclub_backend.movies.helpers;
+
+import com.cineclub_backend.cineclub_backend.movies.dtos.MovieDto;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+/**
+ * Utilidades para leer documentos crudos de la colección movies
+ */
+@Slf4j
+public final class MovieDocumentHelper {
+
+  private static final Pattern PYTHON_GENRE_NAME = Pattern.compile("'name':\\s*'([^']+)'");
+  private static final Pattern JSON_GENRE_NAME = Pattern.compile("\"name\":\\s*\"([^\"]+)\"");
+  private static final Pattern GENRE_OBJECT = Pattern.compile("\\{[^}]*\\}");
+  private static final Pattern GENRE_OBJECT_ID = Pattern.compile("['\"]id['\"]\\s*:\\s*(\\d+)");
+  private static final Pattern GENRE_OBJECT_NAME = Pattern.compile(
+    "['\"]name['\"]\\s*:\\s*(?:'([^']+)'|\"([^\"]+)\")"
+  );
+
+  private MovieDocumentHelper() {}
+
+  public static String getMovieId(Document doc) {
+    Object idObj = doc.get("_id");
+    if (idObj instanceof ObjectId) {
+      return ((ObjectId) idObj).toString();
+    }
+    return idObj != null ? idObj.toString() : null;
+  }
+
+  public static Integer getInt(Document doc, String key) {
+    Object val = doc.get(key);
+    if (val instanceof Number) {
+      return ((Number) val).intValue();
+    }
+    return 0;
+  }
+
+  public static Integer extractYear(Object releaseDateObj) {
+    if (releaseDateObj instanceof Date) {
+      Calendar cal = Calendar.getInstance();
+      cal.setTime((Date) releaseDateObj);
+      return cal.get(Calendar.YEAR);
+    } else if (releaseDateObj instanceof String) {
+      try {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        Date date = sdf.parse((String) releaseDateObj);
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(date);
+        return cal.get(Calendar.YEAR);
+      } catch (Exception e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Extrae los nombres de género del campo genres, que puede venir como repr de Python
+   * ('name': '...'), como JSON o como lista de documentos
+   */
+  public static Set<String> extractGenres(Object genresObj) {
+    Set<String> genres = new HashSet<>();
+    if (genresObj == null) {
+      return genres;
+    }
+    if (genresObj instanceof String) {
+      String genresStr = (String) genresObj;
+      Matcher matcher = PYTHON_GENRE_NAME.matcher(genresStr);
+      while (matcher.find()) {
+        genres.add(matcher.group(1));
+      }
+      if (genres.isEmpty()) {
+        Matcher m2 = JSON_GENRE_NAME.matcher(genresStr);
+        while (m2.find()) {
+          genres.add(m2.group(1));
+        }
+      }
+    } else if (genresObj instanceof List) {
+      List<?> list = (List<?>) genresObj;
+      for (Object item : list) {
+        if (item instanceof String) {
+          genres.add((String) item);
+        } else if (item instanceof Document) {
+          Document d = (Document) item;
+          if (d.containsKey("name")) {
+            genres.add(d.getString("name"));
+          }
+        } else if (item instanceof Map) {
+          Map<?, ?> m = (Map<?, ?>) item;
+          if (m.containsKey("name")) {
+            genres.add(m.get("name").toString());
+          }
+        }
+      }
+    }
+    return genres;
+  }
+
+  /**
+   * Extrae pares nombre → id de TMDB del campo genres. A diferencia de {@link #extractGenres},
+   * un texto plano ("Drama, Comedy" o "Uncategorized") se interpreta como lista de nombres sin
+   * id. Se usa al normalizar géneros en genre_ids.
+   *
+   * @return nombres en orden de aparición; el id es null si el origen no lo trae
+   */
+  public static Map<String, Integer> extractGenreEntries(Object genresObj) {
+    Map<String, Integer> entries = new LinkedHashMap<>();
+    if (genresObj instanceof String) {
+      String genresStr = (String) genresObj;
+      Matcher objects = GENRE_OBJECT.matcher(genresStr);
+      boolean structured = false;
+      while (objects.find()) {
+        structured = true;
+        String object = objects.group();
+        Matcher name = GENRE_OBJECT_NAME.matcher(object);
+        if (!name.find()) {
+          continue;
+        }
+        Matcher id = GENRE_OBJECT_ID.matcher(object);
+        entries.putIfAbsent(
+          name.group(1) != null ? name.group(1) : name.group(2),
+          id.find() ? Integer.valueOf(id.group(1)) : null
+        );
+      }
+      if (!structured) {
+        for (String name : genresStr.split(",")) {
+          if (!name.isBlank()) {
+            entries.putIfAbsent(name.trim(), null);
+          }
+        }
+      }
+    } else if (genresObj instanceof List) {
+      for (Object item : (List<?>) genresObj) {
+        if (item instanceof String) {
+          entries.putIfAbsent((String) item, null);
+        } else if (item instanceof Map) {
+          Map<?, ?> m = (Map<?, ?>) item;
+          Object name = m.get("name");
+          Object id = m.get("id");
+          if (name != null) {
+            entries.putIfAbsent(
+              name.toString(),
+              id instanceof Number ? ((Number) id).intValue() : null
+            );
+          }
+        }
+      }
+    }
+    return entries;
+  }
+
+  public static MovieDto toMovieDto(Document doc) {
+    MovieDto dto = new MovieDto();
+    try {
+      dto.setId(getMovieId(doc));
+      dto.setTitle(doc.getString("title"));
+      dto.setOverview(doc.getString("overview"));
+      Object genres = doc.get("genres");
+      if (genres instanceof String) {
+        dto.setGenres((String) genres);
+      } else if (genres != null) {
+        dto.setGenres(genres.toString());
+      }
+      dto.setReleaseDate(doc.getDate("release_date"));
+      dto.setPosterPath(doc.getString("poster_path"));
+      dto.setOriginalLanguage(doc.getString("original_language"));
+      dto.setRuntime(getInt(doc, "runtime"));
+      dto.setUpVotes(getInt(doc, "up_votes"));
+      dto.setDownVotes(getInt(doc, "down_votes"));
+    } catch (Exception e) {
+      log.warn("Error convirtiendo documento {}: {}", getMovieId(doc), e.getMessage());
+    }
+    return dto;
+  }
+
+  /**
+   * Convierte un documento de las agregaciones de películas, que ya proyectan los campos en
+   * camelCase (id, releaseDate, upVotes, vote...)
+   */
+  @SuppressWarnings("unchecked")
+  public static MovieDto fromProjection(Document doc) {
+    MovieDto dto = new MovieDto();
+
+    Object idObj = doc.get("id");
+    if (idObj != null) {
+      dto.setId(idObj.toString());
+    }
+
+    Object externalIdObj = doc.get("externalId");
+    if (externalIdObj instanceof Number) {
+      dto.setExternalId(((Number) externalIdObj).intValue());
+    }
+
+    dto.setTitle(doc.getString("title"));
+    dto.setOverview(doc.getString("overview"));
+    Object genresObj = doc.get("genres");
+    if (genresObj instanceof List) {
+      dto.setGenres(String.join(", ", (List<String>) genresObj));
+    } else if (genresObj instanceof String) {
+      dto.setGenres((String) genresObj);
+    }
+
+    Object releaseDateObj = doc.get("releaseDate");
+    if (releaseDateObj instanceof java.util.Date) {
+      dto.setReleaseDate((java.util.Date) releaseDateObj);
+    }
+
+    dto.setPosterPath(doc.getString("posterPath"));
+
+    Object runtimeObj = doc.get("runtime");
+    if (runtimeObj instanceof Number) {
+      dto.setRuntime(((Number) runtimeObj).intValue());
+    }
+
+    dto.setOriginalLanguage(doc.getString("originalLanguage"));
+    dto.setDirector(doc.getString("director"));
+
+    if (doc.containsKey("score")) {
+      Object scoreObj = doc.get("score");
+      if (scoreObj instanceof Number) {
+        dto.setScore(((Number) scoreObj).doubleValue());
+      }
+    }
+
+    if (doc.containsKey("upVotes")) {
+      Object upVotesObj = doc.get("upVotes");
+      if (upVotesObj instanceof Number) {
+        dto.setUpVotes(((Number) upVotesObj).intValue());
+      }
+    }
+
+    if (doc.containsKey("downVotes")) {
+      Object downVotesObj = doc.get("downVotes");
+      if (downVotesObj instanceof Number) {
+        dto.setDownVotes(((Number) downVotesObj).intValue());
+      }
+    }
+
+    if (doc.containsKey("vote")) {
+      List<?> voteList = (List<?>) doc.get("vote");
+      if (voteList != null && !voteList.isEmpty()) {
+        Document voteDoc = (Document) voteList.get(0);
+        dto.setUserVote(voteDoc.getString("type"));
+      }
+    }
+    return dto;
+  }
+}
@@ -0,0 +1,65 @@
+package com.cineclub_backend.cineclub_backend.movies.migrations;
+
+import com.cineclub_backend.cineclub_backend.movies.services.GenreService;
+import com.cineclub_backend.cineclub_backend.shared.migrations.Migration;
+import com.cineclub_backend.cineclub_backend.shared.migrations.MigrationBatch;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Llena genre_ids en las películas existentes a partir del campo genres, que llega como repr de
+ * Python, JSON o texto plano según el origen de la importación.
+ */
+@Component
+public class GenreIdsMigration implements Migration {
+
+  private final MongoTemplate mongoTemplate;
+  private final GenreService genreService;
+
+  public GenreIdsMigration(MongoTemplate mongoTemplate, GenreService genreService) {
+    this.mongoTemplate = mongoTemplate;
+    this.genreService = genreService;
+  }
+
+  @Override
+  public String getId() {
+    return "2025-11-movies-genre-ids";
+  }
+
+  @Override
+  public void prepare() {
+    genreService.ensureIndexes();
+  }
+
+  @Override
+  public MigrationBatch migrateBatch(Object lastId, int batchSize) {
+    Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+    if (lastId != null) {
+      query.addCriteria(Criteria.where("_id").gt(lastId));
+    }
+    query.fields().include("genres");
+
+    List<Document> movies = mongoTemplate.find(query, Document.class, "movies");
+    if (movies.isEmpty()) {
+      return MigrationBatch.done();
+    }
+
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "movies");
+    for (Document movie : movies) {
+      bulk.updateOne(
+        new Query(Criteria.where("_id").is(movie.get("_id"))),
+        new Update().set("genre_ids", genreService.resolveGenreIds(movie.get("genres")))
+      );
+    }
+    bulk.execute();
+
+    return new MigrationBatch(movies.get(movies.size() - 1).get("_id"), movies.size());
+  }
+}
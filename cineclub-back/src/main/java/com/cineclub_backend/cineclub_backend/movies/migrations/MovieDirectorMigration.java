@@ -0,0 +1,70 @@
+package com.cineclub_backend.cineclub_backend.movies.migrations;
+
+import com.cineclub_backend.cineclub_backend.shared.migrations.Migration;
+import com.cineclub_backend.cineclub_backend.shared.migrations.MigrationBatch;
+import java.util.List;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copia el director (nombre e id) de la colección directors a cada película, recorriendo los
+ * directores en orden de _id.
+ */
+@Component
+public class MovieDirectorMigration implements Migration {
+
+  public static final String ID = "2025-11-movies-director";
+
+  private final MongoTemplate mongoTemplate;
+
+  public MovieDirectorMigration(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public String getId() {
+    return ID;
+  }
+
+  @Override
+  public MigrationBatch migrateBatch(Object lastId, int batchSize) {
+    Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+    if (lastId != null) {
+      query.addCriteria(Criteria.where("_id").gt(lastId));
+    }
+    query.fields().include("director").include("movie_id");
+
+    List<Document> directors = mongoTemplate.find(query, Document.class, "directors");
+    if (directors.isEmpty()) {
+      return MigrationBatch.done();
+    }
+
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "movies");
+    int updates = 0;
+    for (Document director : directors) {
+      String movieId = director.getString("movie_id");
+      if (movieId == null || !ObjectId.isValid(movieId)) {
+        continue;
+      }
+      bulk.updateOne(
+        new Query(Criteria.where("_id").is(new ObjectId(movieId))),
+        new Update()
+          .set("director", director.getString("director"))
+          .set("director_id", director.get("_id").toString())
+      );
+      updates++;
+    }
+    if (updates > 0) {
+      bulk.execute();
+    }
+
+    return new MigrationBatch(directors.get(directors.size() - 1).get("_id"), directors.size());
+  }
+}
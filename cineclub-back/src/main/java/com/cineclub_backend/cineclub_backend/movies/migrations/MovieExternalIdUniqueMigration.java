@@ -0,0 +1,170 @@
+package com.cineclub_backend.cineclub_backend.movies.migrations;
+
+import com.cineclub_backend.cineclub_backend.movies.services.MovieVoteCounterService;
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences;
+import com.cineclub_backend.cineclub_backend.shared.migrations.Migration;
+import com.cineclub_backend.cineclub_backend.shared.migrations.MigrationBatch;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deja una sola película por external_id, la más vieja, y crea el índice único (parcial: las
+ * películas creadas a mano tienen external_id 0) que protege el upsert de MovieImportService.
+ * Los votos, reseñas, colecciones y el director de cada duplicado pasan a la película que queda;
+ * un voto que choca con uno del mismo usuario en esa película se descarta. Los contadores y el
+ * ranking los corrige la reconciliación de MovieVoteCounterService.
+ */
+@Component
+@Slf4j
+public class MovieExternalIdUniqueMigration implements Migration {
+
+  public static final String ID = "2025-12-movies-external-id-unique";
+
+  private final MongoTemplate mongoTemplate;
+  private final MovieVoteCounterService movieVoteCounterService;
+
+  public MovieExternalIdUniqueMigration(
+    MongoTemplate mongoTemplate,
+    MovieVoteCounterService movieVoteCounterService
+  ) {
+    this.mongoTemplate = mongoTemplate;
+    this.movieVoteCounterService = movieVoteCounterService;
+  }
+
+  @Override
+  public String getId() {
+    return ID;
+  }
+
+  @Override
+  public MigrationBatch migrateBatch(Object lastId, int batchSize) {
+    Aggregation aggregation = Aggregation.newAggregation(
+      Aggregation.match(Criteria.where("external_id").gt(0)),
+      Aggregation.sort(Sort.by(Sort.Direction.ASC, "_id")),
+      Aggregation.group("external_id").push("_id").as("ids").count().as("count"),
+      Aggregation.match(Criteria.where("count").gt(1)),
+      Aggregation.limit(batchSize)
+    ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+    List<Document> duplicates = mongoTemplate
+      .aggregate(aggregation, "movies", Document.class)
+      .getMappedResults();
+
+    if (duplicates.isEmpty()) {
+      try {
+        createUniqueIndex();
+      } catch (DuplicateKeyException e) {
+        log.warn("Apareció una película duplicada al crear el índice único, se vuelve a limpiar");
+        return new MigrationBatch(null, 1);
+      }
+      return MigrationBatch.done();
+    }
+
+    int removed = 0;
+    for (Document duplicate : duplicates) {
+      List<Object> ids = duplicate.getList("ids", Object.class);
+      String kept = ids.get(0).toString();
+      for (Object extra : ids.subList(1, ids.size())) {
+        merge(extra.toString(), kept);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(extra)), "movies");
+        removed++;
+      }
+    }
+    log.info("Películas duplicadas por external_id eliminadas: {}", removed);
+    movieVoteCounterService.requestReconcile();
+
+    return new MigrationBatch(null, duplicates.size());
+  }
+
+  /**
+   * Pasa las referencias de la película duplicada a la que queda
+   */
+  private void merge(String duplicateId, String keptId) {
+    Object keptOid = ObjectIdReferences.toObjectIds(keptId);
+    Object duplicateOid = ObjectIdReferences.toObjectIds(duplicateId);
+    Update repoint = new Update().set("movie_id", keptId).set("movie_oid", keptOid);
+
+    Query votes = new Query(Criteria.where("movie_id").is(duplicateId));
+    votes.fields().include("_id");
+    for (Document vote : mongoTemplate.find(votes, Document.class, "movie_votes")) {
+      Query byId = new Query(Criteria.where("_id").is(vote.get("_id")));
+      try {
+        mongoTemplate.updateFirst(byId, repoint, "movie_votes");
+      } catch (DuplicateKeyException e) {
+        mongoTemplate.remove(byId, "movie_votes");
+      }
+    }
+
+    mongoTemplate.updateMulti(
+      new Query(Criteria.where("movie_id").is(duplicateId)),
+      repoint,
+      "reviews"
+    );
+
+    boolean keptHasDirector = mongoTemplate.exists(
+      new Query(Criteria.where("movie_id").is(keptId)),
+      "directors"
+    );
+    Query directors = new Query(Criteria.where("movie_id").is(duplicateId));
+    if (keptHasDirector) {
+      mongoTemplate.remove(directors, "directors");
+    } else {
+      mongoTemplate.updateMulti(directors, repoint, "directors");
+    }
+
+    // Colecciones: si ya tienen la película que queda solo se quita el duplicado
+    mongoTemplate.updateMulti(
+      new Query(Criteria.where("movies").all(duplicateId, keptId)),
+      new Update().pull("movies", duplicateId).pull("movie_oids", duplicateOid),
+      "collections"
+    );
+    mongoTemplate.updateMulti(
+      new Query(Criteria.where("movies").is(duplicateId)),
+      new Update().set("movies.$", keptId),
+      "collections"
+    );
+    mongoTemplate.updateMulti(
+      new Query(Criteria.where("movie_oids").is(duplicateOid)),
+      new Update().set("movie_oids.$", keptOid),
+      "collections"
+    );
+  }
+
+  /**
+   * Reemplaza el índice no único de external_id, si existe, por el único parcial
+   */
+  private void createUniqueIndex() {
+    IndexOperations indexOps = mongoTemplate.indexOps("movies");
+    for (IndexInfo info : indexOps.getIndexInfo()) {
+      List<String> fields = info.getIndexFields().stream().map(IndexField::getKey).toList();
+      if (fields.equals(List.of("external_id")) && !info.isUnique()) {
+        indexOps.dropIndex(info.getName());
+      }
+    }
+    indexOps.ensureIndex(uniqueIndex());
+  }
+
+  /**
+   * Las consultas por external_id tienen que incluir el filtro (external_id > 0) para usarlo
+   */
+  public static Index uniqueIndex() {
+    return new Index("external_id", Sort.Direction.ASC)
+      .unique()
+      .partial(PartialIndexFilter.of(Criteria.where("external_id").gt(0)));
+  }
+}
@@ -0,0 +1,112 @@
+package com.cineclub_backend.cineclub_backend.movies.migrations;
+
+import com.cineclub_backend.cineclub_backend.shared.migrations.Migration;
+import com.cineclub_backend.cineclub_backend.shared.migrations.MigrationBatch;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deja un solo voto por (user_id, movie_id), el más reciente, y crea el índice único que
+ * necesita el voto atómico. Cada lote corrige hasta batchSize pares duplicados; los contadores de
+ * las películas afectadas los corrige la reconciliación de MovieVoteCounterService. Hasta que el
+ * índice existe CrudMovieVoteService vota sin él, así que entre la limpieza y la creación puede
+ * aparecer otro duplicado: en ese caso se vuelve a limpiar.
+ */
+@Component
+@Slf4j
+public class MovieVotesUniqueMigration implements Migration {
+
+  public static final String ID = "2025-11-movie-votes-unique";
+
+  private final MongoTemplate mongoTemplate;
+
+  public MovieVotesUniqueMigration(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public String getId() {
+    return ID;
+  }
+
+  @Override
+  public MigrationBatch migrateBatch(Object lastId, int batchSize) {
+    Aggregation aggregation = Aggregation.newAggregation(
+      Aggregation.sort(Sort.by(Sort.Direction.DESC, "updated_at", "_id")),
+      Aggregation.group("user_id", "movie_id").push("_id").as("ids").count().as("count"),
+      Aggregation.match(Criteria.where("count").gt(1)),
+      Aggregation.limit(batchSize)
+    ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+    List<Document> duplicates = mongoTemplate
+      .aggregate(aggregation, "movie_votes", Document.class)
+      .getMappedResults();
+
+    if (duplicates.isEmpty()) {
+      try {
+        createUniqueIndex();
+      } catch (DuplicateKeyException e) {
+        log.warn("Apareció un voto duplicado al crear el índice único, se vuelve a limpiar");
+        return new MigrationBatch(null, 1);
+      }
+      return MigrationBatch.done();
+    }
+
+    List<Object> extra = new ArrayList<>();
+    for (Document duplicate : duplicates) {
+      List<Object> ids = duplicate.getList("ids", Object.class);
+      extra.addAll(ids.subList(1, ids.size()));
+    }
+    mongoTemplate.remove(new Query(Criteria.where("_id").in(extra)), "movie_votes");
+    log.info("Votos duplicados eliminados: {}", extra.size());
+
+    return new MigrationBatch(null, duplicates.size());
+  }
+
+  /**
+   * Si ya existe el índice único de (user_id, movie_id) que necesita el voto atómico
+   */
+  public static boolean hasUniqueIndex(MongoTemplate mongoTemplate) {
+    for (IndexInfo info : mongoTemplate.indexOps("movie_votes").getIndexInfo()) {
+      if (info.isUnique() && isUserAndMovie(info)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isUserAndMovie(IndexInfo info) {
+    List<String> fields = info.getIndexFields().stream().map(IndexField::getKey).toList();
+    return fields.equals(List.of("user_id", "movie_id"));
+  }
+
+  /**
+   * Reemplaza el índice no único con las mismas claves, si existe: Mongo no admite dos índices
+   * con las mismas claves y distinta unicidad
+   */
+  private void createUniqueIndex() {
+    IndexOperations indexOps = mongoTemplate.indexOps("movie_votes");
+    for (IndexInfo info : indexOps.getIndexInfo()) {
+      if (isUserAndMovie(info) && !info.isUnique()) {
+        indexOps.dropIndex(info.getName());
+      }
+    }
+    indexOps.ensureIndex(
+      new Index().on("user_id", Sort.Direction.ASC).on("movie_id", Sort.Direction.ASC).unique()
+    );
+  }
+}
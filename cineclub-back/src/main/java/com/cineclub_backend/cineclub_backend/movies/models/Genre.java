@@ -0,0 +1,24 @@
+package com.cineclub_backend.cineclub_backend.movies.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Catálogo de géneros. El id es el de TMDB cuando el origen lo trae; los géneros sin id reciben
+ * uno propio a partir de {@code GenreService.FIRST_CUSTOM_ID}.
+ */
+@Document(collection = "genres")
+@Data
+public class Genre {
+
+  @Id
+  private Integer id;
+
+  private String name;
+
+  /**
+   * Nombre en minúsculas, único, para resolver géneros sin importar mayúsculas
+   */
+  private String key;
+}
@@ -1,6 +1,7 @@
 package com.cineclub_backend.cineclub_backend.movies.models;
 
 import java.util.Date;
+import java.util.List;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -20,6 +21,12 @@ public class Movie {
   private String overview;
   private String genres;
 
+  /**
+   * Ids de la colección genres derivados de {@code genres}; se indexa para filtrar por género
+   */
+  @Field("genre_ids")
+  private List<Integer> genreIds;
+
   @Field("release_date")
   private Date releaseDate;
 
@@ -31,6 +38,15 @@ public class Movie {
   @Field("original_language")
   private String originalLanguage;
 
+  /**
+   * Copia del nombre e id del director (colección directors) para no hacer $lookup en los
+   * listados; la mantiene CrudDirectorService
+   */
+  private String director;
+
+  @Field("director_id")
+  private String directorId;
+
   @Field("up_votes")
   private int upVotes;
 
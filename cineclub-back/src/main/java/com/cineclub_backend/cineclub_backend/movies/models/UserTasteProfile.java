@@ -0,0 +1,20 @@
+package com.cineclub_backend.cineclub_backend.movies.models;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import lombok.Data;
+
+/**
+ * Perfil de gustos de un usuario, calculado a partir de sus votos UP. Se persiste en Redis y se
+ * mantiene de forma incremental con cada voto.
+ */
+@Data
+public class UserTasteProfile {
+
+  private Set<String> likedMovieIds = new HashSet<>();
+  private Map<String, Integer> genreCounts = new HashMap<>();
+  private Map<String, Integer> directorCounts = new HashMap<>();
+  private Map<Integer, Integer> decadeCounts = new HashMap<>();
+}
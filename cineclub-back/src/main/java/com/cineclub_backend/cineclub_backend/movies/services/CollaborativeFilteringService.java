@@ -0,0 +1,608 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import com.cineclub_backend.cineclub_backend.jobs.services.JobQueueService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Filtrado colaborativo por factorización de matrices (ALS implícito, Hu-Koren-Volinsky) sobre
+ * los votos de movie_votes. Un voto UP es preferencia 1 y un DOWN preferencia 0, ambos con
+ * confianza 1 + alpha. El entrenamiento corre en el job worker y el modelo (factores float de
+ * usuarios y películas) se guarda por tramos en als_factors para que todas las instancias lo
+ * carguen.
+ */
+@Service
+@Slf4j
+public class CollaborativeFilteringService {
+
+  public static final String TRAIN_JOB = "ALS_TRAIN";
+
+  private static final String MODELS = "als_models";
+  private static final String FACTORS = "als_factors";
+  private static final int CHUNK_SIZE = 2000;
+  private static final int SOLVE_BATCH = 256;
+
+  private final MongoTemplate mongoTemplate;
+  private final JobQueueService jobQueueService;
+  private final Timer trainingTimer;
+  private final AtomicLong trainingMemoryBytes = new AtomicLong();
+  private final int rank;
+  private final int iterations;
+  private final double lambda;
+  private final double alpha;
+  private final int parallelism;
+
+  private volatile Model model;
+
+  public CollaborativeFilteringService(
+    MongoTemplate mongoTemplate,
+    JobQueueService jobQueueService,
+    MeterRegistry meterRegistry,
+    @Value("${recommendations.als.rank:32}") int rank,
+    @Value("${recommendations.als.iterations:10}") int iterations,
+    @Value("${recommendations.als.lambda:0.1}") double lambda,
+    @Value("${recommendations.als.alpha:40}") double alpha,
+    @Value("${recommendations.als.parallelism:0}") int parallelism
+  ) {
+    this.mongoTemplate = mongoTemplate;
+    this.jobQueueService = jobQueueService;
+    this.rank = rank;
+    this.iterations = iterations;
+    this.lambda = lambda;
+    this.alpha = alpha;
+    this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+
+    this.trainingTimer = Timer.builder("recommendations.als.training")
+      .description("Duración del entrenamiento ALS")
+      .register(meterRegistry);
+    Gauge.builder("recommendations.als.training.memory", trainingMemoryBytes, AtomicLong::get)
+      .description("Memoria estimada de matrices y factores durante el entrenamiento")
+      .baseUnit("bytes")
+      .register(meterRegistry);
+    Gauge.builder("recommendations.als.model.memory", this, service -> service.modelBytes())
+      .description("Memoria de los factores del modelo cargado")
+      .baseUnit("bytes")
+      .register(meterRegistry);
+  }
+
+  public Model getModel() {
+    Model current = model;
+    if (current == null) {
+      synchronized (this) {
+        if (model == null) {
+          model = loadLatest(null);
+        }
+        current = model;
+      }
+    }
+    return current;
+  }
+
+  @Scheduled(cron = "${recommendations.als.train-cron:0 0 2 * * *}")
+  public void scheduleTraining() {
+    Map<String, Object> job = new HashMap<>();
+    job.put("type", TRAIN_JOB);
+    jobQueueService.enqueueJobOnce(job, TRAIN_JOB, Duration.ofHours(1));
+  }
+
+  /**
+   * Carga el modelo más reciente si otra instancia entrenó uno nuevo
+   */
+  @Scheduled(
+    fixedDelayString = "${recommendations.als.reload-ms:900000}",
+    initialDelayString = "${recommendations.als.reload-ms:900000}"
+  )
+  public void reload() {
+    try {
+      Model current = model;
+      Model latest = loadLatest(current);
+      if (latest != current) {
+        model = latest;
+      }
+    } catch (Exception e) {
+      log.error("Error recargando el modelo ALS: {}", e.getMessage());
+    }
+  }
+
+  public void train() {
+    long start = System.nanoTime();
+    Feedback feedback = loadFeedback();
+    if (feedback.userIds.isEmpty() || feedback.movieIds.isEmpty()) {
+      log.info("Sin votos suficientes para entrenar el modelo ALS");
+      return;
+    }
+
+    int users = feedback.userIds.size();
+    int movies = feedback.movieIds.size();
+    float[] userFactors = randomFactors(users);
+    float[] movieFactors = randomFactors(movies);
+    trainingMemoryBytes.set(feedback.bytes() + (long) (users + movies) * rank * Float.BYTES);
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      for (int iteration = 0; iteration < iterations; iteration++) {
+        solve(pool, userFactors, movieFactors, feedback.byUser, users);
+        solve(pool, movieFactors, userFactors, feedback.byMovie, movies);
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    long elapsed = System.nanoTime() - start;
+    trainingTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+    Model trained = new Model(
+      new ObjectId(),
+      rank,
+      feedback.userIds.toArray(new String[0]),
+      feedback.movieIds.toArray(new String[0]),
+      userFactors,
+      movieFactors
+    );
+    persist(trained, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    model = trained;
+
+    log.info(
+      "Modelo ALS entrenado: {} usuarios, {} películas, rango {} en {} ms",
+      users,
+      movies,
+      rank,
+      TimeUnit.NANOSECONDS.toMillis(elapsed)
+    );
+  }
+
+  /**
+   * Resuelve una mitad de la iteración: fija los factores {@code fixed} y recalcula cada fila de
+   * {@code target} con mínimos cuadrados ponderados por confianza
+   */
+  private void solve(ForkJoinPool pool, float[] target, float[] fixed, Ratings ratings, int rows) {
+    double[] gram = gram(fixed);
+    pool.invoke(new SolveTask(target, fixed, gram, ratings, 0, rows));
+  }
+
+  private final class SolveTask extends RecursiveAction {
+
+    private final float[] target;
+    private final float[] fixed;
+    private final double[] gram;
+    private final Ratings ratings;
+    private final int from;
+    private final int to;
+
+    SolveTask(float[] target, float[] fixed, double[] gram, Ratings ratings, int from, int to) {
+      this.target = target;
+      this.fixed = fixed;
+      this.gram = gram;
+      this.ratings = ratings;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > SOLVE_BATCH) {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+          new SolveTask(target, fixed, gram, ratings, from, middle),
+          new SolveTask(target, fixed, gram, ratings, middle, to)
+        );
+        return;
+      }
+
+      double[] a = new double[rank * rank];
+      double[] b = new double[rank];
+      for (int row = from; row < to; row++) {
+        solveRow(row, a, b);
+      }
+    }
+
+    private void solveRow(int row, double[] a, double[] b) {
+      int start = ratings.offsets[row];
+      int end = ratings.offsets[row + 1];
+      if (start == end) {
+        Arrays.fill(target, row * rank, (row + 1) * rank, 0f);
+        return;
+      }
+
+      System.arraycopy(gram, 0, a, 0, a.length);
+      Arrays.fill(b, 0);
+      for (int f = 0; f < rank; f++) {
+        a[f * rank + f] += lambda;
+      }
+
+      for (int e = start; e < end; e++) {
+        int base = ratings.targets[e] * rank;
+        double confidence = ratings.confidences[e];
+        double weight = confidence - 1;
+        for (int i = 0; i < rank; i++) {
+          double yi = fixed[base + i];
+          for (int j = 0; j <= i; j++) {
+            a[i * rank + j] += weight * yi * fixed[base + j];
+          }
+          if (ratings.preferences[e]) {
+            b[i] += confidence * yi;
+          }
+        }
+      }
+
+      choleskySolve(a, b);
+      for (int f = 0; f < rank; f++) {
+        target[row * rank + f] = (float) b[f];
+      }
+    }
+  }
+
+  /**
+   * Resuelve A x = b con A simétrica definida positiva usando solo su triángulo inferior. Deja
+   * la solución en b.
+   */
+  private void choleskySolve(double[] a, double[] b) {
+    for (int j = 0; j < rank; j++) {
+      double sum = a[j * rank + j];
+      for (int p = 0; p < j; p++) {
+        sum -= a[j * rank + p] * a[j * rank + p];
+      }
+      double diagonal = Math.sqrt(Math.max(sum, 1e-12));
+      a[j * rank + j] = diagonal;
+      for (int i = j + 1; i < rank; i++) {
+        double value = a[i * rank + j];
+        for (int p = 0; p < j; p++) {
+          value -= a[i * rank + p] * a[j * rank + p];
+        }
+        a[i * rank + j] = value / diagonal;
+      }
+    }
+    for (int i = 0; i < rank; i++) {
+      double value = b[i];
+      for (int p = 0; p < i; p++) {
+        value -= a[i * rank + p] * b[p];
+      }
+      b[i] = value / a[i * rank + i];
+    }
+    for (int i = rank - 1; i >= 0; i--) {
+      double value = b[i];
+      for (int p = i + 1; p < rank; p++) {
+        value -= a[p * rank + i] * b[p];
+      }
+      b[i] = value / a[i * rank + i];
+    }
+  }
+
+  /**
+   * Yᵀ Y, triángulo inferior
+   */
+  private double[] gram(float[] factors) {
+    double[] gram = new double[rank * rank];
+    for (int base = 0; base < factors.length; base += rank) {
+      for (int i = 0; i < rank; i++) {
+        double yi = factors[base + i];
+        for (int j = 0; j <= i; j++) {
+          gram[i * rank + j] += yi * factors[base + j];
+        }
+      }
+    }
+    return gram;
+  }
+
+  private float[] randomFactors(int rows) {
+    Random random = new Random(42);
+    float[] factors = new float[rows * rank];
+    float scale = (float) (0.1 / Math.sqrt(rank));
+    for (int i = 0; i < factors.length; i++) {
+      factors[i] = (float) random.nextGaussian() * scale;
+    }
+    return factors;
+  }
+
+  private Feedback loadFeedback() {
+    Map<String, Integer> userIndex = new HashMap<>();
+    Map<String, Integer> movieIndex = new HashMap<>();
+    Feedback feedback = new Feedback();
+    int[] voteUsers = new int[1024];
+    int[] voteMovies = new int[1024];
+    boolean[] votePreferences = new boolean[1024];
+    int votes = 0;
+
+    Document projection = new Document("user_id", 1)
+      .append("movie_id", 1)
+      .append("type", 1)
+      .append("_id", 0);
+    for (Document doc : mongoTemplate.getCollection("movie_votes").find().projection(projection)) {
+      String userId = doc.getString("user_id");
+      String movieId = doc.getString("movie_id");
+      if (userId == null || movieId == null) {
+        continue;
+      }
+      if (votes == voteUsers.length) {
+        voteUsers = Arrays.copyOf(voteUsers, votes * 2);
+        voteMovies = Arrays.copyOf(voteMovies, votes * 2);
+        votePreferences = Arrays.copyOf(votePreferences, votes * 2);
+      }
+      Integer user = userIndex.get(userId);
+      if (user == null) {
+        user = feedback.userIds.size();
+        userIndex.put(userId, user);
+        feedback.userIds.add(userId);
+      }
+      Integer movie = movieIndex.get(movieId);
+      if (movie == null) {
+        movie = feedback.movieIds.size();
+        movieIndex.put(movieId, movie);
+        feedback.movieIds.add(movieId);
+      }
+      voteUsers[votes] = user;
+      voteMovies[votes] = movie;
+      votePreferences[votes] = "UP".equals(doc.getString("type"));
+      votes++;
+    }
+
+    float confidence = (float) (1 + alpha);
+    feedback.byUser = Ratings.of(
+      feedback.userIds.size(),
+      voteUsers,
+      voteMovies,
+      votePreferences,
+      votes,
+      confidence
+    );
+    feedback.byMovie = Ratings.of(
+      feedback.movieIds.size(),
+      voteMovies,
+      voteUsers,
+      votePreferences,
+      votes,
+      confidence
+    );
+    return feedback;
+  }
+
+  private void persist(Model trained, long trainingMs) {
+    ObjectId modelId = trained.id;
+    List<Document> chunks = new ArrayList<>();
+    chunks.addAll(toChunks(modelId, "users", trained.userIds, trained.userFactors));
+    chunks.addAll(toChunks(modelId, "movies", trained.movieIds, trained.movieFactors));
+    for (int i = 0; i < chunks.size(); i += 50) {
+      mongoTemplate
+        .getCollection(FACTORS)
+        .insertMany(chunks.subList(i, Math.min(i + 50, chunks.size())));
+    }
+
+    // El documento del modelo se escribe al final: si existe, sus tramos están completos
+    mongoTemplate
+      .getCollection(MODELS)
+      .insertOne(
+        new Document("_id", modelId)
+          .append("rank", trained.rank)
+          .append("users", trained.userIds.length)
+          .append("movies", trained.movieIds.length)
+          .append("training_ms", trainingMs)
+          .append("trained_at", new Date())
+      );
+
+    mongoTemplate.remove(new Query(Criteria.where("_id").ne(modelId)), MODELS);
+    mongoTemplate.remove(new Query(Criteria.where("model_id").ne(modelId)), FACTORS);
+  }
+
+  private List<Document> toChunks(ObjectId modelId, String kind, String[] ids, float[] factors) {
+    List<Document> chunks = new ArrayList<>();
+    for (int from = 0, chunk = 0; from < ids.length; from += CHUNK_SIZE, chunk++) {
+      int to = Math.min(from + CHUNK_SIZE, ids.length);
+      ByteBuffer buffer = ByteBuffer.allocate((to - from) * rank * Float.BYTES).order(
+        ByteOrder.LITTLE_ENDIAN
+      );
+      buffer.asFloatBuffer().put(factors, from * rank, (to - from) * rank);
+      chunks.add(
+        new Document("model_id", modelId)
+          .append("kind", kind)
+          .append("chunk", chunk)
+          .append("ids", Arrays.asList(ids).subList(from, to))
+          .append("factors", new Binary(buffer.array()))
+      );
+    }
+    return chunks;
+  }
+
+  /**
+   * @return el modelo más reciente o {@code current} si ya es el último
+   */
+  private Model loadLatest(Model current) {
+    Query latestQuery = new Query().with(Sort.by(Sort.Direction.DESC, "trained_at")).limit(1);
+    Document latest = mongoTemplate.findOne(latestQuery, Document.class, MODELS);
+    if (latest == null) {
+      return current != null ? current : Model.EMPTY;
+    }
+    ObjectId modelId = latest.getObjectId("_id");
+    if (current != null && modelId.equals(current.id)) {
+      return current;
+    }
+
+    int modelRank = latest.getInteger("rank");
+    List<String> userIds = new ArrayList<>();
+    List<String> movieIds = new ArrayList<>();
+    float[] userFactors = new float[latest.getInteger("users") * modelRank];
+    float[] movieFactors = new float[latest.getInteger("movies") * modelRank];
+
+    Query chunkQuery = new Query(Criteria.where("model_id").is(modelId)).with(
+      Sort.by("kind", "chunk")
+    );
+    for (Document chunk : mongoTemplate.find(chunkQuery, Document.class, FACTORS)) {
+      boolean users = "users".equals(chunk.getString("kind"));
+      List<String> ids = users ? userIds : movieIds;
+      float[] factors = users ? userFactors : movieFactors;
+      List<String> chunkIds = chunk.getList("ids", String.class);
+      ByteBuffer.wrap(chunk.get("factors", Binary.class).getData())
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .asFloatBuffer()
+        .get(factors, ids.size() * modelRank, chunkIds.size() * modelRank);
+      ids.addAll(chunkIds);
+    }
+
+    log.info("Modelo ALS cargado: {} usuarios, {} películas", userIds.size(), movieIds.size());
+    return new Model(
+      modelId,
+      modelRank,
+      userIds.toArray(new String[0]),
+      movieIds.toArray(new String[0]),
+      userFactors,
+      movieFactors
+    );
+  }
+
+  private long modelBytes() {
+    Model current = model;
+    return current != null ? current.bytes() : 0;
+  }
+
+  @FunctionalInterface
+  public interface MovieScoreConsumer {
+    void accept(String movieId, float score);
+  }
+
+  /**
+   * Modelo entrenado. Los factores se guardan en arreglos float planos: la fila r ocupa las
+   * posiciones [r * rank, (r + 1) * rank).
+   */
+  public static final class Model {
+
+    static final Model EMPTY = new Model(null, 0, new String[0], new String[0], null, null);
+
+    private final ObjectId id;
+    private final int rank;
+    private final String[] userIds;
+    private final String[] movieIds;
+    private final Map<String, Integer> userOrdinals;
+    private final float[] userFactors;
+    private final float[] movieFactors;
+
+    private Model(
+      ObjectId id,
+      int rank,
+      String[] userIds,
+      String[] movieIds,
+      float[] userFactors,
+      float[] movieFactors
+    ) {
+      this.id = id;
+      this.rank = rank;
+      this.userIds = userIds;
+      this.movieIds = movieIds;
+      this.userFactors = userFactors;
+      this.movieFactors = movieFactors;
+      this.userOrdinals = new HashMap<>(userIds.length * 2);
+      for (int i = 0; i < userIds.length; i++) {
+        userOrdinals.put(userIds[i], i);
+      }
+    }
+
+    public boolean hasUser(String userId) {
+      return userId != null && userOrdinals.containsKey(userId);
+    }
+
+    /**
+     * Calcula el producto punto del usuario con cada película del modelo
+     */
+    public void forEachScore(String userId, MovieScoreConsumer consumer) {
+      Integer user = userId != null ? userOrdinals.get(userId) : null;
+      if (user == null) {
+        return;
+      }
+      int userBase = user * rank;
+      for (int movie = 0; movie < movieIds.length; movie++) {
+        int movieBase = movie * rank;
+        float score = 0f;
+        for (int f = 0; f < rank; f++) {
+          score += userFactors[userBase + f] * movieFactors[movieBase + f];
+        }
+        consumer.accept(movieIds[movie], score);
+      }
+    }
+
+    long bytes() {
+      return (long) (userIds.length + movieIds.length) * rank * Float.BYTES;
+    }
+  }
+
+  /**
+   * Matriz dispersa (CSR) de votos vista desde un lado: por usuario o por película
+   */
+  private static final class Ratings {
+
+    int[] offsets;
+    int[] targets;
+    float[] confidences;
+    boolean[] preferences;
+
+    static Ratings of(
+      int rows,
+      int[] rowOf,
+      int[] targetOf,
+      boolean[] preferenceOf,
+      int count,
+      float confidence
+    ) {
+      Ratings ratings = new Ratings();
+      ratings.offsets = new int[rows + 1];
+      ratings.targets = new int[count];
+      ratings.confidences = new float[count];
+      ratings.preferences = new boolean[count];
+
+      for (int v = 0; v < count; v++) {
+        ratings.offsets[rowOf[v] + 1]++;
+      }
+      for (int r = 0; r < rows; r++) {
+        ratings.offsets[r + 1] += ratings.offsets[r];
+      }
+      int[] fill = Arrays.copyOf(ratings.offsets, rows);
+      for (int v = 0; v < count; v++) {
+        int position = fill[rowOf[v]]++;
+        ratings.targets[position] = targetOf[v];
+        ratings.confidences[position] = confidence;
+        ratings.preferences[position] = preferenceOf[v];
+      }
+      return ratings;
+    }
+
+    long bytes() {
+      long entryBytes = Integer.BYTES + Float.BYTES + 1;
+      return (long) offsets.length * Integer.BYTES + targets.length * entryBytes;
+    }
+  }
+
+  private static final class Feedback {
+
+    final List<String> userIds = new ArrayList<>();
+    final List<String> movieIds = new ArrayList<>();
+    Ratings byUser;
+    Ratings byMovie;
+
+    long bytes() {
+      return byUser.bytes() + byMovie.bytes();
+    }
+  }
+}
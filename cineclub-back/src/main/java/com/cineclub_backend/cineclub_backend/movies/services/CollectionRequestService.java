@@ -147,26 +147,8 @@ public class CollectionRequestService {
     FacetOperation facetOperation = Aggregation.facet()
       .and(
         Aggregation.match(Criteria.where("receiver_id").is(userId)),
-        Aggregation.stage(
-          "{ $lookup: { " +
-            "  from: 'users', " +
-            "  let: { receiverId: { $toString: '$receiver_id' } }, " +
-            "  pipeline: [ " +
-            "    { $match: { $expr: { $eq: [ { $toString: '$_id' } , '$$receiverId' ] } } } " +
-            "  ], " +
-            "  as: 'receiver' " +
-            "} }"
-        ),
-        Aggregation.stage(
-          "{ $lookup: { " +
-            "  from: 'users', " +
-            "  let: { senderId: { $toString: '$sender_id' } }, " +
-            "  pipeline: [ " +
-            "    { $match: { $expr: { $eq: [ { $toString: '$_id' } , '$$senderId' ] } } } " +
-            "  ], " +
-            "  as: 'sender' " +
-            "} }"
-        ),
+        Aggregation.lookup("users", "receiver_id", "_id", "receiver"),
+        Aggregation.lookup("users", "sender_id", "_id", "sender"),
         Aggregation.unwind("receiver", true),
         Aggregation.unwind("sender", true),
         Aggregation.project("receiver", "sender", "status", "sender_id", "receiver_id", "_id")
@@ -200,26 +182,8 @@ public class CollectionRequestService {
     FacetOperation facetOperation = Aggregation.facet()
       .and(
         Aggregation.match(Criteria.where("sender_id").is(userId)),
-        Aggregation.stage(
-          "{ $lookup: { " +
-            "  from: 'users', " +
-            "  let: { receiverId: { $toString: '$receiver_id' } }, " +
-            "  pipeline: [ " +
-            "    { $match: { $expr: { $eq: [ { $toString: '$_id' } , '$$receiverId' ] } } } " +
-            "  ], " +
-            "  as: 'receiver' " +
-            "} }"
-        ),
-        Aggregation.stage(
-          "{ $lookup: { " +
-            "  from: 'users', " +
-            "  let: { senderId: { $toString: '$sender_id' } }, " +
-            "  pipeline: [ " +
-            "    { $match: { $expr: { $eq: [ { $toString: '$_id' } , '$$senderId' ] } } } " +
-            "  ], " +
-            "  as: 'sender' " +
-            "} }"
-        ),
+        Aggregation.lookup("users", "receiver_id", "_id", "receiver"),
+        Aggregation.lookup("users", "sender_id", "_id", "sender"),
         Aggregation.unwind("receiver", true),
         Aggregation.unwind("sender", true),
         Aggregation.project("receiver", "sender", "status", "sender_id", "receiver_id", "_id")
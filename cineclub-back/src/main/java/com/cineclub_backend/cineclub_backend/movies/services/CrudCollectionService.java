@@ -2,11 +2,19 @@ package com.cineclub_backend.cineclub_backend.movies.services;
 
 import com.cineclub_backend.cineclub_backend.movies.dtos.CollectionDto;
 import com.cineclub_backend.cineclub_backend.movies.dtos.CollectionResponseDto;
+import com.cineclub_backend.cineclub_backend.movies.dtos.MovieDto;
 import com.cineclub_backend.cineclub_backend.movies.models.Collection;
 import com.cineclub_backend.cineclub_backend.movies.repositories.CollectionRepository;
 import com.cineclub_backend.cineclub_backend.shared.dtos.PagedResponseDto;
+import com.cineclub_backend.cineclub_backend.shared.helpers.CursorPaginationHelper;
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences;
+import com.cineclub_backend.cineclub_backend.shared.migrations.MigrationService;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.bson.Document;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -16,6 +24,7 @@ import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
@@ -24,13 +33,19 @@ public class CrudCollectionService {
 
   private final CollectionRepository collectionRepository;
   private final MongoTemplate mongoTemplate;
+  private final CrudMovieService crudMovieService;
+  private final MigrationService migrationService;
 
   public CrudCollectionService(
     CollectionRepository collectionRepository,
-    MongoTemplate mongoTemplate
+    MongoTemplate mongoTemplate,
+    CrudMovieService crudMovieService,
+    MigrationService migrationService
   ) {
     this.collectionRepository = collectionRepository;
     this.mongoTemplate = mongoTemplate;
+    this.crudMovieService = crudMovieService;
+    this.migrationService = migrationService;
   }
 
   public PagedResponseDto<CollectionResponseDto> getPagedCollections(
@@ -39,33 +54,7 @@ public class CrudCollectionService {
     Pageable pageable
   ) {
     try {
-      List<AggregationOperation> operations = new ArrayList<>();
-
-      if (userId != null && !userId.trim().isEmpty()) {
-        operations.add(Aggregation.match(Criteria.where("user_id").is(userId)));
-      }
-
-      operations.add(
-        Aggregation.stage(
-          "{ $lookup: { " +
-            "  from: 'movies', " +
-            "  let: { movie_ids: '$movies' }, " +
-            "  pipeline: [ " +
-            "    { $addFields: { " +
-            "      id_as_string: { $toString: '$_id' } " +
-            "    } }, " +
-            "    { $match: { " +
-            "      $expr: { $in: ['$id_as_string', '$$movie_ids'] } " +
-            "    } } " +
-            "  ], " +
-            "  as: 'movieDetails' " +
-            "} }"
-        )
-      );
-
-      if (title != null && !title.trim().isEmpty()) {
-        operations.add(Aggregation.match(Criteria.where("movieDetails.title").regex(title, "i")));
-      }
+      List<AggregationOperation> operations = filterOperations(title, userId);
 
       FacetOperation facetOperation = Aggregation.facet()
         .and(Aggregation.count().as("total"))
@@ -74,13 +63,7 @@ public class CrudCollectionService {
           Aggregation.sort(pageable.getSort()),
           Aggregation.skip((long) pageable.getPageNumber() * pageable.getPageSize()),
           Aggregation.limit(pageable.getPageSize()),
-          Aggregation.project()
-            .and("_id")
-            .as("_id")
-            .and("user_id")
-            .as("user_id")
-            .and("movieDetails")
-            .as("movies")
+          projection()
         )
         .as("data");
 
@@ -109,15 +92,20 @@ public class CrudCollectionService {
         }
       }
 
-      List<CollectionResponseDto> collectionDtos = new ArrayList<>();
+      List<Document> data = new ArrayList<>();
       Object dataObj = result.get("data");
       if (dataObj instanceof List<?> dataList) {
         for (Object item : dataList) {
           if (item instanceof Document doc) {
-            collectionDtos.add(convertDocumentToCollectionResponseDto(doc));
+            data.add(doc);
           }
         }
       }
+      Map<String, MovieDto> movies = hydrateMovies(data);
+      List<CollectionResponseDto> collectionDtos = data
+        .stream()
+        .map(doc -> convertDocumentToCollectionResponseDto(doc, movies))
+        .toList();
 
       Page<CollectionResponseDto> page = new PageImpl<>(collectionDtos, pageable, total);
       return new PagedResponseDto<>(page);
@@ -126,7 +114,100 @@ public class CrudCollectionService {
     }
   }
 
-  private CollectionResponseDto convertDocumentToCollectionResponseDto(Document doc) {
+  /**
+   * Igual que {@link #getPagedCollections} pero paginando por cursor: sin conteo ni $skip
+   */
+  public PagedResponseDto<CollectionResponseDto> getCollectionsByCursor(
+    String title,
+    String userId,
+    Pageable pageable,
+    String after
+  ) {
+    List<AggregationOperation> operations = filterOperations(title, userId);
+    operations.addAll(
+      CursorPaginationHelper.stages(pageable.getSort(), after, pageable.getPageSize())
+    );
+    operations.add(projection());
+
+    List<Document> data = mongoTemplate
+      .aggregate(Aggregation.newAggregation(operations), "collections", Document.class)
+      .getMappedResults();
+
+    Map<String, MovieDto> movies = hydrateMovies(data);
+    return new PagedResponseDto<>(
+      CursorPaginationHelper.toSlice(data, pageable.getPageSize(), doc ->
+        convertDocumentToCollectionResponseDto(doc, movies)
+      )
+    );
+  }
+
+  private List<AggregationOperation> filterOperations(String title, String userId) {
+    List<AggregationOperation> operations = new ArrayList<>();
+
+    if (userId != null && !userId.trim().isEmpty()) {
+      operations.add(Aggregation.match(Criteria.where("user_id").is(userId)));
+    }
+
+    // Las películas se hidratan desde el cache después de paginar; el $lookup solo hace falta
+    // para filtrar por título y trae únicamente ese campo. Mientras la migración de collections
+    // no terminó, movie_oids se calcula desde movies donde falta
+    if (title != null && !title.trim().isEmpty()) {
+      if (!migrationService.isDone(ObjectIdReferences.migrationId("collections"))) {
+        operations.add(
+          ObjectIdReferences.fillObjectIdField(ObjectIdReferences.of("collections", "movies"))
+        );
+      }
+      operations.add(
+        Aggregation.stage(
+          new Document(
+            "$lookup",
+            new Document("from", "movies")
+              .append("localField", "movie_oids")
+              .append("foreignField", "_id")
+              .append("pipeline", List.of(new Document("$project", new Document("title", 1))))
+              .append("as", "movieDetails")
+          )
+        )
+      );
+      operations.add(Aggregation.match(Criteria.where("movieDetails.title").regex(title, "i")));
+    }
+    return operations;
+  }
+
+  /**
+   * Todas las películas de las colecciones de la página con una sola lectura por lote
+   */
+  private Map<String, MovieDto> hydrateMovies(List<Document> collections) {
+    Set<String> movieIds = new LinkedHashSet<>();
+    for (Document doc : collections) {
+      List<?> movies = doc.get("movies", List.class);
+      if (movies != null) {
+        movies.forEach(movieId -> movieIds.add(movieId.toString()));
+      }
+    }
+    Map<String, MovieDto> hydrated = new HashMap<>();
+    for (MovieDto movie : crudMovieService.getMoviesByIds(movieIds)) {
+      hydrated.put(movie.getId(), movie);
+    }
+    return hydrated;
+  }
+
+  private ProjectionOperation projection() {
+    return Aggregation.project()
+      .and("_id")
+      .as("_id")
+      .and("user_id")
+      .as("user_id")
+      .and("movies")
+      .as("movies")
+      .and(CursorPaginationHelper.CURSOR_FIELD)
+      .as(CursorPaginationHelper.CURSOR_FIELD);
+  }
+
+  private CollectionResponseDto convertDocumentToCollectionResponseDto(
+    Document doc,
+    Map<String, MovieDto> movies
+  ) {
     CollectionResponseDto dto = new CollectionResponseDto();
 
     Object idObj = doc.get("_id");
@@ -143,18 +224,14 @@ public class CrudCollectionService {
     if (moviesObj instanceof List<?> moviesList) {
       List<CollectionResponseDto.MovieInfo> movieInfoList = new ArrayList<>();
       for (Object movieItem : moviesList) {
-        if (movieItem instanceof Document movieDoc) {
+        MovieDto movie = movieItem != null ? movies.get(movieItem.toString()) : null;
+        if (movie != null) {
           CollectionResponseDto.MovieInfo movieInfo = new CollectionResponseDto.MovieInfo();
-
-          Object movieIdObj = movieDoc.get("_id");
-          if (movieIdObj != null) {
-            movieInfo.setId(movieIdObj.toString());
-          }
-
-          movieInfo.setTitle(movieDoc.getString("title"));
-          movieInfo.setPosterPath(movieDoc.getString("poster_path"));
-          movieInfo.setOverview(movieDoc.getString("overview"));
-          movieInfo.setReleaseDate(movieDoc.getDate("release_date"));
+          movieInfo.setId(movie.getId());
+          movieInfo.setTitle(movie.getTitle());
+          movieInfo.setPosterPath(movie.getPosterPath());
+          movieInfo.setOverview(movie.getOverview());
+          movieInfo.setReleaseDate(movie.getReleaseDate());
           movieInfoList.add(movieInfo);
         }
       }
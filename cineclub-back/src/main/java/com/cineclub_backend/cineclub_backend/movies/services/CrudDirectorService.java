@@ -4,7 +4,12 @@ import com.cineclub_backend.cineclub_backend.movies.dtos.CreateDirectorDto;
 import com.cineclub_backend.cineclub_backend.movies.dtos.DirectorDto;
 import com.cineclub_backend.cineclub_backend.movies.dtos.UpdateDirectorDto;
 import com.cineclub_backend.cineclub_backend.movies.models.Director;
+import com.cineclub_backend.cineclub_backend.movies.models.Movie;
 import com.cineclub_backend.cineclub_backend.movies.repositories.DirectorsRepository;
+import com.cineclub_backend.cineclub_backend.shared.dtos.CursorSlice;
+import com.cineclub_backend.cineclub_backend.shared.helpers.CursorPaginationHelper;
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences;
+import com.cineclub_backend.cineclub_backend.shared.migrations.MigrationService;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -14,12 +19,15 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.aggregation.FacetOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -28,51 +36,32 @@ public class CrudDirectorService {
   private final DirectorsRepository directorsRepository;
   private final MongoTemplate mongoTemplate;
   private final ApplicationContext applicationContext;
+  private final MigrationService migrationService;
 
   public CrudDirectorService(
     DirectorsRepository directorsRepository,
     MongoTemplate mongoTemplate,
-    ApplicationContext applicationContext
+    ApplicationContext applicationContext,
+    MigrationService migrationService
   ) {
     this.directorsRepository = directorsRepository;
     this.mongoTemplate = mongoTemplate;
     this.applicationContext = applicationContext;
+    this.migrationService = migrationService;
   }
 
   public Page<DirectorDto> getPagedDirectorsWithMovies(String director, Pageable pageable) {
     try {
-      List<AggregationOperation> operations = new ArrayList<>();
+      List<AggregationOperation> operations = directorsWithMoviesOperations(director);
 
-      if (director != null && !director.isEmpty()) {
-        operations.add(Aggregation.match(Criteria.where("director").regex(director, "i")));
-      }
-
-      operations.add(
-        Aggregation.group("director")
-          .first("director")
-          .as("directorName")
-          .addToSet("movie_id")
-          .as("movieIds")
-      );
       FacetOperation facetOperation = Aggregation.facet()
         .and(Aggregation.count().as("total"))
         .as("metadata")
         .and(
-          Aggregation.sort(pageable.getSort()),
+          Aggregation.sort(groupedSort(pageable)),
           Aggregation.skip((long) pageable.getPageNumber() * pageable.getPageSize()),
           Aggregation.limit(pageable.getPageSize()),
-          Aggregation.stage(
-            "{ $lookup: { " +
-              "  from: 'movies', " +
-              "  let: { movie_ids: '$movieIds' }, " +
-              "  pipeline: [ " +
-              "    { $addFields: { id_as_string: { $toString: '$_id' } } }, " +
-              "    { $match: { $expr: { $in: ['$id_as_string', '$$movie_ids'] } } }, " +
-              "    { $project: { id: { $toString: '$_id' }, title: 1 } } " +
-              "  ], " +
-              "  as: 'movies' " +
-              "} }"
-          )
+          moviesLookup()
         )
         .as("data");
 
@@ -119,26 +108,13 @@ public class CrudDirectorService {
 
   public Page<DirectorDto> getPagedDirectors(String director, Pageable pageable) {
     try {
-      List<AggregationOperation> operations = new ArrayList<>();
-
-      Criteria directorCriteria = Criteria.where("director").ne(null).ne("").regex("\\S");
-
-      if (director != null && !director.isEmpty()) {
-        operations.add(Aggregation.match(Criteria.where("director").regex(director, "i")));
-      }
-
-      operations.add(Aggregation.match(directorCriteria));
-      operations.add(Aggregation.group("director"));
-
-      operations.add(Aggregation.sort(org.springframework.data.domain.Sort.by("_id")));
-
-      operations.add(Aggregation.project().andExpression("_id").as("director"));
+      List<AggregationOperation> operations = directorsOperations(director);
 
       FacetOperation facetOperation = Aggregation.facet()
         .and(Aggregation.count().as("total"))
         .as("metadata")
         .and(
-          Aggregation.sort(pageable.getSort()),
+          Aggregation.sort(groupedSort(pageable)),
           Aggregation.skip((long) pageable.getPageNumber() * pageable.getPageSize()),
           Aggregation.limit(pageable.getPageSize())
         )
@@ -185,6 +161,121 @@ public class CrudDirectorService {
     }
   }
 
+  /**
+   * Igual que {@link #getPagedDirectorsWithMovies} pero paginando por cursor: sin conteo ni $skip
+   */
+  public CursorSlice<DirectorDto> getPagedDirectorsWithMoviesByCursor(
+    String director,
+    Pageable pageable,
+    String after
+  ) {
+    List<AggregationOperation> operations = directorsWithMoviesOperations(director);
+    operations.addAll(
+      CursorPaginationHelper.stages(groupedSort(pageable), after, pageable.getPageSize())
+    );
+    operations.add(moviesLookup());
+
+    return CursorPaginationHelper.toSlice(aggregate(operations), pageable.getPageSize(), doc ->
+      convertDocumentToDirectorDto(doc, true)
+    );
+  }
+
+  /**
+   * Igual que {@link #getPagedDirectors} pero paginando por cursor: sin conteo ni $skip
+   */
+  public CursorSlice<DirectorDto> getPagedDirectorsByCursor(
+    String director,
+    Pageable pageable,
+    String after
+  ) {
+    List<AggregationOperation> operations = directorsOperations(director);
+    operations.addAll(
+      CursorPaginationHelper.stages(groupedSort(pageable), after, pageable.getPageSize())
+    );
+
+    return CursorPaginationHelper.toSlice(aggregate(operations), pageable.getPageSize(), doc ->
+      convertDocumentToDirectorDto(doc, false)
+    );
+  }
+
+  /**
+   * Después del $group solo queda el nombre del director como _id: se ordena por él, con la
+   * dirección pedida
+   */
+  private static Sort groupedSort(Pageable pageable) {
+    Sort.Order order = pageable.getSort().stream().findFirst().orElse(null);
+    return Sort.by(order != null ? order.getDirection() : Sort.Direction.ASC, "_id");
+  }
+
+  private List<Document> aggregate(List<AggregationOperation> operations) {
+    return mongoTemplate
+      .aggregate(Aggregation.newAggregation(operations), "directors", Document.class)
+      .getMappedResults();
+  }
+
+  private List<AggregationOperation> directorsWithMoviesOperations(String director) {
+    List<AggregationOperation> operations = new ArrayList<>();
+
+    if (director != null && !director.isEmpty()) {
+      operations.add(Aggregation.match(Criteria.where("director").regex(director, "i")));
+    }
+
+    operations.addAll(pendingMovieOidOperations());
+    operations.add(
+      Aggregation.group("director")
+        .first("director")
+        .as("directorName")
+        .addToSet("movie_oid")
+        .as("movieIds")
+    );
+    return operations;
+  }
+
+  /**
+   * Mientras la migración de directors no terminó, movie_oid se calcula desde movie_id en los
+   * documentos que todavía no lo tienen
+   */
+  private List<AggregationOperation> pendingMovieOidOperations() {
+    if (migrationService.isDone(ObjectIdReferences.migrationId("directors"))) {
+      return List.of();
+    }
+    return List.of(
+      ObjectIdReferences.fillObjectIdField(ObjectIdReferences.of("directors", "movie_id"))
+    );
+  }
+
+  private AggregationOperation moviesLookup() {
+    return Aggregation.stage(
+      "{ $lookup: { " +
+        "  from: 'movies', " +
+        "  localField: 'movieIds', " +
+        "  foreignField: '_id', " +
+        "  pipeline: [ " +
+        "    { $project: { id: { $toString: '$_id' }, title: 1 } } " +
+        "  ], " +
+        "  as: 'movies' " +
+        "} }"
+    );
+  }
+
+  private List<AggregationOperation> directorsOperations(String director) {
+    List<AggregationOperation> operations = new ArrayList<>();
+
+    Criteria directorCriteria = Criteria.where("director").ne(null).ne("").regex("\\S");
+
+    if (director != null && !director.isEmpty()) {
+      operations.add(Aggregation.match(Criteria.where("director").regex(director, "i")));
+    }
+
+    operations.add(Aggregation.match(directorCriteria));
+    operations.add(Aggregation.group("director"));
+
+    operations.add(Aggregation.sort(org.springframework.data.domain.Sort.by("_id")));
+
+    operations.add(Aggregation.project().andExpression("_id").as("director"));
+    return operations;
+  }
+
   private DirectorDto convertDocumentToDirectorDto(Document doc, boolean withMovies) {
     DirectorDto dto = new DirectorDto();
 
@@ -221,7 +312,7 @@ public class CrudDirectorService {
     return dto;
   }
 
-  @Cacheable(value = "directors:details", key = "#movieId")
+  @Cacheable(value = "directors:details", key = "#movieId", sync = true)
   public DirectorDto getDirectorByMovieId(String movieId) {
     return directorsRepository.findByMovieId(movieId).map(this::toDto).orElse(null);
   }
@@ -236,15 +327,16 @@ public class CrudDirectorService {
     return self.getDirectorDetailsByName(director.getDirector());
   }
 
-  @Cacheable(value = "directors:details", key = "#directorName")
+  @Cacheable(value = "directors:details", key = "#directorName", sync = true)
   public DirectorDto getDirectorDetailsByName(String directorName) {
     List<AggregationOperation> operations = new ArrayList<>();
     operations.add(Aggregation.match(Criteria.where("director").is(directorName)));
+    operations.addAll(pendingMovieOidOperations());
     operations.add(
       Aggregation.group("director")
         .first("director")
         .as("directorName")
-        .addToSet("movie_id")
+        .addToSet("movie_oid")
         .as("movieIds")
     );
 
@@ -252,10 +344,9 @@ public class CrudDirectorService {
       Aggregation.stage(
         "{ $lookup: { " +
           "  from: 'movies', " +
-          "  let: { movie_ids: '$movieIds' }, " +
+          "  localField: 'movieIds', " +
+          "  foreignField: '_id', " +
           "  pipeline: [ " +
-          "    { $addFields: { id_as_string: { $toString: '$_id' } } }, " +
-          "    { $match: { $expr: { $in: ['$id_as_string', '$$movie_ids'] } } }, " +
           "    { $project: { id: { $toString: '$_id' }, title: 1, _id: 0 } } " +
           "  ], " +
           "  as: 'movies' " +
@@ -285,6 +376,7 @@ public class CrudDirectorService {
   public DirectorDto createDirector(CreateDirectorDto directorDto) {
     Director director = toEntity(directorDto);
     director = directorsRepository.save(director);
+    syncMovie(director);
     return toDto(director);
   }
 
@@ -292,19 +384,53 @@ public class CrudDirectorService {
     return directorsRepository
       .findById(id)
       .map(director -> {
+        String previousMovieId = director.getMovieId();
         director.setDirector(directorDto.getDirector());
         director.setMovieId(directorDto.getMovieId());
         Director updatedDirector = directorsRepository.save(director);
+        if (previousMovieId != null && !previousMovieId.equals(updatedDirector.getMovieId())) {
+          clearMovie(previousMovieId, id);
+        }
+        syncMovie(updatedDirector);
         return toDto(updatedDirector);
       })
       .orElseThrow(() -> new NoSuchElementException("El director no existe."));
   }
 
   public void deleteDirector(String id) {
-    if (!directorsRepository.existsById(id)) {
-      throw new NoSuchElementException("El director no existe.");
-    }
+    Director director = directorsRepository
+      .findById(id)
+      .orElseThrow(() -> new NoSuchElementException("El director no existe."));
     directorsRepository.deleteById(id);
+    clearMovie(director.getMovieId(), id);
+  }
+
+  /**
+   * Copia nombre e id del director en la película para que los listados no necesiten $lookup
+   */
+  private void syncMovie(Director director) {
+    if (director.getMovieId() == null) {
+      return;
+    }
+    mongoTemplate.updateFirst(
+      new Query(Criteria.where("_id").is(director.getMovieId())),
+      new Update().set("director", director.getDirector()).set("director_id", director.getId()),
+      Movie.class
+    );
+  }
+
+  /**
+   * Quita la copia solo si la película todavía apunta a este director
+   */
+  private void clearMovie(String movieId, String directorId) {
+    if (movieId == null) {
+      return;
+    }
+    mongoTemplate.updateFirst(
+      new Query(Criteria.where("_id").is(movieId).and("director_id").is(directorId)),
+      new Update().unset("director").unset("director_id"),
+      Movie.class
+    );
   }
 
   private DirectorDto toDto(Director director) {
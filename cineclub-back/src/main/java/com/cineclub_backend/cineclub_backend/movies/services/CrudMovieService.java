@@ -2,14 +2,29 @@ package com.cineclub_backend.cineclub_backend.movies.services;
 
 import com.cineclub_backend.cineclub_backend.movies.dtos.CreateDirectorDto;
 import com.cineclub_backend.cineclub_backend.movies.dtos.CreateMovieDto;
+import com.cineclub_backend.cineclub_backend.movies.dtos.DirectorDto;
 import com.cineclub_backend.cineclub_backend.movies.dtos.MovieDto;
 import com.cineclub_backend.cineclub_backend.movies.dtos.UpdateMovieDto;
+import com.cineclub_backend.cineclub_backend.movies.helpers.DirectorFallbackHelper;
+import com.cineclub_backend.cineclub_backend.movies.helpers.MovieDocumentHelper;
+import com.cineclub_backend.cineclub_backend.movies.migrations.MovieDirectorMigration;
 import com.cineclub_backend.cineclub_backend.movies.models.Movie;
+import com.cineclub_backend.cineclub_backend.movies.models.MovieVote;
 import com.cineclub_backend.cineclub_backend.movies.repositories.MovieRepository;
+import com.cineclub_backend.cineclub_backend.shared.dtos.CursorSlice;
+import com.cineclub_backend.cineclub_backend.shared.helpers.CursorPaginationHelper;
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences;
+import com.cineclub_backend.cineclub_backend.shared.migrations.MigrationService;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.springframework.cache.annotation.Cacheable;
@@ -24,92 +39,64 @@ import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.aggregation.FacetOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
 import org.springframework.stereotype.Service;
 
 @Service
 @Slf4j
 public class CrudMovieService {
 
+  private static final int RANDOM_ATTEMPTS = 3;
+
   private final MovieRepository movieRepository;
   private final CrudDirectorService crudDirectorService;
   private final MongoTemplate mongoTemplate;
+  private final GenreService genreService;
+  private final MovieCacheService movieCacheService;
+  private final MovieLeaderboardService movieLeaderboardService;
+  private final MovieVoteCounterService movieVoteCounterService;
+  private final MovieIdPoolService movieIdPoolService;
+  private final MigrationService migrationService;
 
   public CrudMovieService(
     MovieRepository movieRepository,
     CrudDirectorService crudDirectorService,
-    MongoTemplate mongoTemplate
+    MongoTemplate mongoTemplate,
+    GenreService genreService,
+    MovieCacheService movieCacheService,
+    MovieLeaderboardService movieLeaderboardService,
+    MovieVoteCounterService movieVoteCounterService,
+    MovieIdPoolService movieIdPoolService,
+    MigrationService migrationService
   ) {
     this.movieRepository = movieRepository;
     this.crudDirectorService = crudDirectorService;
     this.mongoTemplate = mongoTemplate;
+    this.genreService = genreService;
+    this.movieCacheService = movieCacheService;
+    this.movieLeaderboardService = movieLeaderboardService;
+    this.movieVoteCounterService = movieVoteCounterService;
+    this.movieIdPoolService = movieIdPoolService;
+    this.migrationService = migrationService;
   }
 
   public Page<MovieDto> getAllMovies(String title, Pageable pageable, String userId) {
     try {
-      List<AggregationOperation> operations = new ArrayList<>();
+      List<AggregationOperation> operations = filterOperations(title);
 
-      if (title != null && !title.isEmpty()) {
-        operations.add(Aggregation.match(Criteria.where("title").regex(title, "i")));
-      }
+      List<AggregationOperation> dataOperations = new ArrayList<>();
+      dataOperations.add(Aggregation.sort(sortWithTieBreaker(pageable)));
+      dataOperations.add(
+        Aggregation.skip((long) pageable.getPageNumber() * pageable.getPageSize())
+      );
+      dataOperations.add(Aggregation.limit(pageable.getPageSize()));
+      dataOperations.addAll(projectionOperations(userId));
 
       FacetOperation facetOperation = Aggregation.facet()
         .and(Aggregation.count().as("total"))
         .as("metadata")
-        .and(
-          Aggregation.sort(pageable.getSort().and(Sort.by(Direction.DESC, "_id"))),
-          Aggregation.skip((long) pageable.getPageNumber() * pageable.getPageSize()),
-          Aggregation.limit(pageable.getPageSize()),
-          Aggregation.stage(
-            "{ $lookup: { " +
-              "  from: 'directors', " +
-              "  let: { movie_id_str: { $toString: '$_id' } }, " +
-              "  pipeline: [ " +
-              "    { $match: { $expr: { $eq: ['$movie_id', '$$movie_id_str'] } } } " +
-              "  ], " +
-              "  as: 'director' " +
-              "} }"
-          ),
-          Aggregation.unwind("director", true),
-          Aggregation.stage(
-            "{ $lookup: { " +
-              "  from: 'movie_votes', " +
-              "  let: { movie_id_str: { $toString: '$_id' } }, " +
-              "  pipeline: [ " +
-              "    { $match: { $expr: { $and: [ { $eq: ['$movie_id', '$$movie_id_str'] }, { $eq: ['$user_id', '" +
-              userId +
-              "'] } ] } } } " +
-              "  ], " +
-              "  as: 'vote' " +
-              "} }"
-          ),
-          Aggregation.project()
-            .and("_id")
-            .as("id")
-            .and("external_id")
-            .as("externalId")
-            .and("title")
-            .as("title")
-            .and("overview")
-            .as("overview")
-            .and("genres")
-            .as("genres")
-            .and("release_date")
-            .as("releaseDate")
-            .and("poster_path")
-            .as("posterPath")
-            .and("runtime")
-            .as("runtime")
-            .and("original_language")
-            .as("originalLanguage")
-            .and("director.director")
-            .as("director")
-            .and("vote")
-            .as("vote")
-            .and("up_votes")
-            .as("upVotes")
-            .and("down_votes")
-            .as("downVotes")
-        )
+        .and(dataOperations.toArray(new AggregationOperation[0]))
         .as("data");
 
       operations.add(facetOperation);
@@ -134,7 +121,7 @@ public class CrudMovieService {
 
       @SuppressWarnings("unchecked")
       List<Document> data = (List<Document>) result.get("data");
-      List<MovieDto> movieDtos = data.stream().map(this::convertDocumentToMovieDto).toList();
+      List<MovieDto> movieDtos = data.stream().map(MovieDocumentHelper::fromProjection).toList();
 
       return new PageImpl<>(movieDtos, pageable, total);
     } catch (Exception e) {
@@ -142,76 +129,116 @@ public class CrudMovieService {
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private MovieDto convertDocumentToMovieDto(Document doc) {
-    MovieDto dto = new MovieDto();
-
-    Object idObj = doc.get("id");
-    if (idObj != null) {
-      dto.setId(idObj.toString());
-    }
-
-    Object externalIdObj = doc.get("externalId");
-    if (externalIdObj instanceof Number) {
-      dto.setExternalId(((Number) externalIdObj).intValue());
-    }
-
-    dto.setTitle(doc.getString("title"));
-    dto.setOverview(doc.getString("overview"));
-    Object genresObj = doc.get("genres");
-    if (genresObj instanceof List) {
-      dto.setGenres(String.join(", ", (List<String>) genresObj));
-    } else if (genresObj instanceof String) {
-      dto.setGenres((String) genresObj);
-    }
+  /**
+   * Igual que {@link #getAllMovies} pero paginando por cursor: sin conteo ni $skip
+   */
+  public CursorSlice<MovieDto> getAllMoviesByCursor(
+    String title,
+    Pageable pageable,
+    String after,
+    String userId
+  ) {
+    List<AggregationOperation> operations = filterOperations(title);
+    operations.addAll(
+      CursorPaginationHelper.stages(sortWithTieBreaker(pageable), after, pageable.getPageSize())
+    );
+    operations.addAll(projectionOperations(userId));
 
-    Object releaseDateObj = doc.get("releaseDate");
-    if (releaseDateObj instanceof java.util.Date) {
-      dto.setReleaseDate((java.util.Date) releaseDateObj);
-    }
+    List<Document> data = mongoTemplate
+      .aggregate(Aggregation.newAggregation(operations), "movies", Document.class)
+      .getMappedResults();
 
-    dto.setPosterPath(doc.getString("posterPath"));
+    return CursorPaginationHelper.toSlice(
+      data,
+      pageable.getPageSize(),
+      MovieDocumentHelper::fromProjection
+    );
+  }
 
-    Object runtimeObj = doc.get("runtime");
-    if (runtimeObj instanceof Number) {
-      dto.setRuntime(((Number) runtimeObj).intValue());
+  private List<AggregationOperation> filterOperations(String title) {
+    List<AggregationOperation> operations = new ArrayList<>();
+    if (title != null && !title.isEmpty()) {
+      operations.add(Aggregation.match(Criteria.where("title").regex(title, "i")));
     }
+    return operations;
+  }
 
-    dto.setOriginalLanguage(doc.getString("originalLanguage"));
-    dto.setDirector(doc.getString("director"));
-
-    if (doc.containsKey("score")) {
-      Object scoreObj = doc.get("score");
-      if (scoreObj instanceof Number) {
-        dto.setScore(((Number) scoreObj).doubleValue());
-      }
-    }
+  private Sort sortWithTieBreaker(Pageable pageable) {
+    return pageable.getSort().and(Sort.by(Direction.DESC, "_id"));
+  }
 
-    if (doc.containsKey("upVotes")) {
-      Object upVotesObj = doc.get("upVotes");
-      if (upVotesObj instanceof Number) {
-        dto.setUpVotes(((Number) upVotesObj).intValue());
-      }
-    }
+  /**
+   * Director pendiente de migrar, voto del usuario y proyección al formato de MovieDto, solo
+   * para la página pedida
+   */
+  private List<AggregationOperation> projectionOperations(String userId) {
+    List<AggregationOperation> operations = new ArrayList<>(pendingDirectorOperations());
+    operations.addAll(voteLookup(userId));
+    operations.add(
+      Aggregation.project()
+        .and("_id")
+        .as("id")
+        .and("external_id")
+        .as("externalId")
+        .and("title")
+        .as("title")
+        .and("overview")
+        .as("overview")
+        .and("genres")
+        .as("genres")
+        .and("release_date")
+        .as("releaseDate")
+        .and("poster_path")
+        .as("posterPath")
+        .and("runtime")
+        .as("runtime")
+        .and("original_language")
+        .as("originalLanguage")
+        .and("director")
+        .as("director")
+        .and("vote")
+        .as("vote")
+        .and("up_votes")
+        .as("upVotes")
+        .and("down_votes")
+        .as("downVotes")
+        .and(CursorPaginationHelper.CURSOR_FIELD)
+        .as(CursorPaginationHelper.CURSOR_FIELD)
+    );
+    return operations;
+  }
 
-    if (doc.containsKey("downVotes")) {
-      Object downVotesObj = doc.get("downVotes");
-      if (downVotesObj instanceof Number) {
-        dto.setDownVotes(((Number) downVotesObj).intValue());
-      }
+  /**
+   * Hasta que MovieDirectorMigration termine, el director de las películas que todavía no lo
+   * tienen se busca en directors
+   */
+  private List<AggregationOperation> pendingDirectorOperations() {
+    if (migrationService.isDone(MovieDirectorMigration.ID)) {
+      return List.of();
     }
+    return DirectorFallbackHelper.stages("$_id", "");
+  }
 
-    if (doc.containsKey("vote")) {
-      List<?> voteList = (List<?>) doc.get("vote");
-      if (voteList != null && !voteList.isEmpty()) {
-        Document voteDoc = (Document) voteList.get(0);
-        dto.setUserVote(voteDoc.getString("type"));
-      }
-    }
-    return dto;
+  /**
+   * Voto del usuario sobre cada película, por el índice movie_oid de movie_votes; mientras su
+   * migración no terminó, por movie_id contra el _id en texto
+   */
+  private List<AggregationOperation> voteLookup(String userId) {
+    boolean migrated = migrationService.isDone(ObjectIdReferences.migrationId("movie_votes"));
+    AggregationOperation lookup = Aggregation.stage(
+      new Document(
+        "$lookup",
+        new Document("from", "movie_votes")
+          .append("localField", migrated ? "_id" : ObjectIdReferences.ID_AS_STRING)
+          .append("foreignField", migrated ? "movie_oid" : "movie_id")
+          .append("pipeline", List.of(new Document("$match", new Document("user_id", userId))))
+          .append("as", "vote")
+      )
+    );
+    return migrated ? List.of(lookup) : List.of(ObjectIdReferences.idAsString(), lookup);
   }
 
-  @Cacheable(value = "movies:details", key = "#p0", condition = "#id != null")
+  @Cacheable(value = "movies:details", key = "#p0", condition = "#id != null", sync = true)
   public MovieDto getMovieById(String id) {
     Movie movie = movieRepository
       .findById(id)
@@ -219,18 +246,44 @@ public class CrudMovieService {
     return toDto(movie);
   }
 
+  /**
+   * Varias películas por id en el orden recibido: primero un MGET sobre movies:details y las que
+   * falten con un solo $in, que además quedan en cache. Los ids inexistentes se omiten.
+   */
+  public List<MovieDto> getMoviesByIds(Collection<String> ids) {
+    List<String> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+    Map<String, MovieDto> movies = movieCacheService.getAll(uniqueIds);
+
+    List<String> missing = uniqueIds.stream().filter(id -> !movies.containsKey(id)).toList();
+    if (!missing.isEmpty()) {
+      Map<String, MovieDto> loaded = new HashMap<>();
+      for (Movie movie : movieRepository.findAllById(missing)) {
+        loaded.put(movie.getId(), toDto(movie));
+      }
+      movieCacheService.putAll(loaded);
+      movies.putAll(loaded);
+    }
+
+    return uniqueIds.stream().map(movies::get).filter(Objects::nonNull).toList();
+  }
+
   public MovieDto createMovie(CreateMovieDto movieDto) {
     Movie movie = toEntity(movieDto);
     if (movie.getGenres() == null || movie.getGenres().isEmpty()) {
       movie.setGenres("Uncategorized");
     }
+    movie.setGenreIds(genreService.resolveGenreIds(movie.getGenres()));
     movie = movieRepository.save(movie);
 
     CreateDirectorDto directorDto = new CreateDirectorDto();
     directorDto.setDirector(movieDto.getDirector());
     directorDto.setMovieId(movie.getId());
 
-    crudDirectorService.createDirector(directorDto);
+    DirectorDto director = crudDirectorService.createDirector(directorDto);
+    movie.setDirector(director.getDirector());
+    movie.setDirectorId(director.getId());
+    movieLeaderboardService.add(movie.getId());
+    movieIdPoolService.markStale();
     return toDto(movie);
   }
 
@@ -249,6 +302,7 @@ public class CrudMovieService {
         }
         if (movieDto.getGenres() != null) {
           movie.setGenres(movieDto.getGenres());
+          movie.setGenreIds(genreService.resolveGenreIds(movieDto.getGenres()));
         }
         if (movieDto.getReleaseDate() != null) {
           movie.setReleaseDate(movieDto.getReleaseDate());
@@ -273,6 +327,8 @@ public class CrudMovieService {
       throw new NoSuchElementException("La película no existe");
     }
     movieRepository.deleteById(id);
+    movieLeaderboardService.remove(id);
+    movieIdPoolService.markStale();
   }
 
   private MovieDto toDto(Movie movie) {
@@ -291,13 +347,23 @@ public class CrudMovieService {
     dto.setOriginalLanguage(movie.getOriginalLanguage());
     dto.setUpVotes(movie.getUpVotes());
     dto.setDownVotes(movie.getDownVotes());
-
-    var directorDto = crudDirectorService.getDirectorByMovieId(movie.getId());
-    dto.setDirector(directorDto != null ? directorDto.getDirector() : null);
-
+    dto.setDirector(
+      movie.getDirector() != null ? movie.getDirector() : pendingDirector(movie.getId())
+    );
     return dto;
   }
 
+  /**
+   * Director desde directors para una película que MovieDirectorMigration todavía no alcanzó
+   */
+  private String pendingDirector(String movieId) {
+    if (migrationService.isDone(MovieDirectorMigration.ID)) {
+      return null;
+    }
+    DirectorDto director = crudDirectorService.getDirectorByMovieId(movieId);
+    return director != null ? director.getDirector() : null;
+  }
+
   private Movie toEntity(CreateMovieDto dto) {
     if (dto == null) {
       return null;
@@ -314,8 +380,55 @@ public class CrudMovieService {
     return movie;
   }
 
+  /**
+   * Top por puntaje neto leído del ranking de Redis e hidratado desde el cache de detalles. Si el
+   * ranking no existe todavía se pide su reconstrucción y se responde desde Mongo.
+   */
   public List<MovieDto> getTopMovies(int limit, String userId) {
-    Aggregation aggregation = Aggregation.newAggregation(
+    List<TypedTuple<String>> top;
+    try {
+      top = movieLeaderboardService.top(limit);
+    } catch (Exception e) {
+      log.error("Error leyendo el ranking de películas: {}", e.getMessage());
+      return getTopMoviesFromDatabase(limit, userId);
+    }
+    if (top.isEmpty()) {
+      movieVoteCounterService.requestReconcile();
+      return getTopMoviesFromDatabase(limit, userId);
+    }
+
+    Map<String, Double> scores = new LinkedHashMap<>();
+    for (TypedTuple<String> entry : top) {
+      scores.put(entry.getValue(), entry.getScore());
+    }
+
+    Map<String, String> userVotes = new HashMap<>();
+    if (userId != null) {
+      Query voteQuery = new Query(
+        Criteria.where("user_id").is(userId).and("movie_id").in(scores.keySet())
+      );
+      voteQuery.fields().include("movie_id").include("type");
+      for (MovieVote vote : mongoTemplate.find(voteQuery, MovieVote.class)) {
+        userVotes.put(vote.getMovieId(), vote.getType().name());
+      }
+    }
+
+    // Copias: las instancias del cache en memoria son compartidas
+    return getMoviesByIds(scores.keySet())
+      .stream()
+      .map(movie ->
+        movie
+          .toBuilder()
+          .score(scores.get(movie.getId()))
+          .userVote(userVotes.get(movie.getId()))
+          .build()
+      )
+      .toList();
+  }
+
+  private List<MovieDto> getTopMoviesFromDatabase(int limit, String userId) {
+    List<AggregationOperation> operations = new ArrayList<>();
+    operations.add(
       Aggregation.addFields()
         .addField("score")
         .withValue(
@@ -327,23 +440,13 @@ public class CrudMovieService {
             )
           )
         )
-        .build(),
-      Aggregation.sort(Direction.DESC, "score"),
-      Aggregation.limit(limit),
-      Aggregation.lookup("directors", "movie_id", "movie_id", "director"),
-      Aggregation.unwind("director", true),
-      Aggregation.stage(
-        "{ $lookup: { " +
-          "  from: 'movie_votes', " +
-          "  let: { movie_id_str: { $toString: '$_id' } }, " +
-          "  pipeline: [ " +
-          "    { $match: { $expr: { $and: [ { $eq: ['$movie_id', '$$movie_id_str'] }, { $eq: ['$user_id', '" +
-          userId +
-          "'] } ] } } } " +
-          "  ], " +
-          "  as: 'vote' " +
-          "} }"
-      ),
+        .build()
+    );
+    operations.add(Aggregation.sort(Direction.DESC, "score"));
+    operations.add(Aggregation.limit(limit));
+    operations.addAll(pendingDirectorOperations());
+    operations.addAll(voteLookup(userId));
+    operations.add(
       Aggregation.project()
         .and("_id")
         .as("id")
@@ -374,78 +477,29 @@ public class CrudMovieService {
     );
 
     AggregationResults<Document> results = mongoTemplate.aggregate(
-      aggregation,
+      Aggregation.newAggregation(operations),
       "movies",
       Document.class
     );
 
-    return results
-      .getMappedResults()
-      .stream()
-      .map(doc -> {
-        MovieDto dto = convertDocumentToMovieDto(doc);
-
-        Document directorDoc = doc.get("director", Document.class);
-        if (directorDoc != null) {
-          dto.setDirector(directorDoc.getString("director"));
-        }
-        return dto;
-      })
-      .toList();
+    return results.getMappedResults().stream().map(MovieDocumentHelper::fromProjection).toList();
   }
 
+  /**
+   * Película al azar del pool en memoria, hidratada desde el cache. Un id que ya no existe
+   * (borrado antes del refresco del pool) se descarta y se elige otro.
+   */
   public MovieDto getRandomMovie() {
-    Aggregation aggregation = Aggregation.newAggregation(
-      Aggregation.sample(1),
-      Aggregation.stage(
-        "{ $lookup: { " +
-          "  from: 'directors', " +
-          "  let: { movie_id_str: { $toString: '$_id' } }, " +
-          "  pipeline: [ " +
-          "    { $match: { $expr: { $eq: ['$movie_id', '$$movie_id_str'] } } } " +
-          "  ], " +
-          "  as: 'director_doc' " +
-          "} }"
-      ),
-      Aggregation.unwind("director_doc", true),
-      Aggregation.project()
-        .and("_id")
-        .as("id")
-        .and("external_id")
-        .as("externalId")
-        .and("title")
-        .as("title")
-        .and("overview")
-        .as("overview")
-        .and("genres")
-        .as("genres")
-        .and("release_date")
-        .as("releaseDate")
-        .and("poster_path")
-        .as("posterPath")
-        .and("runtime")
-        .as("runtime")
-        .and("original_language")
-        .as("originalLanguage")
-        .and("up_votes")
-        .as("upVotes")
-        .and("down_votes")
-        .as("downVotes")
-        .and("director_doc.director")
-        .as("director")
-    );
-
-    AggregationResults<Document> results = mongoTemplate.aggregate(
-      aggregation,
-      "movies",
-      Document.class
-    );
-
-    Document doc = results.getUniqueMappedResult();
-    if (doc == null) {
-      throw new NoSuchElementException("No hay películas disponibles");
+    for (int attempt = 0; attempt < RANDOM_ATTEMPTS; attempt++) {
+      List<String> picked = movieIdPoolService.pick(1);
+      if (picked.isEmpty()) {
+        break;
+      }
+      List<MovieDto> movies = getMoviesByIds(picked);
+      if (!movies.isEmpty()) {
+        return movies.get(0);
+      }
     }
-
-    return convertDocumentToMovieDto(doc);
+    throw new NoSuchElementException("No hay películas disponibles");
   }
 }
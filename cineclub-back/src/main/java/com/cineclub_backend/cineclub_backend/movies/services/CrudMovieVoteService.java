@@ -1,71 +1,183 @@
 package com.cineclub_backend.cineclub_backend.movies.services;
 
-import com.cineclub_backend.cineclub_backend.movies.models.Movie;
+import com.cineclub_backend.cineclub_backend.movies.migrations.MovieVotesUniqueMigration;
 import com.cineclub_backend.cineclub_backend.movies.models.MovieVote;
-import com.cineclub_backend.cineclub_backend.movies.repositories.MovieVoteRepository;
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Slf4j
 public class CrudMovieVoteService {
 
-  private final MovieVoteRepository movieVoteRepository;
+  private static final long INDEX_CHECK_MS = 30_000;
+
   private final MongoTemplate mongoTemplate;
+  private final UserTasteProfileService userTasteProfileService;
+  private final RecommendationBatchService recommendationBatchService;
+  private final VotedMoviesFilterService votedMoviesFilterService;
+  private final MovieVoteCounterService movieVoteCounterService;
+  private volatile boolean uniqueIndexReady;
+  private volatile long uniqueIndexCheckedAt;
 
   public CrudMovieVoteService(
-    MovieVoteRepository movieVoteRepository,
-    MongoTemplate mongoTemplate
+    MongoTemplate mongoTemplate,
+    UserTasteProfileService userTasteProfileService,
+    RecommendationBatchService recommendationBatchService,
+    VotedMoviesFilterService votedMoviesFilterService,
+    MovieVoteCounterService movieVoteCounterService
   ) {
-    this.movieVoteRepository = movieVoteRepository;
     this.mongoTemplate = mongoTemplate;
+    this.userTasteProfileService = userTasteProfileService;
+    this.recommendationBatchService = recommendationBatchService;
+    this.votedMoviesFilterService = votedMoviesFilterService;
+    this.movieVoteCounterService = movieVoteCounterService;
   }
 
-  @Transactional
+  /**
+   * Alterna el voto del usuario. Con el índice único de (user_id, movie_id) creado es una sola
+   * operación atómica; mientras MovieVotesUniqueMigration no lo haya creado se busca y después se
+   * alterna, como antes.
+   */
   public void voteMovie(String movieId, String userId, MovieVote.VoteType type) {
-    Optional<MovieVote> existingVoteOpt = movieVoteRepository.findByUserIdAndMovieId(
-      userId,
-      movieId
-    );
+    if (isUniqueIndexReady()) {
+      toggleAtomically(movieId, userId, type);
+    } else {
+      findAndToggle(movieId, userId, type);
+    }
+  }
 
-    if (existingVoteOpt.isPresent()) {
-      MovieVote existingVote = existingVoteOpt.get();
+  /**
+   * El findAndModify cambia el tipo si el voto existe con otro tipo o lo inserta si no existe; si
+   * ya existe con el mismo tipo el upsert choca con el índice único y el voto se quita. Los
+   * contadores se derivan del documento anterior que devuelve Mongo, así dos clics concurrentes
+   * nunca cuentan el mismo cambio dos veces.
+   */
+  private void toggleAtomically(String movieId, String userId, MovieVote.VoteType type) {
+    LocalDateTime now = LocalDateTime.now();
+    Query sameUserAndMovie = new Query(
+      Criteria.where("user_id").is(userId).and("movie_id").is(movieId)
+    );
 
-      if (existingVote.getType() == type) {
-        movieVoteRepository.delete(existingVote);
+    MovieVote previous;
+    try {
+      previous = mongoTemplate.findAndModify(
+        Query.of(sameUserAndMovie).addCriteria(Criteria.where("type").ne(type)),
+        new Update()
+          .set("type", type)
+          .set("updated_at", now)
+          .setOnInsert("movie_oid", ObjectIdReferences.toObjectIds(movieId))
+          .setOnInsert("created_at", now),
+        FindAndModifyOptions.options().upsert(true).returnNew(false),
+        MovieVote.class
+      );
+    } catch (DuplicateKeyException e) {
+      MovieVote removed = mongoTemplate.findAndRemove(
+        Query.of(sameUserAndMovie).addCriteria(Criteria.where("type").is(type)),
+        MovieVote.class
+      );
+      if (removed != null) {
         updateMovieCounters(movieId, type, -1);
-      } else {
-        updateMovieCounters(movieId, existingVote.getType(), -1);
-        existingVote.setType(type);
-        existingVote.setUpdatedAt(LocalDateTime.now());
-        movieVoteRepository.save(existingVote);
-        updateMovieCounters(movieId, type, 1);
+        afterVote(userId, movieId, type, null);
       }
+      // Si no se encontró, otro request cambió el voto en el medio y ya contó su propio cambio
+      return;
+    }
+
+    if (previous == null) {
+      updateMovieCounters(movieId, type, 1);
+      afterVote(userId, movieId, null, type);
     } else {
-      MovieVote newVote = new MovieVote();
-      newVote.setUserId(userId);
-      newVote.setMovieId(movieId);
-      newVote.setType(type);
-      movieVoteRepository.save(newVote);
+      updateMovieCounters(movieId, previous.getType(), -1);
       updateMovieCounters(movieId, type, 1);
+      afterVote(userId, movieId, previous.getType(), type);
     }
   }
 
-  private void updateMovieCounters(String movieId, MovieVote.VoteType type, int increment) {
-    Query query = new Query(Criteria.where("_id").is(movieId));
-    Update update = new Update();
+  /**
+   * Sin índice único el upsert podría insertar un segundo voto; cada cambio se condiciona al
+   * tipo leído para no contar dos veces un voto que otro request ya modificó
+   */
+  private void findAndToggle(String movieId, String userId, MovieVote.VoteType type) {
+    MovieVote existing = mongoTemplate.findOne(
+      new Query(Criteria.where("user_id").is(userId).and("movie_id").is(movieId)),
+      MovieVote.class
+    );
+    if (existing == null) {
+      MovieVote vote = new MovieVote();
+      vote.setUserId(userId);
+      vote.setMovieId(movieId);
+      vote.setType(type);
+      mongoTemplate.insert(vote);
+      updateMovieCounters(movieId, type, 1);
+      afterVote(userId, movieId, null, type);
+      return;
+    }
 
-    if (type == MovieVote.VoteType.UP) {
-      update.inc("up_votes", increment);
-    } else {
-      update.inc("down_votes", increment);
+    Query sameVote = new Query(
+      Criteria.where("_id").is(existing.getId()).and("type").is(existing.getType())
+    );
+    if (existing.getType() == type) {
+      if (mongoTemplate.remove(sameVote, MovieVote.class).getDeletedCount() > 0) {
+        updateMovieCounters(movieId, type, -1);
+        afterVote(userId, movieId, type, null);
+      }
+      return;
+    }
+    Update update = new Update().set("type", type).set("updated_at", LocalDateTime.now());
+    if (mongoTemplate.updateFirst(sameVote, update, MovieVote.class).getModifiedCount() > 0) {
+      updateMovieCounters(movieId, existing.getType(), -1);
+      updateMovieCounters(movieId, type, 1);
+      afterVote(userId, movieId, existing.getType(), type);
     }
+  }
 
-    mongoTemplate.updateFirst(query, update, Movie.class);
+  /**
+   * Una vez visto el índice se deja de consultar; mientras falte se revisa cada INDEX_CHECK_MS
+   */
+  private boolean isUniqueIndexReady() {
+    if (uniqueIndexReady) {
+      return true;
+    }
+    long now = System.currentTimeMillis();
+    if (now - uniqueIndexCheckedAt >= INDEX_CHECK_MS) {
+      uniqueIndexCheckedAt = now;
+      try {
+        uniqueIndexReady = MovieVotesUniqueMigration.hasUniqueIndex(mongoTemplate);
+      } catch (RuntimeException e) {
+        log.warn("No se pudo verificar el índice único de movie_votes: {}", e.getMessage());
+      }
+    }
+    return uniqueIndexReady;
+  }
+
+  /**
+   * El perfil de gustos y las tandas de recomendaciones son derivados: si Redis falla no se
+   * bloquea el voto, la verificación nocturna los repara
+   */
+  private void afterVote(
+    String userId,
+    String movieId,
+    MovieVote.VoteType previousType,
+    MovieVote.VoteType newType
+  ) {
+    try {
+      userTasteProfileService.applyVote(userId, movieId, previousType, newType);
+      votedMoviesFilterService.applyVote(userId, movieId, previousType, newType);
+      recommendationBatchService.requestRefresh(userId);
+    } catch (Exception e) {
+      log.error("Error actualizando el perfil de gustos de {}: {}", userId, e.getMessage());
+    }
+  }
+
+  private void updateMovieCounters(String movieId, MovieVote.VoteType type, int increment) {
+    movieVoteCounterService.increment(movieId, type, increment);
   }
 }
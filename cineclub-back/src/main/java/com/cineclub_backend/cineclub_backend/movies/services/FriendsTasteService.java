@@ -0,0 +1,164 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import com.cineclub_backend.cineclub_backend.movies.models.MovieVote;
+import com.cineclub_backend.cineclub_backend.social.repositories.Neo4jClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Service;
+
+/**
+ * Puntaje de películas según los votos UP de los amigos del usuario. Cada amigo pesa
+ * 1 + ln(1 + amigos en común) según el grafo FRIEND de Neo4j. El resultado se guarda en Redis
+ * (recommendations:social:{userId}, un sorted set) para no recorrer el grafo en cada request; se
+ * invalida cuando cambia una amistad y vence por TTL para reflejar los votos nuevos de los amigos.
+ */
+@Service
+@Slf4j
+public class FriendsTasteService {
+
+  private static final String KEY_PREFIX = "recommendations:social:";
+
+  private final RedisTemplate<String, String> redisTemplate;
+  private final MongoTemplate mongoTemplate;
+  private final Neo4jClient neo4jClient;
+  private final Duration ttl;
+  private final int maxMovies;
+
+  public FriendsTasteService(
+    RedisTemplate<String, String> redisTemplate,
+    MongoTemplate mongoTemplate,
+    Neo4jClient neo4jClient,
+    @Value("${recommendations.social.ttl-hours:12}") long ttlHours,
+    @Value("${recommendations.social.max-movies:500}") int maxMovies
+  ) {
+    this.redisTemplate = redisTemplate;
+    this.mongoTemplate = mongoTemplate;
+    this.neo4jClient = neo4jClient;
+    this.ttl = Duration.ofHours(ttlHours);
+    this.maxMovies = maxMovies;
+  }
+
+  /**
+   * Películas que les gustaron a los amigos con su puntaje, de mayor a menor. Si no hay cache se
+   * calcula y se guarda.
+   */
+  public Map<String, Double> getScores(String userId) {
+    List<Object> results = redisTemplate.executePipelined(
+      new SessionCallback<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object execute(RedisOperations<K, V> operations) {
+          RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+          ops.hasKey(readyKey(userId));
+          ops.opsForZSet().reverseRangeWithScores(scoresKey(userId), 0, maxMovies - 1);
+          return null;
+        }
+      }
+    );
+
+    if (!Boolean.TRUE.equals(results.get(0))) {
+      return rebuild(userId);
+    }
+
+    Map<String, Double> scores = new LinkedHashMap<>();
+    if (results.get(1) instanceof Set<?> tuples) {
+      for (Object tuple : tuples) {
+        if (tuple instanceof TypedTuple<?> typed && typed.getValue() != null) {
+          scores.put(typed.getValue().toString(), typed.getScore());
+        }
+      }
+    }
+    return scores;
+  }
+
+  /**
+   * Recorre el grafo una vez y trae los votos de todos los amigos en una sola consulta
+   */
+  public Map<String, Double> rebuild(String userId) {
+    Map<String, Long> strengths = neo4jClient.getFriendStrengths(userId);
+
+    Map<String, Double> scores = new HashMap<>();
+    if (!strengths.isEmpty()) {
+      Query voteQuery = new Query(
+        Criteria.where("user_id").in(strengths.keySet()).and("type").is("UP")
+      );
+      voteQuery.fields().include("user_id").include("movie_id");
+      for (MovieVote vote : mongoTemplate.find(voteQuery, MovieVote.class, "movie_votes")) {
+        Long mutualFriends = strengths.get(vote.getUserId());
+        if (mutualFriends != null) {
+          scores.merge(vote.getMovieId(), 1 + Math.log1p(mutualFriends), Double::sum);
+        }
+      }
+    }
+
+    Map<String, Double> top = new LinkedHashMap<>();
+    scores.entrySet()
+      .stream()
+      .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+      .limit(maxMovies)
+      .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+
+    Set<TypedTuple<String>> tuples = new HashSet<>();
+    top.forEach((movieId, score) -> tuples.add(new DefaultTypedTuple<>(movieId, score)));
+
+    redisTemplate.executePipelined(
+      new SessionCallback<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object execute(RedisOperations<K, V> operations) {
+          RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+          ops.delete(scoresKey(userId));
+          if (!tuples.isEmpty()) {
+            ops.opsForZSet().add(scoresKey(userId), tuples);
+            ops.expire(scoresKey(userId), ttl);
+          }
+          ops.opsForValue().set(readyKey(userId), LocalDateTime.now().toString(), ttl);
+          return null;
+        }
+      }
+    );
+
+    return top;
+  }
+
+  /**
+   * Descarta el cache de los usuarios cuya lista de amigos cambió
+   */
+  public void invalidate(String... userIds) {
+    List<String> keys = new ArrayList<>();
+    for (String userId : userIds) {
+      keys.add(scoresKey(userId));
+      keys.add(readyKey(userId));
+    }
+    try {
+      redisTemplate.delete(keys);
+    } catch (Exception e) {
+      log.error("Error invalidando el cache social: {}", e.getMessage());
+    }
+  }
+
+  private static String scoresKey(String userId) {
+    return KEY_PREFIX + userId;
+  }
+
+  private static String readyKey(String userId) {
+    return KEY_PREFIX + userId + ":ready";
+  }
+}
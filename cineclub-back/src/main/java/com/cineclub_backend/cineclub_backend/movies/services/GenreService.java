@@ -0,0 +1,175 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import com.cineclub_backend.cineclub_backend.movies.helpers.MovieDocumentHelper;
+import com.cineclub_backend.cineclub_backend.movies.models.Genre;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Normaliza los géneros de texto libre de las películas a ids enteros (genre_ids) usando la
+ * colección genres como catálogo. Los géneros son pocos, así que se mantienen en memoria y se
+ * releen periódicamente; una clave desconocida se busca en Mongo antes de registrarla.
+ */
+@Service
+public class GenreService {
+
+  public static final int FIRST_CUSTOM_ID = 100000;
+
+  private static final String COUNTERS = "counters";
+  private static final String COUNTER_ID = "genre_id";
+
+  private final MongoTemplate mongoTemplate;
+  private final Map<String, Integer> idsByKey = new ConcurrentHashMap<>();
+  private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+  private volatile boolean loaded;
+
+  public GenreService(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Convierte el campo genres (repr de Python, JSON, lista o texto plano) en ids, registrando
+   * los géneros que todavía no existan
+   */
+  public List<Integer> resolveGenreIds(Object genres) {
+    ensureLoaded();
+    List<Integer> ids = new ArrayList<>();
+    MovieDocumentHelper.extractGenreEntries(genres).forEach((name, tmdbId) -> {
+      Integer id = resolve(name, tmdbId);
+      if (id != null && !ids.contains(id)) {
+        ids.add(id);
+      }
+    });
+    return ids;
+  }
+
+  /**
+   * Ids de los géneros cuyo nombre contiene el texto, sin distinguir mayúsculas
+   */
+  public List<Integer> findIdsByName(String text) {
+    ensureLoaded();
+    String needle = text.trim().toLowerCase(Locale.ROOT);
+    List<Integer> ids = new ArrayList<>();
+    idsByKey.forEach((key, id) -> {
+      if (key.contains(needle)) {
+        ids.add(id);
+      }
+    });
+    return ids;
+  }
+
+  public Map<Integer, String> getGenreNames() {
+    ensureLoaded();
+    return new HashMap<>(namesById);
+  }
+
+  public void ensureIndexes() {
+    mongoTemplate.indexOps(Genre.class).ensureIndex(new Index("key", Sort.Direction.ASC).unique());
+  }
+
+  private Integer resolve(String name, Integer tmdbId) {
+    String trimmed = name.trim();
+    if (trimmed.isEmpty()) {
+      return null;
+    }
+    String key = trimmed.toLowerCase(Locale.ROOT);
+    Integer id = idsByKey.get(key);
+    if (id != null) {
+      return id;
+    }
+    // Mismo id de TMDB con otro nombre (traducción o alias): se reutiliza el género existente
+    if (tmdbId != null && namesById.containsKey(tmdbId)) {
+      idsByKey.put(key, tmdbId);
+      return tmdbId;
+    }
+
+    // Otra instancia pudo registrarlo; si no existe se inserta con el id de TMDB o uno propio
+    Genre existing = findByKey(key);
+    if (existing == null) {
+      try {
+        mongoTemplate.upsert(
+          new Query(Criteria.where("key").is(key)),
+          new Update()
+            .setOnInsert("_id", tmdbId != null ? tmdbId : nextCustomId())
+            .setOnInsert("name", trimmed),
+          Genre.class
+        );
+        existing = findByKey(key);
+      } catch (DuplicateKeyException e) {
+        // Otra petición lo insertó a la vez (misma key) o el id de TMDB ya es de otro nombre
+        existing = findByKey(key);
+        if (existing == null && tmdbId != null) {
+          existing = mongoTemplate.findById(tmdbId, Genre.class);
+          if (existing != null) {
+            cache(existing);
+            idsByKey.put(key, tmdbId);
+            return tmdbId;
+          }
+        }
+        if (existing == null) {
+          throw e;
+        }
+      }
+    }
+
+    cache(existing);
+    return existing.getId();
+  }
+
+  /**
+   * Relee el catálogo para ver los géneros que registraron otras instancias
+   */
+  @Scheduled(fixedDelayString = "${genres.refresh-ms:300000}")
+  public void refresh() {
+    if (loaded) {
+      mongoTemplate.findAll(Genre.class).forEach(this::cache);
+    }
+  }
+
+  private Genre findByKey(String key) {
+    return mongoTemplate.findOne(new Query(Criteria.where("key").is(key)), Genre.class);
+  }
+
+  private int nextCustomId() {
+    Document counter = mongoTemplate.findAndModify(
+      new Query(Criteria.where("_id").is(COUNTER_ID)),
+      new Update().inc("seq", 1),
+      FindAndModifyOptions.options().upsert(true).returnNew(true),
+      Document.class,
+      COUNTERS
+    );
+    return FIRST_CUSTOM_ID + counter.get("seq", Number.class).intValue();
+  }
+
+  private void ensureLoaded() {
+    if (loaded) {
+      return;
+    }
+    synchronized (this) {
+      if (!loaded) {
+        mongoTemplate.findAll(Genre.class).forEach(this::cache);
+        loaded = true;
+      }
+    }
+  }
+
+  private void cache(Genre genre) {
+    idsByKey.put(genre.getKey(), genre.getId());
+    namesById.put(genre.getId(), genre.getName());
+  }
+}
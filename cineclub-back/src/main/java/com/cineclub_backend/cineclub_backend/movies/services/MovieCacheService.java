@@ -0,0 +1,129 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import com.cineclub_backend.cineclub_backend.config.CacheConfig;
+import com.cineclub_backend.cineclub_backend.config.TwoLevelCache;
+import com.cineclub_backend.cineclub_backend.movies.dtos.MovieDto;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lectura y escritura por lote del cache movies:details, con las mismas claves y serializador que
+ * usa @Cacheable en getMovieById: un MGET para N películas en lugar de N GET.
+ */
+@Service
+@Slf4j
+public class MovieCacheService {
+
+  private static final String CACHE_NAME = "movies:details";
+  private static final String KEY_PREFIX = CACHE_NAME + "::";
+
+  private final RedisTemplate<String, String> redisTemplate;
+  private final RedisSerializer<Object> cacheValueSerializer;
+  private final CacheManager cacheManager;
+
+  public MovieCacheService(
+    RedisTemplate<String, String> redisTemplate,
+    RedisSerializer<Object> cacheValueSerializer,
+    CacheManager cacheManager
+  ) {
+    this.redisTemplate = redisTemplate;
+    this.cacheValueSerializer = cacheValueSerializer;
+    this.cacheManager = cacheManager;
+  }
+
+  /**
+   * Películas en cache por id, primero del L1 en memoria y las demás con un MGET; las que faltan
+   * no aparecen en el resultado. Si Redis falla el llamador carga el resto desde Mongo.
+   */
+  public Map<String, MovieDto> getAll(List<String> ids) {
+    Map<String, MovieDto> cached = new HashMap<>();
+    TwoLevelCache local = localCache();
+    List<String> remoteIds = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      if (local != null && local.getLocal(id) instanceof MovieDto movie) {
+        cached.put(id, movie);
+      } else {
+        remoteIds.add(id);
+      }
+    }
+    if (remoteIds.isEmpty()) {
+      return cached;
+    }
+
+    byte[][] keys = new byte[remoteIds.size()][];
+    for (int i = 0; i < remoteIds.size(); i++) {
+      keys[i] = key(remoteIds.get(i));
+    }
+
+    try {
+      List<byte[]> values = redisTemplate.execute(
+        (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(keys)
+      );
+      if (values == null) {
+        return cached;
+      }
+      for (int i = 0; i < remoteIds.size(); i++) {
+        byte[] value = values.get(i);
+        if (value != null && cacheValueSerializer.deserialize(value) instanceof MovieDto movie) {
+          cached.put(remoteIds.get(i), movie);
+          if (local != null) {
+            local.putLocal(remoteIds.get(i), movie);
+          }
+        }
+      }
+    } catch (Exception e) {
+      log.error("Error leyendo películas del cache: {}", e.getMessage());
+    }
+    return cached;
+  }
+
+  /**
+   * Guarda las películas con el TTL de movies:details en un solo pipeline y en el L1
+   */
+  public void putAll(Map<String, MovieDto> movies) {
+    if (movies.isEmpty()) {
+      return;
+    }
+    TwoLevelCache local = localCache();
+    if (local != null) {
+      movies.forEach(local::putLocal);
+    }
+    List<Map.Entry<byte[], byte[]>> entries = new ArrayList<>(movies.size());
+    movies.forEach((id, movie) ->
+      entries.add(Map.entry(key(id), cacheValueSerializer.serialize(movie)))
+    );
+
+    Expiration ttl = Expiration.from(CacheConfig.MOVIES_DETAILS_TTL);
+    try {
+      redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        for (Map.Entry<byte[], byte[]> entry : entries) {
+          connection
+            .stringCommands()
+            .set(entry.getKey(), entry.getValue(), ttl, SetOption.upsert());
+        }
+        return null;
+      });
+    } catch (Exception e) {
+      log.error("Error guardando películas en el cache: {}", e.getMessage());
+    }
+  }
+
+  private TwoLevelCache localCache() {
+    return cacheManager.getCache(CACHE_NAME) instanceof TwoLevelCache cache ? cache : null;
+  }
+
+  private static byte[] key(String id) {
+    return (KEY_PREFIX + id).getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,365 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import com.cineclub_backend.cineclub_backend.movies.helpers.MovieDocumentHelper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Índice residente del catálogo de películas. Guarda en arreglos primitivos los atributos que
+ * usan las estrategias de recomendación (géneros como bitset, año, director y votos) para poder
+ * puntuar candidatos en memoria sin consultar Mongo en cada request.
+ */
+@Service
+@Slf4j
+public class MovieCatalogIndexService {
+
+  private final MongoTemplate mongoTemplate;
+  private final GenreService genreService;
+
+  private volatile Snapshot snapshot;
+
+  public MovieCatalogIndexService(MongoTemplate mongoTemplate, GenreService genreService) {
+    this.mongoTemplate = mongoTemplate;
+    this.genreService = genreService;
+  }
+
+  public Snapshot getSnapshot() {
+    Snapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        if (snapshot == null) {
+          snapshot = build();
+        }
+        current = snapshot;
+      }
+    }
+    return current;
+  }
+
+  @Scheduled(
+    fixedDelayString = "${recommendations.catalog-index.refresh-ms:600000}",
+    initialDelayString = "${recommendations.catalog-index.refresh-ms:600000}"
+  )
+  public void refresh() {
+    try {
+      snapshot = build();
+    } catch (Exception e) {
+      log.error("Error refrescando el índice del catálogo: {}", e.getMessage());
+    }
+  }
+
+  private Snapshot build() {
+    long start = System.currentTimeMillis();
+    int expected = (int) Math.max(
+      16,
+      mongoTemplate.getCollection("movies").estimatedDocumentCount()
+    );
+
+    Document projection = new Document("genres", 1)
+      .append("genre_ids", 1)
+      .append("release_date", 1)
+      .append("up_votes", 1)
+      .append("down_votes", 1);
+    Document directorProjection = new Document("movie_id", 1).append("director", 1);
+
+    Snapshot built = buildSnapshot(
+      mongoTemplate.getCollection("movies").find().projection(projection),
+      mongoTemplate.getCollection("directors").find().projection(directorProjection),
+      genreService.getGenreNames(),
+      expected
+    );
+    log.info(
+      "Índice del catálogo construido: {} películas, {} géneros, {} directores en {} ms",
+      built.size(),
+      built.genreCount(),
+      built.directorNames.size(),
+      System.currentTimeMillis() - start
+    );
+    return built;
+  }
+
+  /**
+   * Arma un snapshot a partir de documentos de movies y directors. Visible para los benchmarks,
+   * que lo usan con datos sintéticos.
+   *
+   * @param genreNamesById catálogo de genres para resolver genre_ids; las películas sin
+   *     genre_ids se resuelven parseando el campo genres
+   */
+  static Snapshot buildSnapshot(
+    Iterable<Document> movies,
+    Iterable<Document> directors,
+    Map<Integer, String> genreNamesById,
+    int expected
+  ) {
+    Builder builder = new Builder(expected, genreNamesById);
+    for (Document doc : movies) {
+      builder.addMovie(doc);
+    }
+    for (Document doc : directors) {
+      builder.addDirector(doc.getString("movie_id"), doc.getString("director"));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Vista inmutable del catálogo. Cada película se identifica por su ordinal (posición en los
+   * arreglos), que solo es estable dentro de un mismo snapshot.
+   */
+  public static final class Snapshot {
+
+    private final String[] movieIds;
+    private final Map<String, Integer> ordinals;
+    private final long[] genreBits;
+    private final short[] years;
+    private final int[] directorIds;
+    private final int[] upVotes;
+    private final int[] downVotes;
+    private final List<String> genreNames;
+    private final List<String> directorNames;
+    private final Map<String, Integer> genreBitsByName;
+    private final Map<String, Integer> directorIdsByName;
+
+    private Snapshot(
+      String[] movieIds,
+      Map<String, Integer> ordinals,
+      long[] genreBits,
+      short[] years,
+      int[] directorIds,
+      int[] upVotes,
+      int[] downVotes,
+      List<String> genreNames,
+      List<String> directorNames,
+      Map<String, Integer> genreBitsByName,
+      Map<String, Integer> directorIdsByName
+    ) {
+      this.movieIds = movieIds;
+      this.ordinals = ordinals;
+      this.genreBits = genreBits;
+      this.years = years;
+      this.directorIds = directorIds;
+      this.upVotes = upVotes;
+      this.downVotes = downVotes;
+      this.genreNames = genreNames;
+      this.directorNames = directorNames;
+      this.genreBitsByName = genreBitsByName;
+      this.directorIdsByName = directorIdsByName;
+    }
+
+    public int size() {
+      return movieIds.length;
+    }
+
+    /**
+     * @return el ordinal de la película o -1 si no está en el índice
+     */
+    public int ordinalOf(String movieId) {
+      Integer ordinal = movieId != null ? ordinals.get(movieId) : null;
+      return ordinal != null ? ordinal : -1;
+    }
+
+    public String movieId(int ordinal) {
+      return movieIds[ordinal];
+    }
+
+    public long genreBits(int ordinal) {
+      return genreBits[ordinal];
+    }
+
+    /**
+     * @return el año de estreno o 0 si se desconoce
+     */
+    public int year(int ordinal) {
+      return years[ordinal];
+    }
+
+    /**
+     * @return el id del director o -1 si la película no tiene director
+     */
+    public int directorId(int ordinal) {
+      return directorIds[ordinal];
+    }
+
+    public String directorName(int ordinal) {
+      int directorId = directorIds[ordinal];
+      return directorId >= 0 ? directorNames.get(directorId) : null;
+    }
+
+    public int upVotes(int ordinal) {
+      return upVotes[ordinal];
+    }
+
+    public int downVotes(int ordinal) {
+      return downVotes[ordinal];
+    }
+
+    public String genreName(int bit) {
+      return genreNames.get(bit);
+    }
+
+    public int genreCount() {
+      return genreNames.size();
+    }
+
+    /**
+     * @return el bit asignado al género o -1 si no existe en el catálogo
+     */
+    public int genreBitOf(String genre) {
+      Integer bit = genre != null ? genreBitsByName.get(genre) : null;
+      return bit != null ? bit : -1;
+    }
+
+    /**
+     * @return el id del director o -1 si no dirige ninguna película del catálogo
+     */
+    public int directorIdOf(String director) {
+      Integer directorId = director != null ? directorIdsByName.get(director) : null;
+      return directorId != null ? directorId : -1;
+    }
+  }
+
+  private static final class Builder {
+
+    private int count;
+    private String[] movieIds;
+    private long[] genreBits;
+    private short[] years;
+    private int[] upVotes;
+    private int[] downVotes;
+    private int[] directorIds;
+    private final Map<String, Integer> ordinals;
+    private final Map<String, Integer> genreBitsByName = new HashMap<>();
+    private final List<String> genreNames = new ArrayList<>();
+    private final Map<String, Integer> directorIdsByName = new HashMap<>();
+    private final List<String> directorNames = new ArrayList<>();
+    private final Map<Integer, String> genreNamesById;
+    private boolean genreOverflowLogged;
+
+    Builder(int capacity, Map<Integer, String> genreNamesById) {
+      this.genreNamesById = genreNamesById;
+      movieIds = new String[capacity];
+      genreBits = new long[capacity];
+      years = new short[capacity];
+      upVotes = new int[capacity];
+      downVotes = new int[capacity];
+      ordinals = new HashMap<>(capacity * 2);
+    }
+
+    void addMovie(Document doc) {
+      String movieId = MovieDocumentHelper.getMovieId(doc);
+      if (movieId == null || ordinals.containsKey(movieId)) {
+        return;
+      }
+      ensureCapacity(count + 1);
+
+      long bits = 0L;
+      for (String genre : genresOf(doc)) {
+        int bit = genreBit(genre);
+        if (bit >= 0) {
+          bits |= 1L << bit;
+        }
+      }
+
+      Integer year = MovieDocumentHelper.extractYear(doc.get("release_date"));
+
+      movieIds[count] = movieId;
+      genreBits[count] = bits;
+      years[count] = year != null ? year.shortValue() : 0;
+      upVotes[count] = MovieDocumentHelper.getInt(doc, "up_votes");
+      downVotes[count] = MovieDocumentHelper.getInt(doc, "down_votes");
+      ordinals.put(movieId, count);
+      count++;
+    }
+
+    private Collection<String> genresOf(Document doc) {
+      List<?> genreIds = doc.get("genre_ids", List.class);
+      if (genreIds == null || genreIds.isEmpty()) {
+        return MovieDocumentHelper.extractGenres(doc.get("genres"));
+      }
+      List<String> names = new ArrayList<>(genreIds.size());
+      for (Object id : genreIds) {
+        String name = id instanceof Number ? genreNamesById.get(((Number) id).intValue()) : null;
+        if (name != null) {
+          names.add(name);
+        }
+      }
+      return names;
+    }
+
+    void addDirector(String movieId, String director) {
+      if (directorIds == null) {
+        directorIds = new int[count];
+        Arrays.fill(directorIds, -1);
+      }
+      Integer ordinal = movieId != null ? ordinals.get(movieId) : null;
+      if (ordinal == null || director == null || director.trim().isEmpty()) {
+        return;
+      }
+      Integer directorId = directorIdsByName.get(director);
+      if (directorId == null) {
+        directorId = directorNames.size();
+        directorNames.add(director);
+        directorIdsByName.put(director, directorId);
+      }
+      directorIds[ordinal] = directorId;
+    }
+
+    Snapshot build() {
+      if (directorIds == null) {
+        directorIds = new int[count];
+        Arrays.fill(directorIds, -1);
+      }
+      return new Snapshot(
+        Arrays.copyOf(movieIds, count),
+        ordinals,
+        Arrays.copyOf(genreBits, count),
+        Arrays.copyOf(years, count),
+        directorIds,
+        Arrays.copyOf(upVotes, count),
+        Arrays.copyOf(downVotes, count),
+        List.copyOf(genreNames),
+        List.copyOf(directorNames),
+        genreBitsByName,
+        directorIdsByName
+      );
+    }
+
+    private int genreBit(String genre) {
+      Integer bit = genreBitsByName.get(genre);
+      if (bit != null) {
+        return bit;
+      }
+      if (genreNames.size() >= Long.SIZE) {
+        if (!genreOverflowLogged) {
+          log.warn("El catálogo tiene más de {} géneros, se ignoran los restantes", Long.SIZE);
+          genreOverflowLogged = true;
+        }
+        return -1;
+      }
+      bit = genreNames.size();
+      genreNames.add(genre);
+      genreBitsByName.put(genre, bit);
+      return bit;
+    }
+
+    private void ensureCapacity(int required) {
+      if (required <= movieIds.length) {
+        return;
+      }
+      int capacity = Math.max(required, movieIds.length + (movieIds.length >> 1));
+      movieIds = Arrays.copyOf(movieIds, capacity);
+      genreBits = Arrays.copyOf(genreBits, capacity);
+      years = Arrays.copyOf(years, capacity);
+      upVotes = Arrays.copyOf(upVotes, capacity);
+      downVotes = Arrays.copyOf(downVotes, capacity);
+    }
+  }
+}
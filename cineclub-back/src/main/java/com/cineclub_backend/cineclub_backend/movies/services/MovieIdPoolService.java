@@ -0,0 +1,64 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Elecciones al azar sobre los ordinales del índice del catálogo (MovieCatalogIndexService), así
+ * /movies/random y las recomendaciones sin votos no usan $sample ni mantienen otra copia de los
+ * ids. Cada llamada hace un Fisher–Yates parcial: N elecciones distintas cuestan O(N) y no se
+ * repiten entre llamadas como lo harían posiciones seguidas de una mezcla fija.
+ *
+ * <p>Crear o borrar una película marca el índice como desactualizado y se reconstruye en el
+ * siguiente ciclo; el refresco periódico del índice cubre los cambios hechos por otras
+ * instancias.
+ */
+@Service
+public class MovieIdPoolService {
+
+  private final MovieCatalogIndexService movieCatalogIndexService;
+
+  private volatile boolean stale;
+
+  public MovieIdPoolService(MovieCatalogIndexService movieCatalogIndexService) {
+    this.movieCatalogIndexService = movieCatalogIndexService;
+  }
+
+  /**
+   * Hasta {@code count} ids distintos elegidos al azar
+   */
+  public List<String> pick(int count) {
+    MovieCatalogIndexService.Snapshot snapshot = movieCatalogIndexService.getSnapshot();
+    int total = snapshot.size();
+    int size = Math.max(0, Math.min(count, total));
+    List<String> picked = new ArrayList<>(size);
+
+    // Solo se guardan las posiciones intercambiadas, no una copia de todos los ordinales
+    Map<Integer, Integer> swapped = new HashMap<>();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < size; i++) {
+      int j = i + random.nextInt(total - i);
+      int ordinal = swapped.getOrDefault(j, j);
+      swapped.put(j, swapped.getOrDefault(i, i));
+      picked.add(snapshot.movieId(ordinal));
+    }
+    return picked;
+  }
+
+  public void markStale() {
+    stale = true;
+  }
+
+  @Scheduled(fixedDelayString = "${movies.random-pool.stale-check-ms:5000}")
+  public void refreshIfStale() {
+    if (stale) {
+      stale = false;
+      movieCatalogIndexService.refresh();
+    }
+  }
+}
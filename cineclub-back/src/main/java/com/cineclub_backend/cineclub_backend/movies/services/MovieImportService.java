@@ -0,0 +1,763 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import com.cineclub_backend.cineclub_backend.jobs.services.JobQueueService;
+import com.cineclub_backend.cineclub_backend.movies.dtos.MovieImportDto;
+import com.cineclub_backend.cineclub_backend.movies.dtos.StartMovieImportDto;
+import com.cineclub_backend.cineclub_backend.movies.models.Director;
+import com.cineclub_backend.cineclub_backend.movies.models.Movie;
+import com.cineclub_backend.cineclub_backend.shared.helpers.CsvHelper;
+import com.cineclub_backend.cineclub_backend.shared.helpers.SerializeHelper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Importación masiva de películas desde NDJSON o CSV. El archivo se lee en streaming y se
+ * escribe por lotes con bulkWrite desordenados: upsert por external_id en movies, upsert por
+ * movie_id en directors y la copia del director en movies. La memoria queda acotada a un lote.
+ *
+ * <p>El avance se guarda en movie_imports después de cada lote: {_id, file, format, status,
+ * processed, inserted, updated, invalid, bytes_read, file_size, rows_per_second, updated_at}.
+ * Si falla o la instancia cae, se retoma salteando los registros ya procesados; repetir el
+ * último lote no duplica nada porque todo es upsert. La copia de un archivo subido se conserva
+ * mientras la importación se pueda retomar y se borra cuando termina.
+ */
+@Service
+@Slf4j
+public class MovieImportService {
+
+  public static final String RUN_JOB = "MOVIES_IMPORT";
+
+  private static final String COLLECTION = "movie_imports";
+  private static final String STATUS_PENDING = "PENDING";
+  private static final String STATUS_RUNNING = "RUNNING";
+  private static final String STATUS_FAILED = "FAILED";
+  private static final String STATUS_DONE = "DONE";
+  private static final String FORMAT_NDJSON = "NDJSON";
+  private static final String FORMAT_CSV = "CSV";
+
+  private final MongoTemplate mongoTemplate;
+  private final JobQueueService jobQueueService;
+  private final GenreService genreService;
+  private final MovieIdPoolService movieIdPoolService;
+  private final MovieVoteCounterService movieVoteCounterService;
+  private final CacheManager cacheManager;
+  private final MeterRegistry meterRegistry;
+  private final Path importDir;
+  private final int batchSize;
+  private final Duration staleAfter;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  public MovieImportService(
+    MongoTemplate mongoTemplate,
+    JobQueueService jobQueueService,
+    GenreService genreService,
+    MovieIdPoolService movieIdPoolService,
+    MovieVoteCounterService movieVoteCounterService,
+    CacheManager cacheManager,
+    MeterRegistry meterRegistry,
+    @Value("${imports.dir:${java.io.tmpdir}/cineclub-imports}") String importDir,
+    @Value("${imports.batch-size:1000}") int batchSize,
+    @Value("${imports.stale-minutes:2}") long staleMinutes
+  ) {
+    this.mongoTemplate = mongoTemplate;
+    this.jobQueueService = jobQueueService;
+    this.genreService = genreService;
+    this.movieIdPoolService = movieIdPoolService;
+    this.movieVoteCounterService = movieVoteCounterService;
+    this.cacheManager = cacheManager;
+    this.meterRegistry = meterRegistry;
+    this.importDir = Paths.get(importDir).toAbsolutePath().normalize();
+    this.batchSize = batchSize;
+    this.staleAfter = Duration.ofMinutes(staleMinutes);
+  }
+
+  /**
+   * Copia el archivo subido al directorio de importaciones (en streaming) y encola la importación;
+   * la copia se borra cuando la importación termina
+   */
+  public MovieImportDto startUpload(MultipartFile file, String format) {
+    if (file == null || file.isEmpty()) {
+      throw new IllegalArgumentException("El archivo está vacío");
+    }
+    String name = Paths.get(
+      file.getOriginalFilename() != null ? file.getOriginalFilename() : "import"
+    )
+      .getFileName()
+      .toString();
+    String resolvedFormat = resolveFormat(format, name);
+
+    Path target = importDir.resolve(UUID.randomUUID() + "-" + name);
+    try (InputStream input = file.getInputStream()) {
+      Files.createDirectories(importDir);
+      Files.copy(input, target);
+    } catch (IOException e) {
+      throw new UncheckedIOException("No se pudo guardar el archivo de importación", e);
+    }
+    return start(target, resolvedFormat, true);
+  }
+
+  /**
+   * Importa un archivo que ya está en el directorio de importaciones del servidor
+   */
+  public MovieImportDto startLocal(StartMovieImportDto dto) {
+    Path path = importDir.resolve(dto.getFile()).normalize();
+    if (!path.startsWith(importDir) || !Files.isRegularFile(path)) {
+      throw new NoSuchElementException("El archivo no existe en el directorio de importaciones");
+    }
+    return start(path, resolveFormat(dto.getFormat(), path.getFileName().toString()), false);
+  }
+
+  public MovieImportDto getImport(String id) {
+    Document state = mongoTemplate.findById(id, Document.class, COLLECTION);
+    if (state == null) {
+      throw new NoSuchElementException("La importación no existe");
+    }
+    return toDto(state);
+  }
+
+  /**
+   * Vuelve a encolar una importación fallida o interrumpida; sigue desde el último lote guardado
+   */
+  public MovieImportDto resume(String id) {
+    Document state = mongoTemplate.findById(id, Document.class, COLLECTION);
+    if (state == null) {
+      throw new NoSuchElementException("La importación no existe");
+    }
+    String status = state.getString("status");
+    if (STATUS_DONE.equals(status)) {
+      throw new IllegalArgumentException("La importación ya terminó");
+    }
+    if (STATUS_RUNNING.equals(status) && !isStale(state)) {
+      throw new IllegalArgumentException("La importación está en curso");
+    }
+    enqueue(id);
+    return toDto(state);
+  }
+
+  /**
+   * Retoma las importaciones cuya instancia dejó de reportar avance (o cuyo job se perdió)
+   */
+  @Scheduled(fixedDelayString = "${imports.resume-check-ms:60000}")
+  public void resumeStale() {
+    Query stale = new Query(
+      Criteria.where("status")
+        .in(STATUS_PENDING, STATUS_RUNNING)
+        .and("updated_at")
+        .lt(new Date(System.currentTimeMillis() - staleAfter.toMillis()))
+    );
+    stale.fields().include("_id");
+    for (Document state : mongoTemplate.find(stale, Document.class, COLLECTION)) {
+      log.warn("Retomando la importación {} sin avance reciente", state.getString("_id"));
+      enqueue(state.getString("_id"));
+    }
+  }
+
+  public void run(String id) {
+    // Libera la deduplicación para que un fallo de esta ejecución se pueda retomar enseguida
+    jobQueueService.releaseJobOnce(dedupeKey(id));
+    Document state = claim(id);
+    if (state == null) {
+      log.warn("La importación {} no existe, terminó o la procesa otra instancia", id);
+      return;
+    }
+
+    Path path = Paths.get(state.getString("file"));
+    long skip = state.get("processed", 0L);
+    Progress progress = new Progress(state);
+    long started = System.nanoTime();
+    long processedAtStart = skip;
+    log.info("Importando {} desde el registro {}", path, skip);
+
+    try (
+      CountingInputStream input = new CountingInputStream(Files.newInputStream(path));
+      RecordReader records = open(state.getString("format"), input)
+    ) {
+      long position = 0;
+      List<MovieRow> batch = new ArrayList<>(batchSize);
+      while (records.hasNext()) {
+        Map<String, Object> record = records.next();
+        position++;
+        if (position <= skip) {
+          continue;
+        }
+        MovieRow row = record != null ? MovieRow.parse(record) : null;
+        if (row == null) {
+          progress.invalid++;
+        } else {
+          batch.add(row);
+        }
+        if (batch.size() >= batchSize) {
+          writeBatch(batch, progress);
+          batch.clear();
+          progress.processed = position;
+          double rowsPerSecond = rate(progress.processed - processedAtStart, started);
+          checkpoint(id, progress, input.count, rowsPerSecond);
+        }
+      }
+      writeBatch(batch, progress);
+      progress.processed = position;
+
+      double rowsPerSecond = rate(progress.processed - processedAtStart, started);
+      checkpoint(id, progress, input.count, rowsPerSecond);
+      saveState(id, new Update().set("status", STATUS_DONE).set("finished_at", new Date()));
+      log.info(
+        "Importación {} completada: {} insertadas, {} actualizadas, {} inválidas ({} filas/s)",
+        id,
+        progress.inserted,
+        progress.updated,
+        progress.invalid,
+        Math.round(rowsPerSecond)
+      );
+    } catch (IOException | RuntimeException e) {
+      log.error("Error en la importación {}: {}", id, e.getMessage());
+      saveState(id, new Update().set("status", STATUS_FAILED).set("error", e.getMessage()));
+      return;
+    } finally {
+      // Aun con error, lo escrito hasta el último lote ya está en movies
+      movieIdPoolService.markStale();
+    }
+    if (state.getBoolean("uploaded", false)) {
+      deleteUpload(path);
+    }
+    movieVoteCounterService.requestReconcile();
+  }
+
+  /**
+   * Un archivo local no se toca: solo se borran las copias que hizo startUpload
+   */
+  private void deleteUpload(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      log.warn("No se pudo borrar el archivo importado {}: {}", path, e.getMessage());
+    }
+  }
+
+  private MovieImportDto start(Path path, String format, boolean uploaded) {
+    Date now = new Date();
+    Document state = new Document("_id", new ObjectId().toHexString())
+      .append("file", path.toString())
+      .append("format", format)
+      .append("uploaded", uploaded)
+      .append("status", STATUS_PENDING)
+      .append("file_size", sizeOf(path))
+      .append("bytes_read", 0L)
+      .append("processed", 0L)
+      .append("inserted", 0L)
+      .append("updated", 0L)
+      .append("invalid", 0L)
+      .append("created_at", now)
+      .append("updated_at", now);
+    mongoTemplate.insert(state, COLLECTION);
+    enqueue(state.getString("_id"));
+    return toDto(state);
+  }
+
+  private void enqueue(String id) {
+    Map<String, Object> job = new HashMap<>();
+    job.put("type", RUN_JOB);
+    job.put("importId", id);
+    jobQueueService.enqueueJobOnce(job, dedupeKey(id), Duration.ofMinutes(1));
+  }
+
+  private static String dedupeKey(String id) {
+    return RUN_JOB + ":" + id;
+  }
+
+  /**
+   * Marca la importación como RUNNING si nadie la está procesando; updated_at hace de latido
+   */
+  private Document claim(String id) {
+    Date now = new Date();
+    Query query = new Query(
+      new Criteria()
+        .andOperator(
+          Criteria.where("_id").is(id),
+          new Criteria()
+            .orOperator(
+              Criteria.where("status").in(STATUS_PENDING, STATUS_FAILED),
+              Criteria.where("status")
+                .is(STATUS_RUNNING)
+                .and("updated_at")
+                .lt(new Date(now.getTime() - staleAfter.toMillis()))
+            )
+        )
+    );
+    Update update = new Update()
+      .set("status", STATUS_RUNNING)
+      .set("updated_at", now)
+      .min("started_at", now)
+      .unset("error");
+    return mongoTemplate.findAndModify(
+      query,
+      update,
+      FindAndModifyOptions.options().returnNew(true),
+      Document.class,
+      COLLECTION
+    );
+  }
+
+  /**
+   * Upsert de las películas del lote, de sus directores y de la copia del director en movies.
+   * Las películas que ya existían se desalojan del cache.
+   */
+  private void writeBatch(List<MovieRow> batch, Progress progress) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    // Con un external_id repetido dentro del lote gana la última fila
+    Map<Integer, MovieRow> rows = new LinkedHashMap<>();
+    for (MovieRow row : batch) {
+      rows.put(row.externalId(), row);
+    }
+    List<Integer> externalIds = new ArrayList<>(rows.keySet());
+
+    BulkOperations movieOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class);
+    for (MovieRow row : rows.values()) {
+      movieOps.upsert(
+        new Query(Criteria.where("external_id").is(row.externalId())),
+        row.toUpdate(genreService.resolveGenreIds(row.genres()))
+      );
+    }
+    BulkWriteResult result = movieOps.execute();
+    List<Integer> insertedIds = new ArrayList<>();
+    for (BulkWriteUpsert upsert : result.getUpserts()) {
+      insertedIds.add(externalIds.get(upsert.getIndex()));
+    }
+
+    // gt(0) repite el filtro del índice único parcial para que Mongo pueda usarlo
+    Query idQuery = new Query(Criteria.where("external_id").in(externalIds).gt(0));
+    idQuery.fields().include("_id").include("external_id");
+    Map<Integer, String> movieIds = new HashMap<>();
+    for (Movie movie : mongoTemplate.find(idQuery, Movie.class)) {
+      movieIds.put(movie.getExternalId(), movie.getId());
+    }
+
+    Map<String, String> directorNames = new HashMap<>();
+    BulkOperations directorOps = mongoTemplate.bulkOps(
+      BulkOperations.BulkMode.UNORDERED,
+      Director.class
+    );
+    rows.forEach((externalId, row) -> {
+      String movieId = movieIds.get(externalId);
+      if (movieId != null && row.director() != null) {
+        directorNames.put(movieId, row.director());
+        directorOps.upsert(
+          new Query(Criteria.where("movie_id").is(movieId)),
+          new Update()
+            .set("director", row.director())
+            .set("movie_oid", ObjectId.isValid(movieId) ? new ObjectId(movieId) : null)
+        );
+      }
+    });
+
+    if (!directorNames.isEmpty()) {
+      directorOps.execute();
+
+      Query directorQuery = new Query(Criteria.where("movie_id").in(directorNames.keySet()));
+      directorQuery.fields().include("_id").include("movie_id");
+      BulkOperations syncOps = mongoTemplate.bulkOps(
+        BulkOperations.BulkMode.UNORDERED,
+        Movie.class
+      );
+      for (Director director : mongoTemplate.find(directorQuery, Director.class)) {
+        syncOps.updateOne(
+          new Query(Criteria.where("_id").is(director.getMovieId())),
+          new Update()
+            .set("director", directorNames.get(director.getMovieId()))
+            .set("director_id", director.getId())
+        );
+      }
+      syncOps.execute();
+    }
+
+    evictUpdated(externalIds, insertedIds, movieIds);
+
+    int inserted = insertedIds.size();
+    int updated = rows.size() - inserted;
+    progress.inserted += inserted;
+    progress.updated += updated;
+    meterRegistry.counter("movies.import.rows", "result", "inserted").increment(inserted);
+    meterRegistry.counter("movies.import.rows", "result", "updated").increment(updated);
+  }
+
+  private void evictUpdated(
+    List<Integer> externalIds,
+    List<Integer> insertedIds,
+    Map<Integer, String> movieIds
+  ) {
+    Cache movies = cacheManager.getCache("movies:details");
+    Cache directors = cacheManager.getCache("directors:details");
+    for (Integer externalId : externalIds) {
+      String movieId = movieIds.get(externalId);
+      if (movieId == null || insertedIds.contains(externalId)) {
+        continue;
+      }
+      if (movies != null) {
+        movies.evict(movieId);
+      }
+      if (directors != null) {
+        directors.evict(movieId);
+      }
+    }
+  }
+
+  private void checkpoint(String id, Progress progress, long bytesRead, double rowsPerSecond) {
+    meterRegistry.counter("movies.import.rows", "result", "invalid").increment(
+      progress.invalid - progress.invalidCheckpointed
+    );
+    progress.invalidCheckpointed = progress.invalid;
+    saveState(
+      id,
+      new Update()
+        .set("processed", progress.processed)
+        .set("inserted", progress.inserted)
+        .set("updated", progress.updated)
+        .set("invalid", progress.invalid)
+        .set("bytes_read", bytesRead)
+        .set("rows_per_second", rowsPerSecond)
+    );
+  }
+
+  private void saveState(String id, Update update) {
+    mongoTemplate.updateFirst(
+      new Query(Criteria.where("_id").is(id)),
+      update.set("updated_at", new Date()),
+      COLLECTION
+    );
+  }
+
+  private RecordReader open(String format, InputStream input) {
+    BufferedReader reader = new BufferedReader(
+      new InputStreamReader(input, StandardCharsets.UTF_8)
+    );
+    return FORMAT_CSV.equals(format) ? new CsvRecords(reader) : new NdjsonRecords(reader);
+  }
+
+  private boolean isStale(Document state) {
+    Date updatedAt = state.getDate("updated_at");
+    return (
+      updatedAt == null ||
+      updatedAt.getTime() < System.currentTimeMillis() - staleAfter.toMillis()
+    );
+  }
+
+  private static String resolveFormat(String format, String fileName) {
+    if (format != null && !format.isBlank()) {
+      String upper = format.trim().toUpperCase(Locale.ROOT);
+      if (!FORMAT_NDJSON.equals(upper) && !FORMAT_CSV.equals(upper)) {
+        throw new IllegalArgumentException("Formato no soportado: " + format);
+      }
+      return upper;
+    }
+    String lower = fileName.toLowerCase(Locale.ROOT);
+    if (lower.endsWith(".csv")) {
+      return FORMAT_CSV;
+    }
+    if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl") || lower.endsWith(".json")) {
+      return FORMAT_NDJSON;
+    }
+    throw new IllegalArgumentException("No se pudo deducir el formato; indique NDJSON o CSV");
+  }
+
+  private static long sizeOf(Path path) {
+    try {
+      return Files.size(path);
+    } catch (IOException e) {
+      return 0L;
+    }
+  }
+
+  private static double rate(long rows, long startedNanos) {
+    double seconds = (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+    return seconds > 0 ? rows / seconds : 0;
+  }
+
+  private static MovieImportDto toDto(Document state) {
+    MovieImportDto dto = new MovieImportDto();
+    dto.setId(state.getString("_id"));
+    dto.setFile(Paths.get(state.getString("file")).getFileName().toString());
+    dto.setFormat(state.getString("format"));
+    dto.setStatus(state.getString("status"));
+    dto.setFileSize(state.get("file_size", 0L));
+    dto.setBytesRead(state.get("bytes_read", 0L));
+    dto.setProcessed(state.get("processed", 0L));
+    dto.setInserted(state.get("inserted", 0L));
+    dto.setUpdated(state.get("updated", 0L));
+    dto.setInvalid(state.get("invalid", 0L));
+    dto.setRowsPerSecond(state.get("rows_per_second", 0.0));
+    dto.setError(state.getString("error"));
+    dto.setStartedAt(state.getDate("started_at"));
+    dto.setUpdatedAt(state.getDate("updated_at"));
+    dto.setFinishedAt(state.getDate("finished_at"));
+    return dto;
+  }
+
+  /**
+   * Contadores acumulados de la importación, incluidos los de ejecuciones anteriores
+   */
+  private static final class Progress {
+
+    private long processed;
+    private long inserted;
+    private long updated;
+    private long invalid;
+    private long invalidCheckpointed;
+
+    private Progress(Document state) {
+      processed = state.get("processed", 0L);
+      inserted = state.get("inserted", 0L);
+      updated = state.get("updated", 0L);
+      invalid = state.get("invalid", 0L);
+      invalidCheckpointed = invalid;
+    }
+  }
+
+  /**
+   * Fila normalizada. Acepta los nombres de columna de movies (snake_case), los del DTO
+   * (camelCase) y el "id" de TMDB como external_id.
+   */
+  private record MovieRow(
+    int externalId,
+    String title,
+    String overview,
+    String genres,
+    Date releaseDate,
+    String posterPath,
+    int runtime,
+    String originalLanguage,
+    String director
+  ) {
+    /**
+     * @return null si falta el external_id o el título
+     */
+    static MovieRow parse(Map<String, Object> record) {
+      int externalId = number(record, "external_id", "externalId", "id");
+      String title = text(record, "title");
+      if (externalId <= 0 || title == null) {
+        return null;
+      }
+      Object genres = value(record, "genres");
+      return new MovieRow(
+        externalId,
+        title,
+        text(record, "overview"),
+        genres == null
+          ? "Uncategorized"
+          : genres instanceof String text ? text : SerializeHelper.toJson(genres),
+        date(value(record, "release_date", "releaseDate")),
+        text(record, "poster_path", "posterPath"),
+        number(record, "runtime"),
+        text(record, "original_language", "originalLanguage"),
+        text(record, "director")
+      );
+    }
+
+    Update toUpdate(List<Integer> genreIds) {
+      return new Update()
+        .set("title", title)
+        .set("overview", overview)
+        .set("genres", genres)
+        .set("genre_ids", genreIds)
+        .set("release_date", releaseDate)
+        .set("poster_path", posterPath)
+        .set("runtime", runtime)
+        .set("original_language", originalLanguage)
+        .setOnInsert("up_votes", 0)
+        .setOnInsert("down_votes", 0);
+    }
+
+    private static Object value(Map<String, Object> record, String... keys) {
+      for (String key : keys) {
+        Object value = record.get(key);
+        if (value != null && !(value instanceof String text && text.isBlank())) {
+          return value;
+        }
+      }
+      return null;
+    }
+
+    private static String text(Map<String, Object> record, String... keys) {
+      Object value = value(record, keys);
+      return value != null ? value.toString().trim() : null;
+    }
+
+    private static int number(Map<String, Object> record, String... keys) {
+      Object value = value(record, keys);
+      if (value instanceof Number number) {
+        return number.intValue();
+      }
+      try {
+        return value != null ? (int) Double.parseDouble(value.toString().trim()) : 0;
+      } catch (NumberFormatException e) {
+        return 0;
+      }
+    }
+
+    private static Date date(Object value) {
+      if (value instanceof Number number) {
+        return new Date(number.longValue());
+      }
+      if (value == null || value.toString().length() < 10) {
+        return null;
+      }
+      try {
+        LocalDate date = LocalDate.parse(value.toString().substring(0, 10));
+        return Date.from(date.atStartOfDay(ZoneOffset.UTC).toInstant());
+      } catch (RuntimeException e) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Registros del archivo en orden; null representa un registro ilegible, que cuenta como
+   * inválido pero conserva la posición para poder retomar
+   */
+  private interface RecordReader extends Iterator<Map<String, Object>>, Closeable {}
+
+  private final class NdjsonRecords implements RecordReader {
+
+    private final BufferedReader reader;
+    private String line;
+
+    private NdjsonRecords(BufferedReader reader) {
+      this.reader = reader;
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return line != null;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+      if (line == null) {
+        throw new NoSuchElementException();
+      }
+      String current = line;
+      advance();
+      try {
+        return objectMapper.readValue(current, new TypeReference<Map<String, Object>>() {});
+      } catch (IOException e) {
+        return null;
+      }
+    }
+
+    private void advance() {
+      try {
+        do {
+          line = reader.readLine();
+        } while (line != null && line.isBlank());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  private static final class CsvRecords implements RecordReader {
+
+    private final CsvHelper.Rows rows;
+
+    private CsvRecords(BufferedReader reader) {
+      this.rows = CsvHelper.read(reader);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return rows.hasNext();
+    }
+
+    @Override
+    public Map<String, Object> next() {
+      return new LinkedHashMap<>(rows.next());
+    }
+
+    @Override
+    public void close() throws IOException {
+      rows.close();
+    }
+  }
+
+  private static final class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    private CountingInputStream(InputStream input) {
+      super(input);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int value = super.read();
+      if (value != -1) {
+        count++;
+      }
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, length);
+      if (read > 0) {
+        count += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+  }
+}
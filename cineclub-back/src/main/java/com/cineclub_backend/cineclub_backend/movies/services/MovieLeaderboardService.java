@@ -0,0 +1,93 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Service;
+
+/**
+ * Ranking de películas por puntaje neto (up_votes - down_votes) en un sorted set de Redis. Los
+ * votos lo actualizan con ZINCRBY desde MovieVoteCounterService y la reconciliación de contadores
+ * lo reconstruye desde movie_votes, así /movies/top lee el top N sin ordenar la colección.
+ */
+@Service
+@Slf4j
+public class MovieLeaderboardService {
+
+  public static final String KEY = "movies:leaderboard";
+
+  private static final String BUILDING_KEY = KEY + ":building";
+
+  private final RedisTemplate<String, String> redisTemplate;
+
+  public MovieLeaderboardService(RedisTemplate<String, String> redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  /**
+   * Las {@code limit} películas con mayor puntaje, de mayor a menor; vacío si el ranking todavía
+   * no se construyó
+   */
+  public List<TypedTuple<String>> top(int limit) {
+    Set<TypedTuple<String>> top = redisTemplate
+      .opsForZSet()
+      .reverseRangeWithScores(KEY, 0, limit - 1);
+    return top != null ? new ArrayList<>(top) : List.of();
+  }
+
+  /**
+   * Agrega una película nueva con puntaje 0 sin pisar uno existente
+   */
+  public void add(String movieId) {
+    try {
+      redisTemplate.opsForZSet().addIfAbsent(KEY, movieId, 0);
+    } catch (Exception e) {
+      log.error("Error agregando la película al ranking: {}", e.getMessage());
+    }
+  }
+
+  public void remove(String movieId) {
+    try {
+      redisTemplate.opsForZSet().remove(KEY, movieId);
+    } catch (Exception e) {
+      log.error("Error quitando la película del ranking: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Reemplaza el ranking completo; se arma en una clave aparte y se renombra para que las
+   * lecturas nunca vean un ranking a medias
+   */
+  public void replaceAll(Map<String, Integer> scores) {
+    Set<TypedTuple<String>> tuples = new HashSet<>();
+    scores.forEach((movieId, score) ->
+      tuples.add(new DefaultTypedTuple<>(movieId, (double) score))
+    );
+
+    redisTemplate.executePipelined(
+      new SessionCallback<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object execute(RedisOperations<K, V> operations) {
+          RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+          ops.delete(BUILDING_KEY);
+          if (tuples.isEmpty()) {
+            ops.delete(KEY);
+          } else {
+            ops.opsForZSet().add(BUILDING_KEY, tuples);
+            ops.rename(BUILDING_KEY, KEY);
+          }
+          return null;
+        }
+      }
+    );
+  }
+}
@@ -2,146 +2,311 @@
 package com.cineclub_backend.cineclub_backend.movies.services;
 
 import com.cineclub_backend.cineclub_backend.movies.dtos.MovieDto;
-import com.cineclub_backend.cineclub_backend.movies.models.MovieVote;
-import java.text.SimpleDateFormat;
+import com.cineclub_backend.cineclub_backend.movies.helpers.MovieDocumentHelper;
+import com.cineclub_backend.cineclub_backend.movies.models.UserTasteProfile;
+import com.cineclub_backend.cineclub_backend.movies.services.MovieCatalogIndexService.Snapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import org.bson.Document;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
+@Slf4j
 public class MovieRecommendationService {
 
-  private final MongoTemplate mongoTemplate;
+  private final MovieCatalogIndexService catalogIndexService;
+  private final UserTasteProfileService userTasteProfileService;
+  private final MovieSimilarityService movieSimilarityService;
+  private final CollaborativeFilteringService collaborativeFilteringService;
+  private final VotedMoviesFilterService votedMoviesFilterService;
+  private final FriendsTasteService friendsTasteService;
+  private final MovieIdPoolService movieIdPoolService;
+  private final CrudMovieService crudMovieService;
+  private final ExecutorService recommendationExecutor;
+  private final MeterRegistry meterRegistry;
+  private final long strategyTimeoutMs;
 
   private static final int TOTAL_RECOMMENDATIONS = 20;
-  private static final int QUOTA_GENRE = 10;
-  private static final int QUOTA_DIRECTOR = 5;
-  private static final int QUOTA_TEMPORAL = 5;
-  private static final int QUOTA_SERENDIPITY = 5;
+  // Las cuotas suman 25, como antes de agregar las estrategias colaborativa y de amigos
+  private static final int QUOTA_GENRE = 5;
+  private static final int QUOTA_DIRECTOR = 4;
+  private static final int QUOTA_SIMILAR = 4;
+  private static final int QUOTA_COLLABORATIVE = 3;
+  private static final int QUOTA_SOCIAL = 3;
+  private static final int QUOTA_TEMPORAL = 3;
+  private static final int QUOTA_SERENDIPITY = 3;
+
+  private static final int SAMPLE_GENRE = 300;
+  private static final int SAMPLE_TEMPORAL = 300;
+  private static final int SAMPLE_SERENDIPITY = 200;
+
+  private static final List<ScoredMovie> TIMED_OUT = Collections.unmodifiableList(
+    new ArrayList<>()
+  );
+
+  public MovieRecommendationService(
+    MovieCatalogIndexService catalogIndexService,
+    UserTasteProfileService userTasteProfileService,
+    MovieSimilarityService movieSimilarityService,
+    CollaborativeFilteringService collaborativeFilteringService,
+    VotedMoviesFilterService votedMoviesFilterService,
+    FriendsTasteService friendsTasteService,
+    MovieIdPoolService movieIdPoolService,
+    CrudMovieService crudMovieService,
+    @Qualifier("recommendationExecutor") ExecutorService recommendationExecutor,
+    MeterRegistry meterRegistry,
+    @Value("${recommendations.strategy-timeout-ms:300}") long strategyTimeoutMs
+  ) {
+    this.catalogIndexService = catalogIndexService;
+    this.userTasteProfileService = userTasteProfileService;
+    this.movieSimilarityService = movieSimilarityService;
+    this.collaborativeFilteringService = collaborativeFilteringService;
+    this.votedMoviesFilterService = votedMoviesFilterService;
+    this.friendsTasteService = friendsTasteService;
+    this.movieIdPoolService = movieIdPoolService;
+    this.crudMovieService = crudMovieService;
+    this.recommendationExecutor = recommendationExecutor;
+    this.meterRegistry = meterRegistry;
+    this.strategyTimeoutMs = strategyTimeoutMs;
+  }
 
-  public MovieRecommendationService(MongoTemplate mongoTemplate) {
-    this.mongoTemplate = mongoTemplate;
+  /**
+   * Instancia solo para el scoring de las estrategias (benchmarks): recibe el catálogo por
+   * parámetro y no toca Mongo, Redis ni los demás servicios
+   */
+  static MovieRecommendationService forScoring(
+    ExecutorService recommendationExecutor,
+    long strategyTimeoutMs
+  ) {
+    return new MovieRecommendationService(
+      null,
+      null,
+      null,
+      null,
+      null,
+      null,
+      null,
+      null,
+      recommendationExecutor,
+      new SimpleMeterRegistry(),
+      strategyTimeoutMs
+    );
   }
 
   public List<MovieDto> run(String userId) {
-    UserProfile profile = buildUserProfile(userId);
+    List<List<MovieDto>> batches = runBatches(userId, 1);
+    return batches.isEmpty() ? new ArrayList<>() : batches.get(0);
+  }
+
+  /**
+   * Genera varias tandas de recomendaciones sin repetir películas entre ellas. El perfil se
+   * construye una sola vez y cada tanda excluye lo seleccionado en las anteriores.
+   */
+  public List<List<MovieDto>> runBatches(String userId, int batches) {
+    Snapshot catalog = catalogIndexService.getSnapshot();
+    UserProfile profile = buildUserProfile(userId, catalog);
+    List<List<MovieDto>> result = new ArrayList<>();
 
     if (profile.votedMovieIds.isEmpty()) {
-      return getRandomRecommendations(25);
+      for (int i = 0; i < batches; i++) {
+        result.add(getRandomRecommendations(25));
+      }
+      return result;
     }
 
-    List<MovieDto> directorCandidates = getDirectorRecommendations(profile, 50);
-    List<MovieDto> genreCandidates = getGenreRecommendations(profile, 100);
-    List<MovieDto> temporalCandidates = getTemporalDiscovery(profile, 50);
-    List<MovieDto> serendipityCandidates = getSerendipityRecommendations(profile, 50);
+    for (int i = 0; i < batches; i++) {
+      List<ScoredMovie> selected = selectCandidates(profile, catalog);
+      if (selected.isEmpty()) {
+        break;
+      }
 
-    List<MovieDto> finalSelection = selectWithGuaranteedQuotas(
-      directorCandidates,
-      genreCandidates,
-      temporalCandidates,
-      serendipityCandidates
-    );
+      // Copia nueva: estrategias que vencieron su plazo pueden seguir leyendo la anterior
+      BitSet excluded = (BitSet) profile.votedOrdinals.clone();
+      selected.forEach(movie -> excluded.set(movie.ordinal));
+      profile.votedOrdinals = excluded;
 
-    Collections.shuffle(finalSelection);
+      List<MovieDto> finalSelection = hydrate(selected, catalog);
 
-    printRecommendationsSummary(finalSelection);
+      Collections.shuffle(finalSelection);
 
-    return finalSelection;
-  }
+      printRecommendationsSummary(finalSelection);
 
-  private List<MovieDto> selectWithGuaranteedQuotas(
-    List<MovieDto> directorCandidates,
-    List<MovieDto> genreCandidates,
-    List<MovieDto> temporalCandidates,
-    List<MovieDto> serendipityCandidates
-  ) {
-    List<MovieDto> selected = new ArrayList<>();
-    Set<String> selectedIds = new HashSet<>();
+      result.add(finalSelection);
+    }
 
-    int fromDirector = selectFromList(
-      directorCandidates,
-      QUOTA_DIRECTOR,
-      selected,
-      selectedIds,
-      "Director"
+    return result;
+  }
+
+  private List<ScoredMovie> selectCandidates(UserProfile profile, Snapshot catalog) {
+    CompletableFuture<List<ScoredMovie>> directorCandidates = runStrategy("director", () ->
+      getDirectorRecommendations(profile, catalog, 50)
     );
-    int fromTemporal = selectFromList(
-      temporalCandidates,
-      QUOTA_TEMPORAL,
-      selected,
-      selectedIds,
-      "Temporal"
+    CompletableFuture<List<ScoredMovie>> similarCandidates = runStrategy("similar", () ->
+      getSimilarRecommendations(profile, catalog, 50)
     );
-    int fromSerendipity = selectFromList(
-      serendipityCandidates,
-      QUOTA_SERENDIPITY,
-      selected,
-      selectedIds,
-      "Serendipity"
+    CompletableFuture<List<ScoredMovie>> collaborativeCandidates = runStrategy(
+      "collaborative",
+      () -> getCollaborativeRecommendations(profile, catalog, 50)
+    );
+    CompletableFuture<List<ScoredMovie>> socialCandidates = runStrategy("social", () ->
+      getSocialRecommendations(profile, catalog, 50)
+    );
+    CompletableFuture<List<ScoredMovie>> genreCandidates = runStrategy("genre", () ->
+      getGenreRecommendations(profile, catalog, 100)
+    );
+    CompletableFuture<List<ScoredMovie>> temporalCandidates = runStrategy("temporal", () ->
+      getTemporalDiscovery(profile, catalog, 50)
+    );
+    CompletableFuture<List<ScoredMovie>> serendipityCandidates = runStrategy("serendipity", () ->
+      getSerendipityRecommendations(profile, catalog, 50)
     );
 
-    int deficit =
-      QUOTA_DIRECTOR -
-      fromDirector +
-      QUOTA_TEMPORAL -
-      fromTemporal +
-      QUOTA_SERENDIPITY -
-      fromSerendipity;
+    return selectWithGuaranteedQuotas(
+      List.of(
+        new StrategyCandidates("Director", QUOTA_DIRECTOR, directorCandidates.join()),
+        new StrategyCandidates("Similar", QUOTA_SIMILAR, similarCandidates.join()),
+        new StrategyCandidates(
+          "Colaborativo",
+          QUOTA_COLLABORATIVE,
+          collaborativeCandidates.join()
+        ),
+        new StrategyCandidates("Amigos", QUOTA_SOCIAL, socialCandidates.join()),
+        new StrategyCandidates("Temporal", QUOTA_TEMPORAL, temporalCandidates.join()),
+        new StrategyCandidates("Serendipity", QUOTA_SERENDIPITY, serendipityCandidates.join())
+      ),
+      new StrategyCandidates("Género", QUOTA_GENRE, genreCandidates.join())
+    );
+  }
+
+  /**
+   * Ejecuta una estrategia en el pool de recomendaciones con un plazo máximo. Si no termina a
+   * tiempo, falla o el pool la rechaza, la estrategia no aporta candidatos y su cuota se reparte
+   * en la selección. El tiempo real de cada estrategia se registra en
+   * recommendations.strategy.duration aunque haya vencido el plazo.
+   */
+  private CompletableFuture<List<ScoredMovie>> runStrategy(
+    String name,
+    Supplier<List<ScoredMovie>> strategy
+  ) {
+    Timer timer = Timer.builder("recommendations.strategy.duration")
+      .tag("strategy", name)
+      .publishPercentiles(0.5, 0.95, 0.99)
+      .register(meterRegistry);
+
+    try {
+      return CompletableFuture.supplyAsync(() -> timer.record(strategy), recommendationExecutor)
+        .completeOnTimeout(TIMED_OUT, strategyTimeoutMs, TimeUnit.MILLISECONDS)
+        .handle((candidates, error) -> {
+          if (error != null) {
+            log.error("Error en la estrategia {}: {}", name, error.getMessage());
+            countMissedStrategy(name, "error");
+            return List.of();
+          }
+          if (candidates == TIMED_OUT) {
+            log.warn("La estrategia {} superó el plazo de {} ms", name, strategyTimeoutMs);
+            countMissedStrategy(name, "timeout");
+            return List.of();
+          }
+          return candidates;
+        });
+    } catch (RejectedExecutionException e) {
+      log.warn("Pool de recomendaciones saturado, se omite la estrategia {}", name);
+      countMissedStrategy(name, "rejected");
+      return CompletableFuture.completedFuture(List.of());
+    }
+  }
 
-    int genreQuota = QUOTA_GENRE + deficit;
-    int fromGenre = selectFromList(genreCandidates, genreQuota, selected, selectedIds, "Género");
+  private void countMissedStrategy(String name, String reason) {
+    meterRegistry.counter("recommendations.strategy.missed", "strategy", name, "reason", reason)
+      .increment();
+  }
+
+  /**
+   * Cada estrategia toma hasta su cuota en orden; lo que no alcanzan a cubrir pasa a la cuota de
+   * géneros y, si aún faltan películas, se completa con los candidatos restantes de todas.
+   */
+  private List<ScoredMovie> selectWithGuaranteedQuotas(
+    List<StrategyCandidates> strategies,
+    StrategyCandidates genreStrategy
+  ) {
+    List<ScoredMovie> selected = new ArrayList<>();
+    Set<Integer> selectedOrdinals = new HashSet<>();
+
+    int deficit = 0;
+    for (StrategyCandidates strategy : strategies) {
+      int added = selectFromList(
+        strategy.candidates(),
+        strategy.quota(),
+        selected,
+        selectedOrdinals,
+        strategy.name()
+      );
+      deficit += strategy.quota() - added;
+    }
+
+    int genreQuota = genreStrategy.quota() + deficit;
+    selectFromList(
+      genreStrategy.candidates(),
+      genreQuota,
+      selected,
+      selectedOrdinals,
+      genreStrategy.name()
+    );
 
     if (selected.size() < TOTAL_RECOMMENDATIONS) {
       int remaining = TOTAL_RECOMMENDATIONS - selected.size();
-      List<MovieDto> allRemaining = new ArrayList<>();
-      allRemaining.addAll(directorCandidates);
-      allRemaining.addAll(genreCandidates);
-      allRemaining.addAll(temporalCandidates);
-      allRemaining.addAll(serendipityCandidates);
+      List<ScoredMovie> allRemaining = new ArrayList<>();
+      strategies.forEach(strategy -> allRemaining.addAll(strategy.candidates()));
+      allRemaining.addAll(genreStrategy.candidates());
 
-      selectFromList(allRemaining, remaining, selected, selectedIds, "Mixto");
+      selectFromList(allRemaining, remaining, selected, selectedOrdinals, "Mixto");
     }
 
     return selected;
   }
 
-  private boolean passesQualityFilter(Document doc) {
+  private boolean passesQualityFilter(Snapshot catalog, int ordinal) {
     // Por ahora sin filtro de calidad (MIN_VOTES_THRESHOLD = 0)
     // Cambiar a >= 10 cuando haya suficientes votos en producción
     return true;
   }
 
   private int selectFromList(
-    List<MovieDto> candidates,
+    List<ScoredMovie> candidates,
     int quota,
-    List<MovieDto> target,
-    Set<String> selectedIds,
+    List<ScoredMovie> target,
+    Set<Integer> selectedOrdinals,
     String strategyName
   ) {
     int added = 0;
-    for (MovieDto movie : candidates) {
+    for (ScoredMovie movie : candidates) {
       if (added >= quota) {
         break;
       }
 
-      if (movie.getId() != null && !selectedIds.contains(movie.getId())) {
+      if (selectedOrdinals.add(movie.ordinal)) {
         target.add(movie);
-        selectedIds.add(movie.getId());
         added++;
       }
     }
@@ -149,250 +314,247 @@ public class MovieRecommendationService {
     return added;
   }
 
-  private UserProfile buildUserProfile(String userId) {
+  /**
+   * Traduce el perfil de gustos persistido (por nombre) a los bits e ids del snapshot actual
+   */
+  private UserProfile buildUserProfile(String userId, Snapshot catalog) {
     UserProfile profile = new UserProfile();
+    profile.userId = userId;
+    UserTasteProfile taste = userTasteProfileService.getProfile(userId);
 
-    Query voteQuery = new Query();
-    voteQuery.addCriteria(Criteria.where("user_id").is(userId).and("type").is("UP"));
-    List<MovieVote> upVotes = mongoTemplate.find(voteQuery, MovieVote.class, "movie_votes");
-
-    profile.votedMovieIds = upVotes.stream().map(MovieVote::getMovieId).collect(Collectors.toSet());
+    profile.votedMovieIds = taste.getLikedMovieIds();
 
     if (profile.votedMovieIds.isEmpty()) {
       return profile;
     }
 
-    Query movieQuery = new Query(Criteria.where("_id").in(profile.votedMovieIds));
-    List<Document> votedMovies = mongoTemplate.find(movieQuery, Document.class, "movies");
-
-    Map<String, Integer> genreCounts = new HashMap<>();
-    Map<Integer, Integer> yearCounts = new HashMap<>();
-    Map<Integer, Integer> decadeCounts = new HashMap<>();
-
-    for (Document movie : votedMovies) {
-      extractGenres(movie.get("genres"), genreCounts);
-
-      Integer year = extractYear(movie.get("release_date"));
-      if (year != null) {
-        yearCounts.put(year, yearCounts.getOrDefault(year, 0) + 1);
-        int decade = (year / 10) * 10;
-        decadeCounts.put(decade, decadeCounts.getOrDefault(decade, 0) + 1);
+    // Se excluye todo lo votado (UP o DOWN) según el filtro de Bloom; los UP se marcan también
+    // desde el perfil por si el filtro todavía no refleja un voto reciente
+    profile.votedOrdinals = votedMoviesFilterService.excludedOrdinals(userId, catalog);
+    for (String movieId : profile.votedMovieIds) {
+      int ordinal = catalog.ordinalOf(movieId);
+      if (ordinal >= 0) {
+        profile.votedOrdinals.set(ordinal);
       }
     }
 
-    Map<String, Integer> directorCounts = new HashMap<>();
-    Query directorQuery = new Query(Criteria.where("movie_id").in(profile.votedMovieIds));
-    List<Document> directorDocs = mongoTemplate.find(directorQuery, Document.class, "directors");
-
-    for (Document doc : directorDocs) {
-      String director = doc.getString("director");
-      if (director != null && !director.trim().isEmpty()) {
-        directorCounts.put(director, directorCounts.getOrDefault(director, 0) + 1);
+    int[] genreCounts = new int[Long.SIZE];
+    taste
+      .getGenreCounts()
+      .forEach((genre, count) -> {
+        int bit = catalog.genreBitOf(genre);
+        if (bit >= 0) {
+          genreCounts[bit] = count;
+        }
+      });
+
+    Map<Integer, Integer> directorCounts = new HashMap<>();
+    taste
+      .getDirectorCounts()
+      .forEach((director, count) -> {
+        int directorId = catalog.directorIdOf(director);
+        if (directorId >= 0) {
+          directorCounts.put(directorId, count);
+        }
+      });
+
+    List<Integer> topGenres = topGenreBits(genreCounts, 5);
+    for (int i = 0; i < topGenres.size(); i++) {
+      long bit = 1L << topGenres.get(i);
+      profile.topGenresMask |= bit;
+      if (i < 3) {
+        profile.mainGenresMask |= bit;
       }
     }
-
-    profile.topGenres = getTopKeys(genreCounts, 5);
-    profile.topDirectors = getTopKeys(directorCounts, 10);
-    profile.favoriteYears = getTopKeys(yearCounts, 10);
-    profile.favoriteDecades = getTopKeys(decadeCounts, 3);
+    profile.topDirectors = new HashSet<>(getTopKeys(directorCounts, 10));
+    profile.favoriteDecades = new HashSet<>(getTopKeys(taste.getDecadeCounts(), 3));
     profile.genreCounts = genreCounts;
     profile.directorCounts = directorCounts;
 
     return profile;
   }
 
-  private List<MovieDto> getDirectorRecommendations(UserProfile profile, int quota) {
+  List<ScoredMovie> getDirectorRecommendations(
+    UserProfile profile,
+    Snapshot catalog,
+    int quota
+  ) {
     if (profile.topDirectors.isEmpty()) {
       return new ArrayList<>();
     }
 
-    Query dirQuery = new Query();
-    dirQuery.addCriteria(
-      Criteria.where("director").in(profile.topDirectors).and("movie_id").nin(profile.votedMovieIds)
-    );
-    dirQuery.limit(100);
-
-    List<Document> directorDocs = mongoTemplate.find(dirQuery, Document.class, "directors");
-
-    if (directorDocs.isEmpty()) {
-      return new ArrayList<>();
-    }
-
-    List<String> movieIds = directorDocs
-      .stream()
-      .map(d -> d.getString("movie_id"))
-      .filter(Objects::nonNull)
-      .collect(Collectors.toList());
+    List<ScoredMovie> scored = new ArrayList<>();
 
-    List<org.bson.types.ObjectId> objectIds = new ArrayList<>();
-    for (String id : movieIds) {
-      try {
-        objectIds.add(new org.bson.types.ObjectId(id));
-      } catch (Exception e) {
-        System.out.println("No se pudo convertir ID: " + id);
+    for (int ordinal = 0; ordinal < catalog.size(); ordinal++) {
+      int directorId = catalog.directorId(ordinal);
+      if (
+        directorId < 0 ||
+        !profile.topDirectors.contains(directorId) ||
+        profile.votedOrdinals.get(ordinal)
+      ) {
+        continue;
       }
-    }
 
-    Query movieQuery = new Query(Criteria.where("_id").in(objectIds));
-    List<Document> candidates = mongoTemplate.find(movieQuery, Document.class, "movies");
-
-    if (candidates.isEmpty() && !movieIds.isEmpty()) {
-      movieQuery = new Query(Criteria.where("_id").in(movieIds));
-      candidates = mongoTemplate.find(movieQuery, Document.class, "movies");
+      if (passesQualityFilter(catalog, ordinal)) {
+        double score = profile.directorCounts.getOrDefault(directorId, 0) * 10.0;
+        score += Math.log(1 + catalog.upVotes(ordinal)) * 2;
+        scored.add(new ScoredMovie(ordinal, score));
+      }
     }
 
-    Map<String, String> movieToDirector = new HashMap<>();
-    for (Document dirDoc : directorDocs) {
-      movieToDirector.put(dirDoc.getString("movie_id"), dirDoc.getString("director"));
-    }
+    return topScored(scored, quota);
+  }
 
-    if (candidates.isEmpty()) {
+  /**
+   * "Porque te gustó X": suma la similitud de los vecinos de cada película votada UP
+   */
+  List<ScoredMovie> getSimilarRecommendations(
+    UserProfile profile,
+    Snapshot catalog,
+    int limit
+  ) {
+    MovieSimilarityService.Index similarity = movieSimilarityService.getIndex();
+    if (similarity.isEmpty()) {
       return new ArrayList<>();
     }
 
-    if (!candidates.isEmpty()) {
-      Document first = candidates.get(0);
+    Map<Integer, Double> scores = new HashMap<>();
+    for (String likedMovieId : profile.votedMovieIds) {
+      similarity.forEachNeighbor(likedMovieId, (neighborId, score) -> {
+        int ordinal = catalog.ordinalOf(neighborId);
+        if (ordinal >= 0 && !profile.votedOrdinals.get(ordinal)) {
+          scores.merge(ordinal, (double) score, Double::sum);
+        }
+      });
     }
 
     List<ScoredMovie> scored = new ArrayList<>();
-    int filtered = 0;
-    int withoutDirector = 0;
-
-    for (Document doc : candidates) {
-      String movieId = getMovieId(doc);
-      String director = movieToDirector.get(movieId);
-
-      if (director == null) {
-        withoutDirector++;
-        continue;
+    scores.forEach((ordinal, score) -> {
+      if (passesQualityFilter(catalog, ordinal)) {
+        scored.add(new ScoredMovie(ordinal, score));
       }
+    });
 
-      boolean passes = passesQualityFilter(doc);
-
-      if (passes) {
-        double score = profile.directorCounts.getOrDefault(director, 0) * 10.0;
-        score += Math.log(1 + getInt(doc, "up_votes")) * 2;
-        scored.add(new ScoredMovie(doc, score, director));
-      } else {
-        filtered++;
-      }
-    }
+    return topScored(scored, limit);
+  }
 
-    scored.sort((a, b) -> Double.compare(b.score, a.score));
+  /**
+   * Películas que les gustaron a los amigos, ponderadas por amigos en común. Los puntajes vienen
+   * precalculados de Redis; solo se recalculan cuando vence el cache o cambia una amistad.
+   */
+  List<ScoredMovie> getSocialRecommendations(UserProfile profile, Snapshot catalog, int limit) {
+    List<ScoredMovie> scored = new ArrayList<>();
+    friendsTasteService
+      .getScores(profile.userId)
+      .forEach((movieId, score) -> {
+        int ordinal = catalog.ordinalOf(movieId);
+        if (
+          ordinal >= 0 &&
+          !profile.votedOrdinals.get(ordinal) &&
+          passesQualityFilter(catalog, ordinal)
+        ) {
+          scored.add(new ScoredMovie(ordinal, score));
+        }
+      });
 
-    List<MovieDto> result = scored
-      .stream()
-      .limit(quota)
-      .map(sm -> {
-        MovieDto dto = convertToDto(sm.document);
-        dto.setDirector(sm.director);
-        return dto;
-      })
-      .collect(Collectors.toList());
-    return result;
+    return topScored(scored, limit);
   }
 
-  private List<MovieDto> getGenreRecommendations(UserProfile profile, int limit) {
-    if (profile.topGenres.isEmpty()) {
+  /**
+   * Top-K por producto punto entre los factores ALS del usuario y los de cada película
+   */
+  List<ScoredMovie> getCollaborativeRecommendations(
+    UserProfile profile,
+    Snapshot catalog,
+    int limit
+  ) {
+    CollaborativeFilteringService.Model model = collaborativeFilteringService.getModel();
+    if (!model.hasUser(profile.userId)) {
       return new ArrayList<>();
     }
 
-    List<String> mainGenres = profile.topGenres.stream().limit(3).collect(Collectors.toList());
-    String regexPattern = String.join("|", mainGenres);
-    List<Document> pipeline = new ArrayList<>();
-    Document matchStage = new Document(
-      "$match",
-      new Document()
-        .append("genres", new Document("$regex", regexPattern).append("$options", "i"))
-        .append("_id", new Document("$nin", new ArrayList<>(profile.votedMovieIds)))
+    PriorityQueue<ScoredMovie> top = new PriorityQueue<>(
+      limit + 1,
+      (a, b) -> Double.compare(a.score, b.score)
     );
-    pipeline.add(matchStage);
+    model.forEachScore(profile.userId, (movieId, score) -> {
+      if (top.size() == limit && score <= top.peek().score) {
+        return;
+      }
+      int ordinal = catalog.ordinalOf(movieId);
+      if (
+        ordinal < 0 || profile.votedOrdinals.get(ordinal) || !passesQualityFilter(catalog, ordinal)
+      ) {
+        return;
+      }
+      top.add(new ScoredMovie(ordinal, score));
+      if (top.size() > limit) {
+        top.poll();
+      }
+    });
 
-    Document sampleStage = new Document("$sample", new Document("size", 300));
-    pipeline.add(sampleStage);
+    return topScored(new ArrayList<>(top), limit);
+  }
 
-    List<Document> candidates = mongoTemplate
-      .getCollection("movies")
-      .aggregate(pipeline)
-      .into(new ArrayList<>());
+  List<ScoredMovie> getGenreRecommendations(
+    UserProfile profile,
+    Snapshot catalog,
+    int limit
+  ) {
+    if (profile.mainGenresMask == 0) {
+      return new ArrayList<>();
+    }
 
-    Map<String, String> directors = getDirectorsForMovies(candidates);
+    int[] candidates = sampleOrdinals(catalog, profile, profile.mainGenresMask, SAMPLE_GENRE);
     List<ScoredMovie> scored = new ArrayList<>();
 
-    for (Document doc : candidates) {
-      if (!passesQualityFilter(doc)) {
+    for (int ordinal : candidates) {
+      if (!passesQualityFilter(catalog, ordinal)) {
         continue;
       }
 
       double score = 0;
 
-      Set<String> movieGenres = extractGenresFromString(doc.get("genres"));
-      for (String genre : movieGenres) {
-        score += profile.genreCounts.getOrDefault(genre, 0) * 3.0;
+      long bits = catalog.genreBits(ordinal);
+      while (bits != 0) {
+        score += profile.genreCounts[Long.numberOfTrailingZeros(bits)] * 3.0;
+        bits &= bits - 1;
       }
 
-      score += Math.log(1 + getInt(doc, "up_votes") + 1) * 2;
+      score += Math.log(1 + catalog.upVotes(ordinal) + 1) * 2;
 
-      String movieId = getMovieId(doc);
-      String director = directors.get(movieId);
-      if (director != null && profile.topDirectors.contains(director)) {
+      if (profile.topDirectors.contains(catalog.directorId(ordinal))) {
         score += 5.0;
       }
 
-      Integer year = extractYear(doc.get("release_date"));
-      if (year != null) {
+      int year = catalog.year(ordinal);
+      if (year != 0) {
         int decade = (year / 10) * 10;
         if (profile.favoriteDecades.contains(decade)) {
           score += 3.0;
         }
       }
 
-      scored.add(new ScoredMovie(doc, score, director));
+      scored.add(new ScoredMovie(ordinal, score));
     }
 
-    scored.sort((a, b) -> Double.compare(b.score, a.score));
-
-    List<MovieDto> result = scored
-      .stream()
-      .limit(limit)
-      .map(sm -> {
-        MovieDto dto = convertToDto(sm.document);
-        dto.setDirector(sm.director);
-        return dto;
-      })
-      .collect(Collectors.toList());
-    return result;
+    return topScored(scored, limit);
   }
 
-  private List<MovieDto> getTemporalDiscovery(UserProfile profile, int limit) {
-    List<Document> pipeline = new ArrayList<>();
-    Document matchStage = new Document(
-      "$match",
-      new Document("_id", new Document("$nin", new ArrayList<>(profile.votedMovieIds)))
-    );
-    pipeline.add(matchStage);
-
-    Document sampleStage = new Document("$sample", new Document("size", 300));
-    pipeline.add(sampleStage);
-
-    List<Document> candidates = mongoTemplate
-      .getCollection("movies")
-      .aggregate(pipeline)
-      .into(new ArrayList<>());
-
-    Map<String, String> directors = getDirectorsForMovies(candidates);
+  List<ScoredMovie> getTemporalDiscovery(UserProfile profile, Snapshot catalog, int limit) {
+    int[] candidates = sampleOrdinals(catalog, profile, 0L, SAMPLE_TEMPORAL);
     List<ScoredMovie> scored = new ArrayList<>();
     Map<Integer, Integer> decadeCount = new HashMap<>();
 
-    for (Document doc : candidates) {
-      if (!passesQualityFilter(doc)) {
+    for (int ordinal : candidates) {
+      if (!passesQualityFilter(catalog, ordinal)) {
         continue;
       }
 
       double score = 0;
 
-      Integer year = extractYear(doc.get("release_date"));
-      if (year != null) {
+      int year = catalog.year(ordinal);
+      if (year != 0) {
         int decade = (year / 10) * 10;
 
         if (profile.favoriteDecades.contains(decade)) {
@@ -406,107 +568,102 @@ public class MovieRecommendationService {
         decadeCount.put(decade, count + 1);
       }
 
-      score += Math.log(1 + getInt(doc, "up_votes") + 1) * 3;
-
-      Set<String> movieGenres = extractGenresFromString(doc.get("genres"));
-      for (String genre : movieGenres) {
-        if (profile.topGenres.contains(genre)) {
-          score += 1.0;
-        }
-      }
+      score += Math.log(1 + catalog.upVotes(ordinal) + 1) * 3;
+      score += Long.bitCount(catalog.genreBits(ordinal) & profile.topGenresMask);
 
-      String movieId = getMovieId(doc);
-      scored.add(new ScoredMovie(doc, score, directors.get(movieId)));
+      scored.add(new ScoredMovie(ordinal, score));
     }
 
-    scored.sort((a, b) -> Double.compare(b.score, a.score));
-
-    List<MovieDto> result = scored
-      .stream()
-      .limit(limit)
-      .map(sm -> {
-        MovieDto dto = convertToDto(sm.document);
-        dto.setDirector(sm.director);
-        return dto;
-      })
-      .collect(Collectors.toList());
-
-    return result;
+    return topScored(scored, limit);
   }
 
-  private List<MovieDto> getSerendipityRecommendations(UserProfile profile, int limit) {
-    List<Document> pipeline = new ArrayList<>();
-    Document matchStage = new Document(
-      "$match",
-      new Document("_id", new Document("$nin", new ArrayList<>(profile.votedMovieIds)))
-    );
-    pipeline.add(matchStage);
-
-    Document sampleStage = new Document("$sample", new Document("size", 200));
-    pipeline.add(sampleStage);
-
-    List<Document> candidates = mongoTemplate
-      .getCollection("movies")
-      .aggregate(pipeline)
-      .into(new ArrayList<>());
-
-    Map<String, String> directors = getDirectorsForMovies(candidates);
+  List<ScoredMovie> getSerendipityRecommendations(
+    UserProfile profile,
+    Snapshot catalog,
+    int limit
+  ) {
+    int[] candidates = sampleOrdinals(catalog, profile, 0L, SAMPLE_SERENDIPITY);
     List<ScoredMovie> scored = new ArrayList<>();
 
-    for (Document doc : candidates) {
-      if (!passesQualityFilter(doc)) {
+    for (int ordinal : candidates) {
+      if (!passesQualityFilter(catalog, ordinal)) {
         continue;
       }
 
-      Set<String> movieGenres = extractGenresFromString(doc.get("genres"));
-      long genreMatches = movieGenres.stream().filter(profile.topGenres::contains).count();
-      String movieId = getMovieId(doc);
-      String director = directors.get(movieId);
-      boolean isKnownDirector = director != null && profile.topDirectors.contains(director);
+      int genreMatches = Long.bitCount(catalog.genreBits(ordinal) & profile.topGenresMask);
+      boolean isKnownDirector = profile.topDirectors.contains(catalog.directorId(ordinal));
 
       if (genreMatches <= 1 && !isKnownDirector) {
-        double score = Math.log(1 + getInt(doc, "up_votes") + 1) * 10;
-        scored.add(new ScoredMovie(doc, score, director));
+        double score = Math.log(1 + catalog.upVotes(ordinal) + 1) * 10;
+        scored.add(new ScoredMovie(ordinal, score));
       }
     }
 
-    scored.sort((a, b) -> Double.compare(b.score, a.score));
-
-    List<MovieDto> result = scored
-      .stream()
-      .limit(limit)
-      .map(sm -> {
-        MovieDto dto = convertToDto(sm.document);
-        dto.setDirector(sm.director);
-        return dto;
-      })
-      .collect(Collectors.toList());
-
-    return result;
+    return topScored(scored, limit);
   }
 
+  /**
+   * Películas al azar del pool en memoria, hidratadas desde el cache de detalles
+   */
   private List<MovieDto> getRandomRecommendations(int limit) {
-    List<Document> pipeline = new ArrayList<>();
+    return crudMovieService.getMoviesByIds(movieIdPoolService.pick(limit));
+  }
 
-    pipeline.add(new Document("$sample", new Document("size", limit)));
+  /**
+   * Muestrea sin reemplazo hasta {@code size} películas no votadas por el usuario. Si
+   * {@code requiredGenres} no es 0, solo considera películas con al menos uno de esos géneros.
+   */
+  private int[] sampleOrdinals(
+    Snapshot catalog,
+    UserProfile profile,
+    long requiredGenres,
+    int size
+  ) {
+    int[] matches = new int[catalog.size()];
+    int count = 0;
+    for (int ordinal = 0; ordinal < catalog.size(); ordinal++) {
+      if (profile.votedOrdinals.get(ordinal)) {
+        continue;
+      }
+      if (requiredGenres != 0 && (catalog.genreBits(ordinal) & requiredGenres) == 0) {
+        continue;
+      }
+      matches[count++] = ordinal;
+    }
 
-    List<Document> candidates = mongoTemplate
-      .getCollection("movies")
-      .aggregate(pipeline)
-      .into(new ArrayList<>());
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int sampleSize = Math.min(size, count);
+    for (int i = 0; i < sampleSize; i++) {
+      int j = i + random.nextInt(count - i);
+      int tmp = matches[i];
+      matches[i] = matches[j];
+      matches[j] = tmp;
+    }
+    return Arrays.copyOf(matches, sampleSize);
+  }
 
-    Map<String, String> directors = getDirectorsForMovies(candidates);
+  /**
+   * Trae las películas seleccionadas por la cache de detalles (un MGET y un solo $in para las que
+   * falten). Las instancias de la cache se comparten, así que el director se pone en una copia.
+   */
+  private List<MovieDto> hydrate(List<ScoredMovie> selected, Snapshot catalog) {
+    if (selected.isEmpty()) {
+      return new ArrayList<>();
+    }
 
-    return candidates
-      .stream()
-      .map(doc -> {
-        MovieDto dto = convertToDto(doc);
-        String movieId = getMovieId(doc);
-        String director = directors.get(movieId);
-        dto.setDirector(director);
-        return dto;
-      })
-      .collect(Collectors.toList());
+    List<String> ids = new ArrayList<>(selected.size());
+    for (ScoredMovie movie : selected) {
+      ids.add(catalog.movieId(movie.ordinal));
+    }
+
+    List<MovieDto> result = new ArrayList<>();
+    for (MovieDto movie : crudMovieService.getMoviesByIds(ids)) {
+      int ordinal = catalog.ordinalOf(movie.getId());
+      String director = ordinal >= 0 ? catalog.directorName(ordinal) : null;
+      boolean changed = director != null && !director.equals(movie.getDirector());
+      result.add(changed ? movie.toBuilder().director(director).build() : movie);
+    }
+    return result;
   }
 
   private void printRecommendationsSummary(List<MovieDto> movies) {
@@ -516,7 +673,7 @@ public class MovieRecommendationService {
 
     Map<Integer, Long> byDecade = movies
       .stream()
-      .map(m -> extractYear(m.getReleaseDate()))
+      .map(m -> MovieDocumentHelper.extractYear(m.getReleaseDate()))
       .filter(Objects::nonNull)
       .collect(Collectors.groupingBy(year -> (year / 10) * 10, Collectors.counting()));
 
@@ -532,30 +689,48 @@ public class MovieRecommendationService {
       .count();
   }
 
-  private static class UserProfile {
+  // Paquete-privado junto con las estrategias para que los benchmarks puedan medir el scoring
+  static class UserProfile {
 
+    String userId;
     Set<String> votedMovieIds = new HashSet<>();
-    List<String> topGenres = new ArrayList<>();
-    List<String> topDirectors = new ArrayList<>();
-    List<Integer> favoriteYears = new ArrayList<>();
-    List<Integer> favoriteDecades = new ArrayList<>();
-    Map<String, Integer> genreCounts = new HashMap<>();
-    Map<String, Integer> directorCounts = new HashMap<>();
+    BitSet votedOrdinals = new BitSet();
+    long topGenresMask;
+    long mainGenresMask;
+    Set<Integer> topDirectors = new HashSet<>();
+    Set<Integer> favoriteDecades = new HashSet<>();
+    int[] genreCounts = new int[Long.SIZE];
+    Map<Integer, Integer> directorCounts = new HashMap<>();
   }
 
-  private static class ScoredMovie {
+  private record StrategyCandidates(String name, int quota, List<ScoredMovie> candidates) {}
+
+  static class ScoredMovie {
 
-    Document document;
+    int ordinal;
     double score;
-    String director;
 
-    ScoredMovie(Document document, double score, String director) {
-      this.document = document;
+    ScoredMovie(int ordinal, double score) {
+      this.ordinal = ordinal;
       this.score = score;
-      this.director = director;
     }
   }
 
+  List<ScoredMovie> topScored(List<ScoredMovie> scored, int limit) {
+    scored.sort((a, b) -> Double.compare(b.score, a.score));
+    return scored.size() > limit ? new ArrayList<>(scored.subList(0, limit)) : scored;
+  }
+
+  private List<Integer> topGenreBits(int[] genreCounts, int limit) {
+    Map<Integer, Integer> counts = new HashMap<>();
+    for (int bit = 0; bit < genreCounts.length; bit++) {
+      if (genreCounts[bit] > 0) {
+        counts.put(bit, genreCounts[bit]);
+      }
+    }
+    return getTopKeys(counts, limit);
+  }
+
   private <K> List<K> getTopKeys(Map<K, Integer> map, int limit) {
     return map
       .entrySet()
@@ -565,144 +740,4 @@ public class MovieRecommendationService {
       .map(Map.Entry::getKey)
       .collect(Collectors.toList());
   }
-
-  private String getMovieId(Document doc) {
-    Object idObj = doc.get("_id");
-    if (idObj instanceof org.bson.types.ObjectId) {
-      return ((org.bson.types.ObjectId) idObj).toString();
-    }
-    return idObj != null ? idObj.toString() : null;
-  }
-
-  private Integer extractYear(Object releaseDateObj) {
-    if (releaseDateObj instanceof Date) {
-      Calendar cal = Calendar.getInstance();
-      cal.setTime((Date) releaseDateObj);
-      return cal.get(Calendar.YEAR);
-    } else if (releaseDateObj instanceof String) {
-      try {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-        Date date = sdf.parse((String) releaseDateObj);
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
-        return cal.get(Calendar.YEAR);
-      } catch (Exception e) {
-        return null;
-      }
-    }
-    return null;
-  }
-
-  private Map<String, String> getDirectorsForMovies(List<Document> movies) {
-    Map<String, String> map = new HashMap<>();
-    List<String> ids = movies.stream().map(this::getMovieId).collect(Collectors.toList());
-    if (ids.isEmpty()) {
-      return map;
-    }
-
-    Query query = new Query(Criteria.where("movie_id").in(ids));
-    List<Document> dirs = mongoTemplate.find(query, Document.class, "directors");
-
-    for (Document d : dirs) {
-      map.put(d.getString("movie_id"), d.getString("director"));
-    }
-    return map;
-  }
-
-  private void extractGenres(Object genresObj, Map<String, Integer> counts) {
-    if (genresObj == null) {
-      return;
-    }
-    if (genresObj instanceof String) {
-      String genresStr = (String) genresObj;
-      Set<String> found = new HashSet<>();
-      Pattern pattern1 = Pattern.compile("'name':\\s*'([^']+)'");
-      Matcher matcher1 = pattern1.matcher(genresStr);
-      while (matcher1.find()) {
-        found.add(matcher1.group(1));
-      }
-      if (found.isEmpty()) {
-        Pattern pattern2 = Pattern.compile("\"name\":\\s*\"([^\"]+)\"");
-        Matcher matcher2 = pattern2.matcher(genresStr);
-        while (matcher2.find()) {
-          found.add(matcher2.group(1));
-        }
-      }
-      for (String g : found) {
-        counts.put(g, counts.getOrDefault(g, 0) + 1);
-      }
-    }
-  }
-
-  private Set<String> extractGenresFromString(Object genresObj) {
-    Set<String> genres = new HashSet<>();
-    if (genresObj == null) {
-      return genres;
-    }
-    if (genresObj instanceof String) {
-      String genresStr = (String) genresObj;
-      Pattern pattern = Pattern.compile("'name':\\s*'([^']+)'");
-      Matcher matcher = pattern.matcher(genresStr);
-      while (matcher.find()) {
-        genres.add(matcher.group(1));
-      }
-      if (genres.isEmpty()) {
-        Pattern p2 = Pattern.compile("\"name\":\\s*\"([^\"]+)\"");
-        Matcher m2 = p2.matcher(genresStr);
-        while (m2.find()) {
-          genres.add(m2.group(1));
-        }
-      }
-    } else if (genresObj instanceof List) {
-      List<?> list = (List<?>) genresObj;
-      for (Object item : list) {
-        if (item instanceof String) {
-          genres.add((String) item);
-        } else if (item instanceof Document) {
-          Document d = (Document) item;
-          if (d.containsKey("name")) {
-            genres.add(d.getString("name"));
-          }
-        } else if (item instanceof Map) {
-          Map<?, ?> m = (Map<?, ?>) item;
-          if (m.containsKey("name")) {
-            genres.add(m.get("name").toString());
-          }
-        }
-      }
-    }
-    return genres;
-  }
-
-  private MovieDto convertToDto(Document doc) {
-    MovieDto dto = new MovieDto();
-    try {
-      dto.setId(getMovieId(doc));
-      dto.setTitle(doc.getString("title"));
-      dto.setOverview(doc.getString("overview"));
-      Object genres = doc.get("genres");
-      if (genres instanceof String) {
-        dto.setGenres((String) genres);
-      } else if (genres != null) {
-        dto.setGenres(genres.toString());
-      }
-      dto.setReleaseDate(doc.getDate("release_date"));
-      dto.setPosterPath(doc.getString("poster_path"));
-      dto.setOriginalLanguage(doc.getString("original_language"));
-      dto.setRuntime(getInt(doc, "runtime"));
-      dto.setUpVotes(getInt(doc, "up_votes"));
-      dto.setDownVotes(getInt(doc, "down_votes"));
-    } catch (Exception e) {
-      System.out.println("Error convirtiendo documento: " + e.getMessage());
-    }
-    return dto;
-  }
-
-  private Integer getInt(Document doc, String key) {
-    Object val = doc.get(key);
-    if (val instanceof Number) {
-      return ((Number) val).intValue();
-    }
-    return 0;
-  }
 }
@@ -0,0 +1,433 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import com.cineclub_backend.cineclub_backend.jobs.services.JobQueueService;
+import com.cineclub_backend.cineclub_backend.movies.dtos.MovieDto;
+import com.cineclub_backend.cineclub_backend.movies.services.MovieCatalogIndexService.Snapshot;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Similitud película-película a partir de votos UP que coinciden en los mismos usuarios (coseno
+ * sobre vectores binarios). Se calcula en batch desde movie_votes, se guarda en la colección
+ * movie_similarities como listas top-K de vecinos y se sirve desde memoria.
+ */
+@Service
+@Slf4j
+public class MovieSimilarityService {
+
+  public static final String BUILD_JOB = "MOVIE_SIMILARITY_BUILD";
+
+  private static final String COLLECTION = "movie_similarities";
+  private static final String BUILDS = "movie_similarity_builds";
+  private static final int BULK_SIZE = 1000;
+
+  private final MongoTemplate mongoTemplate;
+  private final MovieCatalogIndexService catalogIndexService;
+  private final JobQueueService jobQueueService;
+  private final CrudMovieService crudMovieService;
+  private final int topK;
+  private final int maxLikesPerUser;
+  private final int minCoVotes;
+
+  private volatile Index index;
+
+  public MovieSimilarityService(
+    MongoTemplate mongoTemplate,
+    MovieCatalogIndexService catalogIndexService,
+    JobQueueService jobQueueService,
+    CrudMovieService crudMovieService,
+    @Value("${recommendations.similarity.top-k:50}") int topK,
+    @Value("${recommendations.similarity.max-likes-per-user:500}") int maxLikesPerUser,
+    @Value("${recommendations.similarity.min-co-votes:2}") int minCoVotes
+  ) {
+    this.mongoTemplate = mongoTemplate;
+    this.catalogIndexService = catalogIndexService;
+    this.jobQueueService = jobQueueService;
+    this.crudMovieService = crudMovieService;
+    this.topK = topK;
+    this.maxLikesPerUser = maxLikesPerUser;
+    this.minCoVotes = minCoVotes;
+  }
+
+  public Index getIndex() {
+    Index current = index;
+    if (current == null) {
+      synchronized (this) {
+        if (index == null) {
+          index = load(latestBuild());
+        }
+        current = index;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Carga la matriz más reciente si otra instancia la reconstruyó
+   */
+  @Scheduled(
+    fixedDelayString = "${recommendations.similarity.reload-ms:900000}",
+    initialDelayString = "${recommendations.similarity.reload-ms:900000}"
+  )
+  public void reload() {
+    try {
+      Index current = index;
+      Date latest = latestBuild();
+      if (current != null && latest != null && !latest.equals(current.builtAt)) {
+        index = load(latest);
+      }
+    } catch (Exception e) {
+      log.error("Error recargando la similitud entre películas: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Películas más parecidas a la indicada, en orden de similitud
+   */
+  public List<MovieDto> getSimilarMovies(String movieId, int limit) {
+    List<String> neighborIds = new ArrayList<>();
+    getIndex()
+      .forEachNeighbor(movieId, (neighborId, similarity) -> {
+        if (neighborIds.size() < limit) {
+          neighborIds.add(neighborId);
+        }
+      });
+
+    if (neighborIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    // Las instancias de la cache se comparten: el director del catálogo va en una copia
+    Snapshot catalog = catalogIndexService.getSnapshot();
+    List<MovieDto> result = new ArrayList<>();
+    for (MovieDto movie : crudMovieService.getMoviesByIds(neighborIds)) {
+      int ordinal = catalog.ordinalOf(movie.getId());
+      String director = ordinal >= 0 ? catalog.directorName(ordinal) : null;
+      boolean changed = director != null && !director.equals(movie.getDirector());
+      result.add(changed ? movie.toBuilder().director(director).build() : movie);
+    }
+    return result;
+  }
+
+  @Scheduled(cron = "${recommendations.similarity.rebuild-cron:0 0 3 * * *}")
+  public void scheduleRebuild() {
+    Map<String, Object> job = new HashMap<>();
+    job.put("type", BUILD_JOB);
+    jobQueueService.enqueueJobOnce(job, BUILD_JOB, Duration.ofHours(1));
+  }
+
+  /**
+   * Recalcula la matriz completa desde movie_votes, la persiste y reemplaza la versión en memoria
+   */
+  public void rebuild() {
+    long start = System.currentTimeMillis();
+    VoteMatrix matrix = loadVoteMatrix();
+    int movies = matrix.movieIds.size();
+
+    int[][] neighbors = new int[movies][];
+    float[][] scores = new float[movies][];
+    // Cada tramo intercala películas para repartir la carga y reutiliza sus propios contadores
+    int chunks = Runtime.getRuntime().availableProcessors();
+    IntStream.range(0, chunks)
+      .parallel()
+      .forEach(chunk -> {
+        int[] coCounts = new int[movies];
+        int[] touched = new int[movies];
+        for (int item = chunk; item < movies; item += chunks) {
+          computeNeighbors(item, matrix, coCounts, touched, neighbors, scores);
+        }
+      });
+
+    String[] movieIds = matrix.movieIds.toArray(new String[0]);
+    Map<String, Integer> ordinals = new HashMap<>(movies * 2);
+    String[][] resolved = new String[movies][];
+    for (int item = 0; item < movies; item++) {
+      ordinals.put(movieIds[item], item);
+      resolved[item] = new String[neighbors[item].length];
+      for (int n = 0; n < neighbors[item].length; n++) {
+        resolved[item][n] = movieIds[neighbors[item][n]];
+      }
+    }
+
+    Date builtAt = persist(movieIds, resolved, scores);
+    index = new Index(builtAt, ordinals, resolved, scores);
+
+    log.info(
+      "Similitud entre películas construida: {} películas, {} usuarios en {} ms",
+      movies,
+      matrix.userCount,
+      System.currentTimeMillis() - start
+    );
+  }
+
+  private void computeNeighbors(
+    int item,
+    VoteMatrix matrix,
+    int[] coCounts,
+    int[] touched,
+    int[][] neighbors,
+    float[][] scores
+  ) {
+    int touchedCount = 0;
+    for (int u = matrix.itemOffsets[item]; u < matrix.itemOffsets[item + 1]; u++) {
+      int user = matrix.itemUsers[u];
+      int from = matrix.userOffsets[user];
+      int to = matrix.userOffsets[user + 1];
+      // Los usuarios que votan casi todo aportan mucho costo y poca señal
+      if (to - from > maxLikesPerUser) {
+        continue;
+      }
+      for (int i = from; i < to; i++) {
+        int other = matrix.userItems[i];
+        if (other != item && coCounts[other]++ == 0) {
+          touched[touchedCount++] = other;
+        }
+      }
+    }
+
+    int[] topItems = new int[topK];
+    float[] topScores = new float[topK];
+    int size = 0;
+    int itemLikes = matrix.likes(item);
+
+    for (int t = 0; t < touchedCount; t++) {
+      int other = touched[t];
+      int together = coCounts[other];
+      coCounts[other] = 0;
+      if (together < minCoVotes) {
+        continue;
+      }
+
+      float similarity = (float) (together / Math.sqrt((double) itemLikes * matrix.likes(other)));
+      if (size == topK && similarity <= topScores[size - 1]) {
+        continue;
+      }
+
+      int position = size < topK ? size++ : size - 1;
+      while (position > 0 && topScores[position - 1] < similarity) {
+        topScores[position] = topScores[position - 1];
+        topItems[position] = topItems[position - 1];
+        position--;
+      }
+      topScores[position] = similarity;
+      topItems[position] = other;
+    }
+
+    neighbors[item] = Arrays.copyOf(topItems, size);
+    scores[item] = Arrays.copyOf(topScores, size);
+  }
+
+  /**
+   * Lee los votos UP y arma dos matrices dispersas (CSR): películas por usuario y usuarios por
+   * película
+   */
+  private VoteMatrix loadVoteMatrix() {
+    Map<String, Integer> userIndex = new HashMap<>();
+    Map<String, Integer> movieIndex = new HashMap<>();
+    List<String> movieIds = new ArrayList<>();
+    int[] voteUsers = new int[1024];
+    int[] voteMovies = new int[1024];
+    int votes = 0;
+
+    Document filter = new Document("type", "UP");
+    Document projection = new Document("user_id", 1).append("movie_id", 1).append("_id", 0);
+    for (Document doc : mongoTemplate
+      .getCollection("movie_votes")
+      .find(filter)
+      .projection(projection)) {
+      String userId = doc.getString("user_id");
+      String movieId = doc.getString("movie_id");
+      if (userId == null || movieId == null) {
+        continue;
+      }
+      if (votes == voteUsers.length) {
+        voteUsers = Arrays.copyOf(voteUsers, votes * 2);
+        voteMovies = Arrays.copyOf(voteMovies, votes * 2);
+      }
+      voteUsers[votes] = userIndex.computeIfAbsent(userId, key -> userIndex.size());
+      Integer movie = movieIndex.get(movieId);
+      if (movie == null) {
+        movie = movieIds.size();
+        movieIndex.put(movieId, movie);
+        movieIds.add(movieId);
+      }
+      voteMovies[votes] = movie;
+      votes++;
+    }
+
+    VoteMatrix matrix = new VoteMatrix();
+    matrix.movieIds = movieIds;
+    matrix.userCount = userIndex.size();
+    matrix.userOffsets = new int[matrix.userCount + 1];
+    matrix.itemOffsets = new int[movieIds.size() + 1];
+    matrix.userItems = new int[votes];
+    matrix.itemUsers = new int[votes];
+
+    for (int v = 0; v < votes; v++) {
+      matrix.userOffsets[voteUsers[v] + 1]++;
+      matrix.itemOffsets[voteMovies[v] + 1]++;
+    }
+    for (int i = 0; i < matrix.userCount; i++) {
+      matrix.userOffsets[i + 1] += matrix.userOffsets[i];
+    }
+    for (int i = 0; i < movieIds.size(); i++) {
+      matrix.itemOffsets[i + 1] += matrix.itemOffsets[i];
+    }
+
+    int[] userFill = Arrays.copyOf(matrix.userOffsets, matrix.userCount);
+    int[] itemFill = Arrays.copyOf(matrix.itemOffsets, movieIds.size());
+    for (int v = 0; v < votes; v++) {
+      matrix.userItems[userFill[voteUsers[v]]++] = voteMovies[v];
+      matrix.itemUsers[itemFill[voteMovies[v]]++] = voteUsers[v];
+    }
+    return matrix;
+  }
+
+  private Date persist(String[] movieIds, String[][] neighbors, float[][] scores) {
+    Date builtAt = new Date();
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+    int pending = 0;
+
+    for (int item = 0; item < movieIds.length; item++) {
+      if (neighbors[item].length == 0) {
+        continue;
+      }
+      List<Double> itemScores = new ArrayList<>(scores[item].length);
+      for (float score : scores[item]) {
+        itemScores.add((double) score);
+      }
+      Update update = new Update()
+        .set("neighbors", Arrays.asList(neighbors[item]))
+        .set("scores", itemScores)
+        .set("updated_at", builtAt);
+      bulk.upsert(new Query(Criteria.where("_id").is(movieIds[item])), update);
+
+      if (++pending == BULK_SIZE) {
+        bulk.execute();
+        bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        pending = 0;
+      }
+    }
+    if (pending > 0) {
+      bulk.execute();
+    }
+
+    mongoTemplate.remove(new Query(Criteria.where("updated_at").lt(builtAt)), COLLECTION);
+
+    // La marca de la versión se escribe al final: si existe, la matriz está completa
+    mongoTemplate
+      .getCollection(BUILDS)
+      .insertOne(new Document("movies", movieIds.length).append("built_at", builtAt));
+    mongoTemplate.remove(new Query(Criteria.where("built_at").lt(builtAt)), BUILDS);
+    return builtAt;
+  }
+
+  /**
+   * Fecha de la última reconstrucción completa, o null si nunca se registró una
+   */
+  private Date latestBuild() {
+    Query latestQuery = new Query().with(Sort.by(Sort.Direction.DESC, "built_at")).limit(1);
+    Document latest = mongoTemplate.findOne(latestQuery, Document.class, BUILDS);
+    return latest != null ? latest.getDate("built_at") : null;
+  }
+
+  private Index load(Date builtAt) {
+    Map<String, Integer> ordinals = new HashMap<>();
+    List<String[]> neighbors = new ArrayList<>();
+    List<float[]> scores = new ArrayList<>();
+
+    for (Document doc : mongoTemplate.getCollection(COLLECTION).find()) {
+      List<String> ids = doc.getList("neighbors", String.class, List.of());
+      List<Number> values = doc.getList("scores", Number.class, List.of());
+      int size = Math.min(ids.size(), values.size());
+      float[] itemScores = new float[size];
+      for (int i = 0; i < size; i++) {
+        itemScores[i] = values.get(i).floatValue();
+      }
+      ordinals.put(doc.get("_id").toString(), neighbors.size());
+      neighbors.add(ids.subList(0, size).toArray(new String[0]));
+      scores.add(itemScores);
+    }
+
+    log.info("Similitud entre películas cargada: {} películas", ordinals.size());
+    return new Index(
+      builtAt,
+      ordinals,
+      neighbors.toArray(new String[0][]),
+      scores.toArray(new float[0][])
+    );
+  }
+
+  @FunctionalInterface
+  public interface NeighborConsumer {
+    void accept(String movieId, float similarity);
+  }
+
+  /**
+   * Vecinos top-K por película, ordenados de mayor a menor similitud
+   */
+  public static final class Index {
+
+    private final Date builtAt;
+    private final Map<String, Integer> ordinals;
+    private final String[][] neighbors;
+    private final float[][] scores;
+
+    private Index(
+      Date builtAt,
+      Map<String, Integer> ordinals,
+      String[][] neighbors,
+      float[][] scores
+    ) {
+      this.builtAt = builtAt;
+      this.ordinals = ordinals;
+      this.neighbors = neighbors;
+      this.scores = scores;
+    }
+
+    public boolean isEmpty() {
+      return ordinals.isEmpty();
+    }
+
+    public void forEachNeighbor(String movieId, NeighborConsumer consumer) {
+      Integer ordinal = movieId != null ? ordinals.get(movieId) : null;
+      if (ordinal == null) {
+        return;
+      }
+      for (int i = 0; i < neighbors[ordinal].length; i++) {
+        consumer.accept(neighbors[ordinal][i], scores[ordinal][i]);
+      }
+    }
+  }
+
+  private static final class VoteMatrix {
+
+    List<String> movieIds;
+    int userCount;
+    int[] userOffsets;
+    int[] userItems;
+    int[] itemOffsets;
+    int[] itemUsers;
+
+    int likes(int item) {
+      return itemOffsets[item + 1] - itemOffsets[item];
+    }
+  }
+}
@@ -0,0 +1,291 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import com.cineclub_backend.cineclub_backend.jobs.services.JobQueueService;
+import com.cineclub_backend.cineclub_backend.movies.models.Movie;
+import com.cineclub_backend.cineclub_backend.movies.models.MovieVote;
+import com.cineclub_backend.cineclub_backend.shared.helpers.RedisLockHelper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Contadores up_votes/down_votes con escritura diferida. Cada voto suma su delta en un hash de
+ * Redis (HINCRBY) y un flush periódico los aplica a movies con un solo bulkWrite, así una
+ * película popular no recibe un $inc por clic.
+ *
+ * <p>El flush renombra el hash antes de leerlo: si la instancia cae a mitad de camino, el hash
+ * renombrado se vuelve a aplicar en el siguiente flush. Ese caso puede contar dos veces un lote,
+ * por eso cada noche (y al arrancar, si quedó un flush a medias) se recalculan los contadores
+ * desde movie_votes.
+ */
+@Service
+@Slf4j
+public class MovieVoteCounterService {
+
+  public static final String RECONCILE_JOB = "VOTE_COUNTERS_RECONCILE";
+
+  private static final String PENDING_KEY = "movie_votes:pending";
+  private static final String FLUSHING_KEY = "movie_votes:pending:flushing";
+  private static final String LOCK_KEY = "movie_votes:pending:lock";
+  private static final String SINCE_FIELD = "_since";
+  private static final Duration LOCK_TTL = Duration.ofSeconds(30);
+  private static final int RECONCILE_BATCH = 1000;
+
+  private final RedisTemplate<String, String> redisTemplate;
+  private final MongoTemplate mongoTemplate;
+  private final JobQueueService jobQueueService;
+  private final MovieLeaderboardService movieLeaderboardService;
+  private final Timer flushLag;
+  private final Counter flushedMovies;
+
+  public MovieVoteCounterService(
+    RedisTemplate<String, String> redisTemplate,
+    MongoTemplate mongoTemplate,
+    JobQueueService jobQueueService,
+    MovieLeaderboardService movieLeaderboardService,
+    MeterRegistry meterRegistry
+  ) {
+    this.redisTemplate = redisTemplate;
+    this.mongoTemplate = mongoTemplate;
+    this.jobQueueService = jobQueueService;
+    this.movieLeaderboardService = movieLeaderboardService;
+    this.flushLag = Timer.builder("movies.votes.flush.lag")
+      .description("Antigüedad del delta más viejo aplicado en cada flush")
+      .publishPercentiles(0.5, 0.95, 0.99)
+      .register(meterRegistry);
+    this.flushedMovies = Counter.builder("movies.votes.flush.movies").register(meterRegistry);
+  }
+
+  /**
+   * Acumula el delta del voto y mueve la película en el ranking en el mismo pipeline. Si Redis no
+   * responde se aplica directo en Mongo para no perderlo; el ranking se corrige al reconciliar.
+   */
+  public void increment(String movieId, MovieVote.VoteType type, int delta) {
+    double scoreDelta = type == MovieVote.VoteType.UP ? delta : -delta;
+    String field = movieId + ":" + (type == MovieVote.VoteType.UP ? "up" : "down");
+    try {
+      redisTemplate.executePipelined(
+        new SessionCallback<Object>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public <K, V> Object execute(RedisOperations<K, V> operations) {
+            RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+            ops.opsForHash().increment(PENDING_KEY, field, delta);
+            ops
+              .opsForHash()
+              .putIfAbsent(PENDING_KEY, SINCE_FIELD, String.valueOf(System.currentTimeMillis()));
+            ops.opsForZSet().incrementScore(MovieLeaderboardService.KEY, movieId, scoreDelta);
+            return null;
+          }
+        }
+      );
+    } catch (Exception e) {
+      log.error("Error acumulando el voto en Redis, se aplica directo: {}", e.getMessage());
+      mongoTemplate.updateFirst(
+        new Query(Criteria.where("_id").is(movieId)),
+        new Update().inc(type == MovieVote.VoteType.UP ? "up_votes" : "down_votes", delta),
+        Movie.class
+      );
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${votes.counters.flush-ms:2000}")
+  public void flush() {
+    String token = RedisLockHelper.tryAcquire(redisTemplate, LOCK_KEY, LOCK_TTL);
+    if (token == null) {
+      return;
+    }
+
+    try {
+      // Un hash que quedó renombrado por un flush interrumpido se aplica antes que el nuevo
+      if (!Boolean.TRUE.equals(redisTemplate.hasKey(FLUSHING_KEY))) {
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(PENDING_KEY))) {
+          return;
+        }
+        redisTemplate.rename(PENDING_KEY, FLUSHING_KEY);
+      }
+
+      Map<Object, Object> entries = redisTemplate.opsForHash().entries(FLUSHING_KEY);
+      Map<String, int[]> deltas = new HashMap<>();
+      long since = System.currentTimeMillis();
+      for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+        String field = entry.getKey().toString();
+        if (SINCE_FIELD.equals(field)) {
+          since = Long.parseLong(entry.getValue().toString());
+          continue;
+        }
+        int separator = field.lastIndexOf(':');
+        int[] delta = deltas.computeIfAbsent(field.substring(0, separator), id -> new int[2]);
+        delta["up".equals(field.substring(separator + 1)) ? 0 : 1] += Integer.parseInt(
+          entry.getValue().toString()
+        );
+      }
+
+      applyDeltas(deltas);
+      redisTemplate.delete(FLUSHING_KEY);
+
+      flushedMovies.increment(deltas.size());
+      flushLag.record(Math.max(0, System.currentTimeMillis() - since), TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      log.error("Error aplicando los contadores de votos: {}", e.getMessage());
+    } finally {
+      RedisLockHelper.release(redisTemplate, LOCK_KEY, token);
+    }
+  }
+
+  private void applyDeltas(Map<String, int[]> deltas) {
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class);
+    int updates = 0;
+    for (Map.Entry<String, int[]> entry : deltas.entrySet()) {
+      int[] delta = entry.getValue();
+      if (delta[0] == 0 && delta[1] == 0) {
+        continue;
+      }
+      bulk.updateOne(
+        new Query(Criteria.where("_id").is(entry.getKey())),
+        new Update().inc("up_votes", delta[0]).inc("down_votes", delta[1])
+      );
+      updates++;
+    }
+    if (updates > 0) {
+      bulk.execute();
+    }
+  }
+
+  /**
+   * Al arrancar solo hace falta reconciliar si quedó un flush interrumpido o no hay ranking; el
+   * job se encola una vez aunque arranquen varias instancias a la vez
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void scheduleOnStartup() {
+    try {
+      boolean interrupted = Boolean.TRUE.equals(redisTemplate.hasKey(FLUSHING_KEY));
+      boolean noRanking = !Boolean.TRUE.equals(redisTemplate.hasKey(MovieLeaderboardService.KEY));
+      if (interrupted || noRanking) {
+        requestReconcile();
+      }
+    } catch (Exception e) {
+      log.error("Error revisando si hay que reconciliar los votos: {}", e.getMessage());
+    }
+  }
+
+  @Scheduled(cron = "${votes.counters.reconcile-cron:0 45 3 * * *}")
+  public void requestReconcile() {
+    Map<String, Object> job = new HashMap<>();
+    job.put("type", RECONCILE_JOB);
+    jobQueueService.enqueueJobOnce(job, RECONCILE_JOB, Duration.ofHours(1));
+  }
+
+  /**
+   * Recalcula up_votes/down_votes desde movie_votes y reconstruye el ranking. Toma el lock del
+   * flush y descarta los deltas pendientes, que ya están reflejados en movie_votes; un voto que
+   * llegue durante el recuento puede quedar contado dos veces hasta la próxima reconciliación.
+   */
+  public void reconcile() {
+    String token = RedisLockHelper.tryAcquire(redisTemplate, LOCK_KEY, Duration.ofMinutes(10));
+    if (token == null) {
+      log.warn("Hay un flush de votos en curso, se omite la reconciliación");
+      return;
+    }
+
+    try {
+      redisTemplate.delete(List.of(PENDING_KEY, FLUSHING_KEY));
+
+      Aggregation aggregation = Aggregation.newAggregation(
+        Aggregation.group("movie_id")
+          .sum(ConditionalOperators.when(Criteria.where("type").is("UP")).then(1).otherwise(0))
+          .as("up")
+          .sum(ConditionalOperators.when(Criteria.where("type").is("DOWN")).then(1).otherwise(0))
+          .as("down")
+      ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+      Map<String, Integer> scores = new HashMap<>();
+      BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class);
+      int pending = 0;
+      try (
+        Stream<Document> counts = mongoTemplate.aggregateStream(
+          aggregation,
+          "movie_votes",
+          Document.class
+        )
+      ) {
+        Iterator<Document> iterator = counts.iterator();
+        while (iterator.hasNext()) {
+          Document count = iterator.next();
+          String movieId = String.valueOf(count.get("_id"));
+          scores.put(movieId, count.getInteger("up") - count.getInteger("down"));
+          bulk.updateOne(
+            new Query(Criteria.where("_id").is(movieId)),
+            new Update()
+              .set("up_votes", count.getInteger("up"))
+              .set("down_votes", count.getInteger("down"))
+          );
+          if (++pending == RECONCILE_BATCH) {
+            bulk.execute();
+            bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class);
+            pending = 0;
+          }
+        }
+      }
+      if (pending > 0) {
+        bulk.execute();
+      }
+
+      // Películas con contadores pero sin votos
+      Query stale = new Query(
+        new Criteria()
+          .orOperator(Criteria.where("up_votes").gt(0), Criteria.where("down_votes").gt(0))
+      );
+      stale.fields().include("_id");
+      for (Movie movie : mongoTemplate.find(stale, Movie.class)) {
+        if (!scores.containsKey(movie.getId())) {
+          mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(movie.getId())),
+            new Update().set("up_votes", 0).set("down_votes", 0),
+            Movie.class
+          );
+        }
+      }
+      log.info("Contadores de votos recalculados para {} películas", scores.size());
+
+      // El ranking cubre todo el catálogo, con 0 para las películas sin votos, para ordenarlas
+      // igual que Mongo; los votos de películas borradas quedan afuera
+      Map<String, Integer> ranking = new HashMap<>();
+      Query catalog = new Query();
+      catalog.fields().include("_id");
+      try (Stream<Movie> movies = mongoTemplate.stream(catalog, Movie.class)) {
+        movies.forEach(movie ->
+          ranking.put(movie.getId(), scores.getOrDefault(movie.getId(), 0))
+        );
+      }
+      movieLeaderboardService.replaceAll(ranking);
+    } finally {
+      RedisLockHelper.release(redisTemplate, LOCK_KEY, token);
+    }
+  }
+}
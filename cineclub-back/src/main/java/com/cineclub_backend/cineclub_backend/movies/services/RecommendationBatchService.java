@@ -0,0 +1,170 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import com.cineclub_backend.cineclub_backend.jobs.services.JobQueueService;
+import com.cineclub_backend.cineclub_backend.movies.dtos.MovieDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sirve las recomendaciones desde tandas precalculadas en Redis
+ * (recommendations:batches:{userId}, una lista con una tanda JSON por elemento). Las tandas se
+ * regeneran en el job worker; el cálculo en vivo solo se usa cuando el usuario aún no tiene
+ * ninguna.
+ */
+@Service
+@Slf4j
+public class RecommendationBatchService {
+
+  public static final String REFRESH_JOB = "RECOMMENDATIONS_REFRESH";
+  public static final String REFRESH_ALL_JOB = "RECOMMENDATIONS_REFRESH_ALL";
+
+  private static final String KEY_PREFIX = "recommendations:batches:";
+  private static final Duration DEDUPE_WINDOW = Duration.ofMinutes(10);
+
+  private final RedisTemplate<String, String> redisTemplate;
+  private final MovieRecommendationService movieRecommendationService;
+  private final JobQueueService jobQueueService;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final int depth;
+  private final Duration ttl;
+
+  public RecommendationBatchService(
+    RedisTemplate<String, String> redisTemplate,
+    MovieRecommendationService movieRecommendationService,
+    JobQueueService jobQueueService,
+    @Value("${recommendations.batches.depth:3}") int depth,
+    @Value("${recommendations.batches.ttl-hours:24}") long ttlHours
+  ) {
+    this.redisTemplate = redisTemplate;
+    this.movieRecommendationService = movieRecommendationService;
+    this.jobQueueService = jobQueueService;
+    this.depth = depth;
+    this.ttl = Duration.ofHours(ttlHours);
+  }
+
+  /**
+   * Consume la siguiente tanda del usuario. Cuando se agotan se pide una regeneración y, si no
+   * había ninguna, se calcula en vivo.
+   */
+  public List<MovieDto> getRecommendations(String userId) {
+    List<Object> results = redisTemplate.executePipelined(
+      new SessionCallback<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object execute(RedisOperations<K, V> operations) {
+          RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+          ops.opsForList().leftPop(key(userId));
+          ops.opsForList().size(key(userId));
+          return null;
+        }
+      }
+    );
+
+    Object batch = results.get(0);
+    Object remaining = results.get(1);
+    if (!(remaining instanceof Number) || ((Number) remaining).longValue() == 0) {
+      requestRefresh(userId);
+    }
+
+    if (batch != null) {
+      try {
+        return objectMapper.readValue(batch.toString(), new TypeReference<List<MovieDto>>() {});
+      } catch (Exception e) {
+        log.error("Tanda de recomendaciones inválida para {}: {}", userId, e.getMessage());
+      }
+    }
+
+    return movieRecommendationService.run(userId);
+  }
+
+  /**
+   * Pide regenerar las tandas del usuario. Mientras el job siga en cola los nuevos pedidos se
+   * descartan, de modo que una ráfaga de votos produce un único cálculo.
+   */
+  public void requestRefresh(String userId) {
+    Map<String, Object> job = new HashMap<>();
+    job.put("type", REFRESH_JOB);
+    job.put("userId", userId);
+    jobQueueService.enqueueJobOnce(job, dedupeKey(userId), DEDUPE_WINDOW);
+  }
+
+  public void refresh(String userId) {
+    jobQueueService.releaseJobOnce(dedupeKey(userId));
+
+    List<List<MovieDto>> batches = movieRecommendationService.runBatches(userId, depth);
+    List<String> serialized = new ArrayList<>();
+    for (List<MovieDto> batch : batches) {
+      try {
+        serialized.add(objectMapper.writeValueAsString(batch));
+      } catch (Exception e) {
+        log.error("Error serializando recomendaciones de {}: {}", userId, e.getMessage());
+      }
+    }
+
+    redisTemplate.executePipelined(
+      new SessionCallback<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object execute(RedisOperations<K, V> operations) {
+          RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+          ops.delete(key(userId));
+          if (!serialized.isEmpty()) {
+            ops.opsForList().rightPushAll(key(userId), serialized);
+            ops.expire(key(userId), ttl);
+          }
+          return null;
+        }
+      }
+    );
+  }
+
+  /**
+   * Regenera las tandas de los usuarios activos, es decir, los que todavía tienen una lista sin
+   * expirar
+   */
+  public void refreshAll() {
+    int refreshed = 0;
+    ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(500).build();
+    try (Cursor<String> cursor = redisTemplate.scan(options)) {
+      while (cursor.hasNext()) {
+        String userId = cursor.next().substring(KEY_PREFIX.length());
+        try {
+          refresh(userId);
+          refreshed++;
+        } catch (Exception e) {
+          log.error("Error regenerando recomendaciones de {}: {}", userId, e.getMessage());
+        }
+      }
+    }
+    log.info("Tandas de recomendaciones regeneradas: {}", refreshed);
+  }
+
+  @Scheduled(cron = "${recommendations.batches.refresh-cron:0 0 4 * * *}")
+  public void scheduleRefreshAll() {
+    Map<String, Object> job = new HashMap<>();
+    job.put("type", REFRESH_ALL_JOB);
+    jobQueueService.enqueueJobOnce(job, REFRESH_ALL_JOB, Duration.ofHours(1));
+  }
+
+  private static String key(String userId) {
+    return KEY_PREFIX + userId;
+  }
+
+  private static String dedupeKey(String userId) {
+    return REFRESH_JOB + ":" + userId;
+  }
+}
@@ -0,0 +1,384 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import com.cineclub_backend.cineclub_backend.jobs.services.JobQueueService;
+import com.cineclub_backend.cineclub_backend.movies.helpers.MovieDocumentHelper;
+import com.cineclub_backend.cineclub_backend.movies.models.MovieVote;
+import com.cineclub_backend.cineclub_backend.movies.models.UserTasteProfile;
+import com.cineclub_backend.cineclub_backend.movies.services.MovieCatalogIndexService.Snapshot;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Mantiene en Redis el perfil de gustos de cada usuario (conteos de géneros, directores y décadas
+ * de sus votos UP) para que las recomendaciones partan de un perfil ya calculado.
+ */
+@Service
+@Slf4j
+public class UserTasteProfileService {
+
+  private static final String KEY_PREFIX = "user_profile:";
+
+  private final RedisTemplate<String, String> redisTemplate;
+  private final MongoTemplate mongoTemplate;
+  private final MovieCatalogIndexService catalogIndexService;
+  private final JobQueueService jobQueueService;
+
+  public UserTasteProfileService(
+    RedisTemplate<String, String> redisTemplate,
+    MongoTemplate mongoTemplate,
+    MovieCatalogIndexService catalogIndexService,
+    JobQueueService jobQueueService
+  ) {
+    this.redisTemplate = redisTemplate;
+    this.mongoTemplate = mongoTemplate;
+    this.catalogIndexService = catalogIndexService;
+    this.jobQueueService = jobQueueService;
+  }
+
+  /**
+   * Obtiene el perfil del usuario con un único round-trip a Redis. Si el perfil aún no existe se
+   * reconstruye desde movie_votes.
+   */
+  public UserTasteProfile getProfile(String userId) {
+    UserTasteProfile profile = readStored(userId);
+    return profile != null ? profile : rebuild(userId);
+  }
+
+  /**
+   * Aplica al perfil el cambio de un voto. Solo los votos UP forman parte del perfil, así que
+   * únicamente importa si la película entra o sale del conjunto de películas que le gustan.
+   */
+  public void applyVote(
+    String userId,
+    String movieId,
+    MovieVote.VoteType previous,
+    MovieVote.VoteType current
+  ) {
+    boolean wasLiked = previous == MovieVote.VoteType.UP;
+    boolean isLiked = current == MovieVote.VoteType.UP;
+    if (wasLiked == isLiked) {
+      return;
+    }
+
+    int delta = isLiked ? 1 : -1;
+    MovieAttributes attributes = attributesOf(List.of(movieId)).get(movieId);
+
+    redisTemplate.executePipelined(
+      new SessionCallback<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object execute(RedisOperations<K, V> operations) {
+          RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+          if (isLiked) {
+            ops.opsForSet().add(likedKey(userId), movieId);
+          } else {
+            ops.opsForSet().remove(likedKey(userId), movieId);
+          }
+          if (attributes != null) {
+            for (String genre : attributes.genres()) {
+              ops.opsForHash().increment(genresKey(userId), genre, delta);
+            }
+            if (attributes.director() != null) {
+              ops.opsForHash().increment(directorsKey(userId), attributes.director(), delta);
+            }
+            if (attributes.decade() != null) {
+              ops.opsForHash().increment(decadesKey(userId), attributes.decade().toString(), delta);
+            }
+          }
+          return null;
+        }
+      }
+    );
+  }
+
+  /**
+   * Recalcula el perfil completo del usuario a partir de sus votos UP en movie_votes
+   */
+  public UserTasteProfile rebuild(String userId) {
+    UserTasteProfile profile = computeProfile(userId);
+    Set<String> likedMovieIds = profile.getLikedMovieIds();
+
+    redisTemplate.executePipelined(
+      new SessionCallback<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object execute(RedisOperations<K, V> operations) {
+          RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+          ops.delete(
+            List.of(
+              likedKey(userId),
+              genresKey(userId),
+              directorsKey(userId),
+              decadesKey(userId)
+            )
+          );
+          if (!likedMovieIds.isEmpty()) {
+            ops.opsForSet().add(likedKey(userId), likedMovieIds.toArray(new String[0]));
+          }
+          ops.opsForHash().putAll(genresKey(userId), toHash(profile.getGenreCounts()));
+          ops.opsForHash().putAll(directorsKey(userId), toHash(profile.getDirectorCounts()));
+          ops.opsForHash().putAll(decadesKey(userId), toHash(profile.getDecadeCounts()));
+          ops.opsForValue().set(readyKey(userId), LocalDateTime.now().toString());
+          return null;
+        }
+      }
+    );
+
+    return profile;
+  }
+
+  /**
+   * Compara el perfil guardado (películas y conteos de géneros, directores y décadas) con el
+   * calculado desde movie_votes y encola su reconstrucción si no coincide
+   *
+   * @return true si el perfil era consistente
+   */
+  public boolean verify(String userId) {
+    UserTasteProfile stored = readStored(userId);
+    if (stored != null && stored.equals(computeProfile(userId))) {
+      return true;
+    }
+    requestRebuild(userId);
+    return false;
+  }
+
+  public void requestRebuild(String userId) {
+    Map<String, Object> job = new HashMap<>();
+    job.put("type", "USER_PROFILE_REBUILD");
+    job.put("userId", userId);
+    jobQueueService.enqueueJobOnce(job, "USER_PROFILE_REBUILD:" + userId, Duration.ofMinutes(10));
+  }
+
+  public void rebuildAll() {
+    int rebuilt = 0;
+    for (String userId : findUsersWithVotes()) {
+      rebuild(userId);
+      rebuilt++;
+    }
+    log.info("Perfiles de gustos reconstruidos: {}", rebuilt);
+  }
+
+  public void verifyAll() {
+    int checked = 0;
+    int inconsistent = 0;
+    for (String userId : findUsersWithVotes()) {
+      checked++;
+      if (!verify(userId)) {
+        inconsistent++;
+      }
+    }
+    log.info(
+      "Perfiles de gustos verificados: {}, reconstrucciones encoladas: {}",
+      checked,
+      inconsistent
+    );
+  }
+
+  @Scheduled(cron = "${recommendations.profiles.verify-cron:0 30 3 * * *}")
+  public void scheduleVerification() {
+    Map<String, Object> job = new HashMap<>();
+    job.put("type", "USER_PROFILE_VERIFY");
+    jobQueueService.enqueueJobOnce(job, "USER_PROFILE_VERIFY", Duration.ofHours(1));
+  }
+
+  /**
+   * Perfil guardado en Redis con un único round-trip, o null si todavía no se construyó
+   */
+  private UserTasteProfile readStored(String userId) {
+    List<Object> results = redisTemplate.executePipelined(
+      new SessionCallback<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object execute(RedisOperations<K, V> operations) {
+          RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+          ops.hasKey(readyKey(userId));
+          ops.opsForSet().members(likedKey(userId));
+          ops.opsForHash().entries(genresKey(userId));
+          ops.opsForHash().entries(directorsKey(userId));
+          ops.opsForHash().entries(decadesKey(userId));
+          return null;
+        }
+      }
+    );
+
+    if (!Boolean.TRUE.equals(results.get(0))) {
+      return null;
+    }
+
+    UserTasteProfile profile = new UserTasteProfile();
+    if (results.get(1) instanceof Set<?> liked) {
+      liked.forEach(id -> profile.getLikedMovieIds().add(id.toString()));
+    }
+    readCounts(results.get(2), profile.getGenreCounts());
+    readCounts(results.get(3), profile.getDirectorCounts());
+
+    Map<String, Integer> decades = new HashMap<>();
+    readCounts(results.get(4), decades);
+    decades.forEach((decade, count) -> profile.getDecadeCounts().put(Integer.valueOf(decade), count)
+    );
+
+    return profile;
+  }
+
+  /**
+   * Perfil calculado desde los votos UP en movie_votes, sin guardarlo
+   */
+  private UserTasteProfile computeProfile(String userId) {
+    UserTasteProfile profile = new UserTasteProfile();
+    profile.setLikedMovieIds(findLikedMovieIds(userId));
+
+    Map<String, MovieAttributes> attributes = attributesOf(profile.getLikedMovieIds());
+    for (MovieAttributes movie : attributes.values()) {
+      for (String genre : movie.genres()) {
+        profile.getGenreCounts().merge(genre, 1, Integer::sum);
+      }
+      if (movie.director() != null) {
+        profile.getDirectorCounts().merge(movie.director(), 1, Integer::sum);
+      }
+      if (movie.decade() != null) {
+        profile.getDecadeCounts().merge(movie.decade(), 1, Integer::sum);
+      }
+    }
+    return profile;
+  }
+
+  private Set<String> findLikedMovieIds(String userId) {
+    Query voteQuery = new Query(Criteria.where("user_id").is(userId).and("type").is("UP"));
+    voteQuery.fields().include("movie_id");
+    return mongoTemplate
+      .find(voteQuery, MovieVote.class, "movie_votes")
+      .stream()
+      .map(MovieVote::getMovieId)
+      .collect(Collectors.toSet());
+  }
+
+  private Iterable<String> findUsersWithVotes() {
+    List<Document> pipeline = List.of(new Document("$group", new Document("_id", "$user_id")));
+    return mongoTemplate
+      .getCollection("movie_votes")
+      .aggregate(pipeline)
+      .allowDiskUse(true)
+      .map(doc -> doc.getString("_id"));
+  }
+
+  /**
+   * Resuelve géneros, director y década de las películas. Usa el índice del catálogo y solo
+   * consulta Mongo para las películas que todavía no están indexadas.
+   */
+  private Map<String, MovieAttributes> attributesOf(Collection<String> movieIds) {
+    Map<String, MovieAttributes> attributes = new HashMap<>();
+    Snapshot catalog = catalogIndexService.getSnapshot();
+    List<String> missing = new ArrayList<>();
+
+    for (String movieId : movieIds) {
+      int ordinal = catalog.ordinalOf(movieId);
+      if (ordinal < 0) {
+        missing.add(movieId);
+        continue;
+      }
+      Set<String> genres = new HashSet<>();
+      long bits = catalog.genreBits(ordinal);
+      while (bits != 0) {
+        genres.add(catalog.genreName(Long.numberOfTrailingZeros(bits)));
+        bits &= bits - 1;
+      }
+      int year = catalog.year(ordinal);
+      attributes.put(
+        movieId,
+        new MovieAttributes(genres, catalog.directorName(ordinal), year != 0 ? decadeOf(year) : null)
+      );
+    }
+
+    if (missing.isEmpty()) {
+      return attributes;
+    }
+
+    List<Object> ids = new ArrayList<>();
+    for (String movieId : missing) {
+      ids.add(ObjectId.isValid(movieId) ? new ObjectId(movieId) : movieId);
+    }
+    Query movieQuery = new Query(Criteria.where("_id").in(ids));
+    movieQuery.fields().include("genres").include("release_date");
+    Query directorQuery = new Query(Criteria.where("movie_id").in(missing));
+
+    Map<String, String> directors = new HashMap<>();
+    for (Document doc : mongoTemplate.find(directorQuery, Document.class, "directors")) {
+      directors.put(doc.getString("movie_id"), doc.getString("director"));
+    }
+    for (Document doc : mongoTemplate.find(movieQuery, Document.class, "movies")) {
+      String movieId = MovieDocumentHelper.getMovieId(doc);
+      Integer year = MovieDocumentHelper.extractYear(doc.get("release_date"));
+      attributes.put(
+        movieId,
+        new MovieAttributes(
+          MovieDocumentHelper.extractGenres(doc.get("genres")),
+          directors.get(movieId),
+          year != null ? decadeOf(year) : null
+        )
+      );
+    }
+    return attributes;
+  }
+
+  private void readCounts(Object hash, Map<String, Integer> target) {
+    if (hash instanceof Map<?, ?> entries) {
+      entries.forEach((key, value) -> {
+        int count = Integer.parseInt(value.toString());
+        if (count > 0) {
+          target.put(key.toString(), count);
+        }
+      });
+    }
+  }
+
+  private <T> Map<String, String> toHash(Map<T, Integer> counts) {
+    Map<String, String> hash = new HashMap<>();
+    counts.forEach((key, value) -> hash.put(key.toString(), value.toString()));
+    return hash;
+  }
+
+  private static int decadeOf(int year) {
+    return (year / 10) * 10;
+  }
+
+  private static String likedKey(String userId) {
+    return KEY_PREFIX + userId + ":liked";
+  }
+
+  private static String genresKey(String userId) {
+    return KEY_PREFIX + userId + ":genres";
+  }
+
+  private static String directorsKey(String userId) {
+    return KEY_PREFIX + userId + ":directors";
+  }
+
+  private static String decadesKey(String userId) {
+    return KEY_PREFIX + userId + ":decades";
+  }
+
+  private static String readyKey(String userId) {
+    return KEY_PREFIX + userId + ":ready";
+  }
+
+  private record MovieAttributes(Set<String> genres, String director, Integer decade) {}
+}
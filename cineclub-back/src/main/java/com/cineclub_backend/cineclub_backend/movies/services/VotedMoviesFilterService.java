@@ -0,0 +1,161 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import com.cineclub_backend.cineclub_backend.movies.models.MovieVote;
+import com.cineclub_backend.cineclub_backend.movies.services.MovieCatalogIndexService.Snapshot;
+import com.cineclub_backend.cineclub_backend.shared.helpers.BloomFilterHelper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Filtro de Bloom por usuario con todas las películas que votó (UP o DOWN), guardado en Redis
+ * como bitmap. Permite excluir las películas ya votadas de las recomendaciones sin traer el
+ * conjunto completo de ids: un usuario con 5.000 votos ocupa unos 12 KB.
+ *
+ * <p>Un falso positivo solo descarta una película que el usuario no votó (~1%), nunca deja pasar
+ * una votada.
+ *
+ * <p>Traducir el filtro a ordinales recorre todo el catálogo, así que el resultado se guarda en
+ * memoria por usuario y se reutiliza mientras no cambien ni el filtro ni el snapshot.
+ */
+@Service
+public class VotedMoviesFilterService {
+
+  private static final String KEY_PREFIX = "user_profile:";
+  private static final int MIN_CAPACITY = 256;
+
+  private final RedisTemplate<String, String> redisTemplate;
+  private final MongoTemplate mongoTemplate;
+  private final Cache<String, Excluded> excludedByUser;
+
+  public VotedMoviesFilterService(
+    RedisTemplate<String, String> redisTemplate,
+    MongoTemplate mongoTemplate,
+    @Value("${recommendations.voted-filter.cache-size:2000}") int cacheSize
+  ) {
+    this.redisTemplate = redisTemplate;
+    this.mongoTemplate = mongoTemplate;
+    this.excludedByUser = Caffeine.newBuilder()
+      .maximumSize(cacheSize)
+      .expireAfterAccess(Duration.ofMinutes(30))
+      .build();
+  }
+
+  /**
+   * Ordinales del catálogo que el usuario probablemente ya votó. Devuelve una copia que el
+   * llamador puede modificar.
+   */
+  public BitSet excludedOrdinals(String userId, Snapshot catalog) {
+    byte[] key = bytes(filterKey(userId));
+    byte[] filter = redisTemplate.execute(
+      (RedisCallback<byte[]>) connection -> connection.stringCommands().get(key)
+    );
+    if (filter == null || filter.length == 0) {
+      filter = rebuild(userId);
+    }
+
+    Excluded cached = excludedByUser.getIfPresent(userId);
+    if (cached != null && cached.catalog() == catalog && Arrays.equals(cached.filter(), filter)) {
+      return (BitSet) cached.ordinals().clone();
+    }
+
+    BitSet excluded = new BitSet(catalog.size());
+    for (int ordinal = 0; ordinal < catalog.size(); ordinal++) {
+      if (BloomFilterHelper.mightContain(filter, catalog.movieId(ordinal))) {
+        excluded.set(ordinal);
+      }
+    }
+    excludedByUser.put(userId, new Excluded(catalog, filter, excluded));
+    return (BitSet) excluded.clone();
+  }
+
+  /**
+   * Un voto nuevo se agrega con SETBIT. Un filtro de Bloom no admite borrar: al quitar un voto el
+   * filtro queda como está y esa película sigue excluida hasta la próxima reconstrucción, lo que
+   * evita releer todos los votos del usuario. Cambiar UP por DOWN no lo afecta.
+   */
+  public void applyVote(
+    String userId,
+    String movieId,
+    MovieVote.VoteType previous,
+    MovieVote.VoteType current
+  ) {
+    if (current == null || previous != null) {
+      return;
+    }
+
+    byte[] key = bytes(filterKey(userId));
+    Long length = redisTemplate.execute(
+      (RedisCallback<Long>) connection -> connection.stringCommands().strLen(key)
+    );
+    if (length == null || length == 0) {
+      return;
+    }
+
+    long[] offsets = BloomFilterHelper.offsets(movieId, length * 8);
+    List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      for (long offset : offsets) {
+        connection.stringCommands().setBit(key, offset, true);
+      }
+      connection.stringCommands().incr(bytes(countKey(userId)));
+      return null;
+    });
+
+    // Pasada la capacidad los falsos positivos crecen rápido: se rehace con el doble de espacio
+    Object count = results.get(results.size() - 1);
+    if (count instanceof Long votes && votes > BloomFilterHelper.capacityOf(length)) {
+      rebuild(userId);
+    }
+  }
+
+  /**
+   * Reconstruye el filtro desde movie_votes con capacidad para el doble de los votos actuales
+   */
+  public byte[] rebuild(String userId) {
+    Query voteQuery = new Query(Criteria.where("user_id").is(userId));
+    voteQuery.fields().include("movie_id");
+    List<MovieVote> votes = mongoTemplate.find(voteQuery, MovieVote.class, "movie_votes");
+
+    byte[] filter = new byte[BloomFilterHelper.sizeInBytes(
+      Math.max(MIN_CAPACITY, votes.size() * 2)
+    )];
+    for (MovieVote vote : votes) {
+      BloomFilterHelper.add(filter, vote.getMovieId());
+    }
+
+    redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      connection.stringCommands().set(bytes(filterKey(userId)), filter);
+      connection.stringCommands().set(bytes(countKey(userId)), bytes(String.valueOf(votes.size())));
+      return null;
+    });
+    return filter;
+  }
+
+  /**
+   * Ordinales excluidos calculados para un filtro y un snapshot concretos
+   */
+  private record Excluded(Snapshot catalog, byte[] filter, BitSet ordinals) {}
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String filterKey(String userId) {
+    return KEY_PREFIX + userId + ":voted_filter";
+  }
+
+  private static String countKey(String userId) {
+    return KEY_PREFIX + userId + ":voted_count";
+  }
+}
@@ -47,6 +47,15 @@ public class ReviewsController {
     @ParameterObject FindReviewPagedDto findReviewPagedDto,
     @AuthenticationPrincipal String userId
   ) {
+    if (findReviewPagedDto.usesCursor()) {
+      return new PagedResponseDto<>(
+        crudReviewService.getPagedReviewsByCursor(
+          findReviewPagedDto,
+          findReviewPagedDto.getUserId(),
+          userId
+        )
+      );
+    }
     Page<ReviewDto> reviews = crudReviewService.getPagedReviews(
       findReviewPagedDto,
       findReviewPagedDto.getUserId(),
@@ -74,6 +83,11 @@ public class ReviewsController {
     @ParameterObject FindReviewPagedDto findReviewPagedDto,
     @AuthenticationPrincipal String userId
   ) {
+    if (findReviewPagedDto.usesCursor()) {
+      return new PagedResponseDto<>(
+        crudReviewService.getPagedReviewsByCursor(findReviewPagedDto, userId, userId)
+      );
+    }
     Page<ReviewDto> reviews = crudReviewService.getPagedReviews(findReviewPagedDto, userId, userId);
     return new PagedResponseDto<>(reviews);
   }
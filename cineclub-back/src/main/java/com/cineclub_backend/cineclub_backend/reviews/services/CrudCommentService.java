@@ -6,6 +6,8 @@ import com.cineclub_backend.cineclub_backend.reviews.dots.UpdateCommentDto;
 import com.cineclub_backend.cineclub_backend.reviews.models.Comment;
 import com.cineclub_backend.cineclub_backend.reviews.models.Review;
 import com.cineclub_backend.cineclub_backend.reviews.repositories.CommentRepository;
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences;
+import com.cineclub_backend.cineclub_backend.shared.migrations.MigrationService;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -30,17 +32,20 @@ public class CrudCommentService {
   private final CommentRepository commentRepository;
   private final CrudReviewService crudReviewService;
   private final CrudCommentLikeService crudCommentLikeService;
+  private final MigrationService migrationService;
 
   public CrudCommentService(
     MongoTemplate mongoTemplate,
     CommentRepository commentRepository,
     @Lazy CrudReviewService crudReviewService,
-    CrudCommentLikeService crudCommentLikeService
+    CrudCommentLikeService crudCommentLikeService,
+    MigrationService migrationService
   ) {
     this.mongoTemplate = mongoTemplate;
     this.commentRepository = commentRepository;
     this.crudReviewService = crudReviewService;
     this.crudCommentLikeService = crudCommentLikeService;
+    this.migrationService = migrationService;
   }
 
   public Page<CommentDto> findPagedByReviewId(String reviewId, String userId, Pageable pageable) {
@@ -50,53 +55,81 @@ public class CrudCommentService {
       Aggregation.match(Criteria.where("review_id").is(reviewId).and("parent_id").is(null))
     );
 
+    // Mientras la migración de comments o comment_likes no terminó, las respuestas y los likes
+    // se unen por parent_id/comment_id contra el _id en texto
+    boolean repliesMigrated = isMigrated("comments");
+    boolean likesMigrated = isMigrated("comment_likes");
+
+    List<AggregationOperation> dataOperations = new ArrayList<>();
+    dataOperations.add(Aggregation.sort(pageable.getSort()));
+    dataOperations.add(Aggregation.skip((long) pageable.getPageNumber() * pageable.getPageSize()));
+    dataOperations.add(Aggregation.limit(pageable.getPageSize()));
+    dataOperations.add(Aggregation.lookup("users", "user_id", "_id", "userDetails"));
+    dataOperations.add(Aggregation.unwind("userDetails", true));
+    if (!repliesMigrated || !likesMigrated) {
+      dataOperations.add(ObjectIdReferences.idAsString());
+    }
+    dataOperations.add(
+      Aggregation.stage(
+        "{ $lookup: { " +
+          "  from: 'comments', " +
+          "  localField: '" +
+          idField(repliesMigrated) +
+          "', " +
+          "  foreignField: '" +
+          (repliesMigrated ? "parent_oid" : "parent_id") +
+          "', " +
+          "  pipeline: [ " +
+          "    { $lookup: { " +
+          "        from: 'users', " +
+          "        localField: 'user_id', " +
+          "        foreignField: '_id', " +
+          "        as: 'replyUserDetails' " +
+          "    } }, " +
+          "    { $unwind: { path: '$replyUserDetails', preserveNullAndEmptyArrays: true } }, " +
+          (likesMigrated
+              ? ""
+              : "    { $addFields: { " +
+                ObjectIdReferences.ID_AS_STRING +
+                ": { $toString: '$_id' } } }, ") +
+          "    { $lookup: { " +
+          "        from: 'comment_likes', " +
+          "        localField: '" +
+          idField(likesMigrated) +
+          "', " +
+          "        foreignField: '" +
+          (likesMigrated ? "comment_oid" : "comment_id") +
+          "', " +
+          "        as: 'replyLikes' " +
+          "    } }, " +
+          "    { $sort: { created_at: 1 } } " +
+          "  ], " +
+          "  as: 'replies' " +
+          "} }"
+      )
+    );
+    dataOperations.add(
+      Aggregation.stage(
+        "{ $lookup: { " +
+          "  from: 'comment_likes', " +
+          "  localField: '" +
+          idField(likesMigrated) +
+          "', " +
+          "  foreignField: '" +
+          (likesMigrated ? "comment_oid" : "comment_id") +
+          "', " +
+          "  pipeline: [ " +
+          "    { $sort: { created_at: 1 } } " +
+          "  ], " +
+          "  as: 'likes' " +
+          "} }"
+      )
+    );
+
     FacetOperation facet = Aggregation.facet()
       .and(Aggregation.count().as("total"))
       .as("metadata")
-      .and(
-        Aggregation.sort(pageable.getSort()),
-        Aggregation.skip((long) pageable.getPageNumber() * pageable.getPageSize()),
-        Aggregation.limit(pageable.getPageSize()),
-        Aggregation.lookup("users", "user_id", "_id", "userDetails"),
-        Aggregation.unwind("userDetails", true),
-        Aggregation.stage(
-          "{ $lookup: { " +
-            "  from: 'comments', " +
-            "  let: { root_id: { $toString: '$_id' } }, " +
-            "  pipeline: [ " +
-            "    { $match: { $expr: { $eq: ['$parent_id', '$$root_id'] } } }, " +
-            "    { $lookup: { " +
-            "        from: 'users', " +
-            "        localField: 'user_id', " +
-            "        foreignField: '_id', " +
-            "        as: 'replyUserDetails' " +
-            "    } }, " +
-            "    { $unwind: { path: '$replyUserDetails', preserveNullAndEmptyArrays: true } }, " +
-            "    { $lookup: { " +
-            "        from: 'comment_likes', " +
-            "        let: { reply_id: { $toString: '$_id' } }, " +
-            "        pipeline: [ " +
-            "          { $match: { $expr: { $eq: ['$comment_id', '$$reply_id'] } } } " +
-            "        ], " +
-            "        as: 'replyLikes' " +
-            "    } }, " +
-            "    { $sort: { created_at: 1 } } " +
-            "  ], " +
-            "  as: 'replies' " +
-            "} }"
-        ),
-        Aggregation.stage(
-          "{ $lookup: { " +
-            "  from: 'comment_likes', " +
-            "  let: { root_id: { $toString: '$_id' } }, " +
-            "  pipeline: [ " +
-            "    { $match: { $expr: { $eq: ['$comment_id', '$$root_id'] } } }, " +
-            "    { $sort: { created_at: 1 } } " +
-            "  ], " +
-            "  as: 'likes' " +
-            "} }"
-        )
-      )
+      .and(dataOperations.toArray(new AggregationOperation[0]))
       .as("data");
 
     operations.add(facet);
@@ -126,6 +159,17 @@ public class CrudCommentService {
     return new PageImpl<>(dtos, pageable, total);
   }
 
+  private boolean isMigrated(String collection) {
+    return migrationService.isDone(ObjectIdReferences.migrationId(collection));
+  }
+
+  /**
+   * _id del comentario para unir: el ObjectId o, sin migrar, su copia en texto
+   */
+  private static String idField(boolean migrated) {
+    return migrated ? "_id" : ObjectIdReferences.ID_AS_STRING;
+  }
+
   public String createComment(CreateCommentDto commentDto, String userId) {
     Review reviewExists = crudReviewService.findById(commentDto.getReviewId());
 
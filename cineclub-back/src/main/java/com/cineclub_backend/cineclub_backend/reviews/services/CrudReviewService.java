@@ -1,13 +1,20 @@
 package com.cineclub_backend.cineclub_backend.reviews.services;
 
 import com.cineclub_backend.cineclub_backend.movies.dtos.MovieDto;
+import com.cineclub_backend.cineclub_backend.movies.helpers.DirectorFallbackHelper;
+import com.cineclub_backend.cineclub_backend.movies.migrations.MovieDirectorMigration;
 import com.cineclub_backend.cineclub_backend.movies.services.CrudMovieService;
+import com.cineclub_backend.cineclub_backend.movies.services.GenreService;
 import com.cineclub_backend.cineclub_backend.reviews.dots.CreateReviewDto;
 import com.cineclub_backend.cineclub_backend.reviews.dots.FindReviewPagedDto;
 import com.cineclub_backend.cineclub_backend.reviews.dots.ReviewDto;
 import com.cineclub_backend.cineclub_backend.reviews.dots.UpdateReviewDto;
 import com.cineclub_backend.cineclub_backend.reviews.models.Review;
 import com.cineclub_backend.cineclub_backend.reviews.repositories.ReviewRepository;
+import com.cineclub_backend.cineclub_backend.shared.dtos.CursorSlice;
+import com.cineclub_backend.cineclub_backend.shared.helpers.CursorPaginationHelper;
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences;
+import com.cineclub_backend.cineclub_backend.shared.migrations.MigrationService;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -16,6 +23,7 @@ import org.bson.Document;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
@@ -32,19 +40,25 @@ public class CrudReviewService {
   private final CrudMovieService movieService;
   private final CrudCommentService commentService;
   private final CrudReviewLikeService reviewLikeService;
+  private final GenreService genreService;
+  private final MigrationService migrationService;
 
   public CrudReviewService(
     MongoTemplate mongoTemplate,
     ReviewRepository reviewRepository,
     CrudMovieService movieService,
     CrudCommentService commentService,
-    CrudReviewLikeService reviewLikeService
+    CrudReviewLikeService reviewLikeService,
+    GenreService genreService,
+    MigrationService migrationService
   ) {
     this.mongoTemplate = mongoTemplate;
     this.reviewRepository = reviewRepository;
     this.movieService = movieService;
     this.commentService = commentService;
     this.reviewLikeService = reviewLikeService;
+    this.genreService = genreService;
+    this.migrationService = migrationService;
   }
 
   public Page<ReviewDto> getPagedReviews(
@@ -54,107 +68,18 @@ public class CrudReviewService {
   ) {
     Pageable pageable = params.toPageable();
 
-    List<AggregationOperation> operations = new ArrayList<>();
-
-    operations.add(
-      Aggregation.stage(
-        "{ $lookup: { " +
-          "  from: 'movies', " +
-          "  let: { movie_id_str: { $toString: '$movie_id' } }, " +
-          "  pipeline: [ " +
-          "    { $match: { $expr: { $eq: [{ $toString: '$_id' }, '$$movie_id_str'] } } } " +
-          "  ], " +
-          "  as: 'movie' " +
-          "} }"
-      )
-    );
-    operations.add(Aggregation.unwind("movie", true));
-
-    operations.add(
-      Aggregation.stage(
-        "{ $lookup: { " +
-          "  from: 'directors', " +
-          "  let: { movie_id_str: { $toString: '$movie_id' } }, " +
-          "  pipeline: [ " +
-          "    { $match: { $expr: { $eq: ['$movie_id', '$$movie_id_str'] } } } " +
-          "  ], " +
-          "  as: 'director' " +
-          "} }"
-      )
-    );
-    operations.add(Aggregation.unwind("director", true));
-
-    operations.add(
-      Aggregation.stage(
-        "{ $lookup: { " +
-          "  from: 'users', " +
-          "  let: { user_id_str: { $toString: '$user_id' } }, " +
-          "  pipeline: [ " +
-          "    { $match: { $expr: { $eq: [{ $toString: '$_id' }, '$$user_id_str'] } } } " +
-          "  ], " +
-          "  as: 'user' " +
-          "} }"
-      )
-    );
-    operations.add(Aggregation.unwind("user", true));
+    List<AggregationOperation> operations = filterOperations(params, userId);
 
-    searchParams(params, operations, userId);
+    List<AggregationOperation> dataOperations = new ArrayList<>();
+    dataOperations.add(Aggregation.sort(pageable.getSort()));
+    dataOperations.add(Aggregation.skip((long) pageable.getPageNumber() * pageable.getPageSize()));
+    dataOperations.add(Aggregation.limit(pageable.getPageSize()));
+    dataOperations.addAll(projectionOperations());
 
     FacetOperation facetOperation = Aggregation.facet()
       .and(Aggregation.count().as("total"))
       .as("metadata")
-      .and(
-        Aggregation.sort(pageable.getSort()),
-        Aggregation.skip((long) pageable.getPageNumber() * pageable.getPageSize()),
-        Aggregation.limit(pageable.getPageSize()),
-        Aggregation.stage(
-          "{$lookup: { " +
-            "  from: 'review_likes', " +
-            "  let: { review_id_str: { $toString: '$_id' } }, " +
-            "  pipeline: [ " +
-            "    { $match: { $expr: { $eq: ['$review_id', '$$review_id_str'] } } } " +
-            "  ], " +
-            "  as: 'review_likes' " +
-            "} }"
-        ),
-        Aggregation.stage(
-          "{$lookup: { " +
-            "  from: 'comments', " +
-            "  let: { review_id_str: { $toString: '$_id' } }, " +
-            "  pipeline: [ " +
-            "    { $match: { $expr: { $eq: ['$review_id', '$$review_id_str'] } } } " +
-            "  ], " +
-            "  as: 'comments' " +
-            "} }"
-        ),
-        Aggregation.project()
-          .and("_id")
-          .as("id")
-          .and("movie.title")
-          .as("title")
-          .and("content")
-          .as("content")
-          .and("rating")
-          .as("rating")
-          .and("user.fullName")
-          .as("reviewerName")
-          .and("director.director")
-          .as("directorName")
-          .and("movie.poster_path")
-          .as("posterPath")
-          .and("movie_id")
-          .as("movieId")
-          .and("user_id")
-          .as("userId")
-          .and("created_at")
-          .as("createdAt")
-          .and("updated_at")
-          .as("updatedAt")
-          .and("review_likes")
-          .as("reviewLikes")
-          .and("comments")
-          .as("comments")
-      )
+      .and(dataOperations.toArray(new AggregationOperation[0]))
       .as("data");
 
     operations.add(facetOperation);
@@ -186,39 +111,214 @@ public class CrudReviewService {
     return new PageImpl<>(reviewDtos, pageable, total);
   }
 
-  private void searchParams(
+  /**
+   * Igual que {@link #getPagedReviews} pero paginando por cursor: sin conteo ni $skip
+   */
+  public CursorSlice<ReviewDto> getPagedReviewsByCursor(
     FindReviewPagedDto params,
-    List<AggregationOperation> operations,
-    String userId
+    String userId,
+    String loggedUserId
   ) {
-    if (params.getTitle() != null) {
-      operations.add(
-        Aggregation.match(Criteria.where("movie.title").regex(params.getTitle(), "i"))
-      );
+    Pageable pageable = params.toPageable();
+
+    // Sin filtros ni orden sobre la película o el usuario, el keyset se aplica sobre reviews y
+    // solo se unen los documentos de la página
+    List<AggregationOperation> operations = reviewFilters(params, userId);
+    List<AggregationOperation> page = CursorPaginationHelper.stages(
+      pageable.getSort(),
+      params.getAfter(),
+      pageable.getPageSize()
+    );
+    if (needsJoinBeforePaging(params, pageable.getSort())) {
+      operations.addAll(joinOperations());
+      operations.addAll(joinedFilters(params));
+      operations.addAll(page);
+    } else {
+      operations.addAll(page);
+      operations.addAll(joinOperations());
+    }
+    operations.addAll(projectionOperations());
+
+    List<Document> data = mongoTemplate
+      .aggregate(Aggregation.newAggregation(operations), "reviews", Document.class)
+      .getMappedResults();
+
+    return CursorPaginationHelper.toSlice(data, pageable.getPageSize(), doc ->
+      documentToDto(doc, loggedUserId)
+    );
+  }
+
+  private List<AggregationOperation> filterOperations(FindReviewPagedDto params, String userId) {
+    List<AggregationOperation> operations = reviewFilters(params, userId);
+    operations.addAll(joinOperations());
+    operations.addAll(joinedFilters(params));
+    return operations;
+  }
+
+  private List<AggregationOperation> joinOperations() {
+    List<AggregationOperation> operations = new ArrayList<>();
+    operations.addAll(movieLookup());
+    operations.add(Aggregation.unwind("movie", true));
+    operations.addAll(pendingDirectorOperations());
+    operations.add(Aggregation.lookup("users", "user_id", "_id", "user"));
+    operations.add(Aggregation.unwind("user", true));
+    return operations;
+  }
+
+  /**
+   * Película de la reseña por movie_oid, o por movie_id mientras la migración de reviews no
+   * terminó
+   */
+  private List<AggregationOperation> movieLookup() {
+    return ObjectIdReferences.lookupReferenced(
+      ObjectIdReferences.of("reviews", "movie_id"),
+      isMigrated("reviews"),
+      "movies",
+      "movie"
+    );
+  }
+
+  /**
+   * Likes y comentarios de la reseña por review_oid, o por review_id mientras la migración de
+   * cada colección no terminó
+   */
+  private List<AggregationOperation> likesAndCommentsLookups() {
+    List<AggregationOperation> operations = new ArrayList<>(
+      ObjectIdReferences.lookupReferencing(
+        ObjectIdReferences.of("review_likes", "review_id"),
+        isMigrated("review_likes"),
+        "review_likes"
+      )
+    );
+    operations.addAll(
+      ObjectIdReferences.lookupReferencing(
+        ObjectIdReferences.of("comments", "review_id"),
+        isMigrated("comments"),
+        "comments"
+      )
+    );
+    return operations;
+  }
+
+  private boolean isMigrated(String collection) {
+    return migrationService.isDone(ObjectIdReferences.migrationId(collection));
+  }
+
+  /**
+   * Hasta que MovieDirectorMigration termine, el director (y el director_id del filtro) de las
+   * películas que todavía no lo tienen se busca en directors
+   */
+  private List<AggregationOperation> pendingDirectorOperations() {
+    if (migrationService.isDone(MovieDirectorMigration.ID)) {
+      return List.of();
     }
+    return DirectorFallbackHelper.stages("$movie_id", "movie.");
+  }
+
+  private boolean needsJoinBeforePaging(FindReviewPagedDto params, Sort sort) {
+    if (params.getTitle() != null || params.getGender() != null || params.getDirectorId() != null) {
+      return true;
+    }
+    return sort
+      .stream()
+      .anyMatch(order ->
+        order.getProperty().startsWith("movie.") || order.getProperty().startsWith("user.")
+      );
+  }
+
+  /**
+   * Likes, comentarios y proyección al formato de ReviewDto, solo para la página pedida
+   */
+  private List<AggregationOperation> projectionOperations() {
+    List<AggregationOperation> operations = likesAndCommentsLookups();
+    operations.add(
+      Aggregation.project()
+        .and("_id")
+        .as("id")
+        .and("movie.title")
+        .as("title")
+        .and("content")
+        .as("content")
+        .and("rating")
+        .as("rating")
+        .and("user.fullName")
+        .as("reviewerName")
+        .and("movie.director")
+        .as("directorName")
+        .and("movie.poster_path")
+        .as("posterPath")
+        .and("movie_id")
+        .as("movieId")
+        .and("user_id")
+        .as("userId")
+        .and("created_at")
+        .as("createdAt")
+        .and("updated_at")
+        .as("updatedAt")
+        .and("review_likes")
+        .as("reviewLikes")
+        .and("comments")
+        .as("comments")
+        .and(CursorPaginationHelper.CURSOR_FIELD)
+        .as(CursorPaginationHelper.CURSOR_FIELD)
+    );
+    return operations;
+  }
+
+  /**
+   * Filtros sobre los campos propios de la reseña; van antes de cualquier $lookup
+   */
+  private List<AggregationOperation> reviewFilters(FindReviewPagedDto params, String userId) {
+    List<AggregationOperation> operations = new ArrayList<>();
     if (userId != null) {
       operations.add(Aggregation.match(Criteria.where("user_id").is(userId)));
     }
     if (params.getMovieId() != null) {
       operations.add(Aggregation.match(Criteria.where("movie_id").is(params.getMovieId())));
     }
-    if (params.getGender() != null) {
-      operations.add(
-        Aggregation.match(Criteria.where("movie.genres").regex(params.getGender(), "i"))
-      );
-    }
     if (params.getRating() != null) {
       operations.add(Aggregation.match(Criteria.where("rating").is(params.getRating())));
     }
-    if (params.getDirectorId() != null) {
-      operations.add(Aggregation.match(Criteria.where("director._id").is(params.getDirectorId())));
-    }
     if (params.getStartDate() != null) {
       operations.add(Aggregation.match(Criteria.where("created_at").gte(params.getStartDate())));
     }
     if (params.getEndDate() != null) {
       operations.add(Aggregation.match(Criteria.where("created_at").lte(params.getEndDate())));
     }
+    return operations;
+  }
+
+  /**
+   * Filtros sobre la película unida; requieren {@link #joinOperations()} antes
+   */
+  private List<AggregationOperation> joinedFilters(FindReviewPagedDto params) {
+    List<AggregationOperation> operations = new ArrayList<>();
+    if (params.getTitle() != null) {
+      operations.add(
+        Aggregation.match(Criteria.where("movie.title").regex(params.getTitle(), "i"))
+      );
+    }
+    if (params.getGender() != null) {
+      // Las películas que la migración de genre_ids aún no alcanzó se filtran por el texto
+      operations.add(
+        Aggregation.match(
+          new Criteria().orOperator(
+            Criteria.where("movie.genre_ids").in(genreService.findIdsByName(params.getGender())),
+            new Criteria()
+              .andOperator(
+                Criteria.where("movie.genre_ids").exists(false),
+                Criteria.where("movie.genres").regex(params.getGender(), "i")
+              )
+          )
+        )
+      );
+    }
+    if (params.getDirectorId() != null) {
+      operations.add(
+        Aggregation.match(Criteria.where("movie.director_id").is(params.getDirectorId()))
+      );
+    }
+    return operations;
   }
 
   public Review findById(String id) {
@@ -228,46 +328,11 @@ public class CrudReviewService {
   public ReviewDto getReviewById(String id, String userId) {
     List<AggregationOperation> operations = new ArrayList<>();
     operations.add(Aggregation.match(Criteria.where("_id").is(id)));
-    operations.add(
-      Aggregation.stage(
-        "{ $lookup: { " +
-          "  from: 'movies', " +
-          "  let: { movie_id_str: { $toString: '$movie_id' } }, " +
-          "  pipeline: [ " +
-          "    { $match: { $expr: { $eq: [{ $toString: '$_id' }, '$$movie_id_str'] } } } " +
-          "  ], " +
-          "  as: 'movie' " +
-          "} }"
-      )
-    );
-    operations.add(
-      Aggregation.stage(
-        "{$lookup: { " +
-          "  from: 'review_likes', " +
-          "  let: { review_id_str: { $toString: '$_id' } }, " +
-          "  pipeline: [ " +
-          "    { $match: { $expr: { $eq: ['$review_id', '$$review_id_str'] } } } " +
-          "  ], " +
-          "  as: 'review_likes' " +
-          "} }"
-      )
-    );
-    operations.add(
-      Aggregation.stage(
-        "{$lookup: { " +
-          "  from: 'comments', " +
-          "  let: { review_id_str: { $toString: '$_id' } }, " +
-          "  pipeline: [ " +
-          "    { $match: { $expr: { $eq: ['$review_id', '$$review_id_str'] } } } " +
-          "  ], " +
-          "  as: 'comments' " +
-          "} }"
-      )
-    );
-    operations.add(Aggregation.lookup("directors", "movie_id", "movie_id", "director"));
+    operations.addAll(movieLookup());
+    operations.addAll(likesAndCommentsLookups());
     operations.add(Aggregation.lookup("users", "user_id", "_id", "user"));
     operations.add(Aggregation.unwind("movie", true));
-    operations.add(Aggregation.unwind("director", true));
+    operations.addAll(pendingDirectorOperations());
     operations.add(Aggregation.unwind("user", true));
     operations.add(
       Aggregation.project()
@@ -281,7 +346,7 @@ public class CrudReviewService {
         .as("rating")
         .and("user.fullName")
         .as("reviewerName")
-        .and("director.director")
+        .and("movie.director")
         .as("directorName")
         .and("movie.poster_path")
         .as("posterPath")
@@ -0,0 +1,20 @@
+package com.cineclub_backend.cineclub_backend.shared.dtos;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Página obtenida por cursor: no incluye total, solo el cursor para pedir la siguiente
+ */
+@Data
+@AllArgsConstructor
+public class CursorSlice<T> {
+
+  private List<T> data;
+
+  /**
+   * Cursor opaco para el parámetro after; null si no hay más resultados
+   */
+  private String nextCursor;
+}
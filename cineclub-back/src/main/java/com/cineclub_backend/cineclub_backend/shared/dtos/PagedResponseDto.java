@@ -1,19 +1,26 @@
 package com.cineclub_backend.cineclub_backend.shared.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 import lombok.Data;
 import org.springframework.data.domain.Page;
 
+/**
+ * Respuesta paginada. En modo cursor no se calcula el total, así que page, total, totalPages y
+ * hasPrevious se omiten y se devuelve nextCursor.
+ */
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PagedResponseDto<T> {
 
   private List<T> data;
-  private int page;
+  private Integer page;
   private int size;
-  private long total;
-  private int totalPages;
+  private Long total;
+  private Integer totalPages;
   private boolean hasNext;
-  private boolean hasPrevious;
+  private Boolean hasPrevious;
+  private String nextCursor;
 
   public PagedResponseDto(Page<T> page) {
     this.data = page.getContent();
@@ -24,4 +31,11 @@ public class PagedResponseDto<T> {
     this.hasNext = page.hasNext();
     this.hasPrevious = page.hasPrevious();
   }
+
+  public PagedResponseDto(CursorSlice<T> slice) {
+    this.data = slice.getData();
+    this.size = slice.getData().size();
+    this.hasNext = slice.getNextCursor() != null;
+    this.nextCursor = slice.getNextCursor();
+  }
 }
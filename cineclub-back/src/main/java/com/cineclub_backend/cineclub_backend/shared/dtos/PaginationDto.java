@@ -18,6 +18,23 @@ public class PaginationDto {
   @Schema(defaultValue = "created_at,asc")
   private String[] sort = { "created_at", "asc" };
 
+  @Schema(description = "Cursor (nextCursor de la respuesta anterior) para paginar por cursor")
+  private String after;
+
+  @Schema(
+    defaultValue = "false",
+    description = "Pide la primera página en modo cursor: sin total, con nextCursor"
+  )
+  private boolean cursor;
+
+  /**
+   * El modo cursor evita el $facet con conteo y $skip; conviene para listas largas o scroll
+   * infinito donde no se necesita el total
+   */
+  public boolean usesCursor() {
+    return cursor || (after != null && !after.isBlank());
+  }
+
   public Pageable toPageable() {
     int pageNumber = page > 0 ? page - 1 : 0;
 
@@ -0,0 +1,69 @@
+package com.cineclub_backend.cineclub_backend.shared.exports;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * /exports/{collection}: requiere las credenciales de docs (ver SecurityConfig)
+ */
+@RestController
+@RequestMapping("/exports")
+@Tag(name = "Exports", description = "Volcados completos de colecciones para análisis")
+public class ExportController {
+
+  private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern(
+    "yyyyMMdd-HHmmss"
+  );
+
+  private final ExportService exportService;
+
+  public ExportController(ExportService exportService) {
+    this.exportService = exportService;
+  }
+
+  @GetMapping("/{collection}")
+  @Operation(
+    summary = "Exportar colección",
+    description = "Descarga movies, movie_votes o reviews como NDJSON o CSV, con gzip opcional"
+  )
+  public ResponseEntity<StreamingResponseBody> export(
+    @PathVariable String collection,
+    @RequestParam(defaultValue = "NDJSON") ExportService.Format format,
+    @RequestParam(defaultValue = "false") boolean gzip
+  ) {
+    exportService.requireCollection(collection);
+
+    String fileName =
+      collection +
+      "-" +
+      LocalDateTime.now().format(FILE_TIMESTAMP) +
+      (format == ExportService.Format.CSV ? ".csv" : ".ndjson") +
+      (gzip ? ".gz" : "");
+    MediaType contentType = gzip
+      ? MediaType.parseMediaType("application/gzip")
+      : format == ExportService.Format.CSV
+        ? MediaType.parseMediaType("text/csv; charset=UTF-8")
+        : MediaType.parseMediaType("application/x-ndjson; charset=UTF-8");
+
+    StreamingResponseBody body = output -> exportService.export(collection, format, gzip, output);
+    return ResponseEntity.ok()
+      .contentType(contentType)
+      .header(
+        HttpHeaders.CONTENT_DISPOSITION,
+        ContentDisposition.attachment().filename(fileName).build().toString()
+      )
+      .body(body);
+  }
+}
@@ -0,0 +1,202 @@
+package com.cineclub_backend.cineclub_backend.shared.exports;
+
+import com.cineclub_backend.cineclub_backend.shared.helpers.CsvHelper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Volcado completo de colecciones para análisis. Los documentos van del cursor de Mongo a la
+ * respuesta de a uno (lotes de {@code exports.batch-size}), así la memoria no depende del tamaño
+ * de la colección. Los ObjectId salen como hex y las fechas en ISO-8601 (UTC).
+ */
+@Service
+@Slf4j
+public class ExportService {
+
+  public enum Format {
+    NDJSON,
+    CSV,
+  }
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Colecciones exportables con sus columnas en CSV; NDJSON exporta los documentos completos
+   */
+  private static final Map<String, List<String>> COLUMNS = new LinkedHashMap<>();
+
+  static {
+    COLUMNS.put(
+      "movies",
+      List.of(
+        "_id",
+        "external_id",
+        "title",
+        "overview",
+        "genres",
+        "genre_ids",
+        "release_date",
+        "poster_path",
+        "runtime",
+        "original_language",
+        "up_votes",
+        "down_votes",
+        "director",
+        "director_id"
+      )
+    );
+    COLUMNS.put(
+      "movie_votes",
+      List.of("_id", "user_id", "movie_id", "type", "created_at", "updated_at")
+    );
+    COLUMNS.put(
+      "reviews",
+      List.of("_id", "user_id", "movie_id", "rating", "content", "created_at", "updated_at")
+    );
+  }
+
+  private final MongoTemplate mongoTemplate;
+  private final int batchSize;
+  // Sin cerrar ni vaciar el writer en cada documento: lo vacía el buffer
+  private final ObjectMapper objectMapper = new ObjectMapper()
+    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+    .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+  public ExportService(
+    MongoTemplate mongoTemplate,
+    @Value("${exports.batch-size:1000}") int batchSize
+  ) {
+    this.mongoTemplate = mongoTemplate;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Se valida antes de empezar a responder: una vez abierto el stream ya no se puede devolver 404
+   */
+  public void requireCollection(String collection) {
+    if (!COLUMNS.containsKey(collection)) {
+      throw new NoSuchElementException("La colección " + collection + " no se puede exportar");
+    }
+  }
+
+  /**
+   * Escribe la colección en el stream. Con gzip se termina el stream comprimido pero no se cierra
+   * {@code output}, que pertenece al llamador.
+   */
+  public void export(String collection, Format format, boolean gzip, OutputStream output)
+    throws IOException {
+    requireCollection(collection);
+    long start = System.currentTimeMillis();
+
+    GZIPOutputStream compressed = gzip ? new GZIPOutputStream(output, BUFFER_SIZE) : null;
+    Writer writer = new BufferedWriter(
+      new OutputStreamWriter(compressed != null ? compressed : output, StandardCharsets.UTF_8),
+      BUFFER_SIZE
+    );
+
+    List<String> columns = COLUMNS.get(collection);
+    Query query = new Query().cursorBatchSize(batchSize);
+    if (format == Format.CSV) {
+      columns.forEach(column -> query.fields().include(column));
+    }
+
+    long count = 0;
+    try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, collection)) {
+      Iterator<Document> iterator = documents.iterator();
+      if (format == Format.CSV) {
+        CsvHelper.RowWriter csv = CsvHelper.write(writer);
+        csv.writeRow(columns);
+        List<Object> row = new ArrayList<>(columns.size());
+        while (iterator.hasNext()) {
+          Document document = iterator.next();
+          row.clear();
+          for (String column : columns) {
+            row.add(csvValue(document.get(column)));
+          }
+          csv.writeRow(row);
+          count++;
+        }
+      } else {
+        while (iterator.hasNext()) {
+          objectMapper.writeValue(writer, normalize(iterator.next()));
+          writer.write('\n');
+          count++;
+        }
+      }
+    }
+
+    writer.flush();
+    if (compressed != null) {
+      compressed.finish();
+    }
+    output.flush();
+    log.info(
+      "Exportados {} documentos de {} como {}{} en {} ms",
+      count,
+      collection,
+      format,
+      gzip ? " (gzip)" : "",
+      System.currentTimeMillis() - start
+    );
+  }
+
+  /**
+   * Tipos BSON a valores que Jackson escribe como JSON plano
+   */
+  private static Object normalize(Object value) {
+    if (value instanceof ObjectId id) {
+      return id.toHexString();
+    }
+    if (value instanceof Date date) {
+      return date.toInstant().toString();
+    }
+    if (value instanceof Decimal128 decimal) {
+      return decimal.bigDecimalValue();
+    }
+    if (value instanceof Map<?, ?> map) {
+      Map<Object, Object> normalized = new LinkedHashMap<>();
+      map.forEach((key, entry) -> normalized.put(key, normalize(entry)));
+      return normalized;
+    }
+    if (value instanceof List<?> list) {
+      List<Object> normalized = new ArrayList<>(list.size());
+      list.forEach(entry -> normalized.add(normalize(entry)));
+      return normalized;
+    }
+    return value;
+  }
+
+  /**
+   * Las listas y subdocumentos van como JSON dentro de la celda
+   */
+  private Object csvValue(Object value) throws IOException {
+    Object normalized = normalize(value);
+    return normalized instanceof Map || normalized instanceof List
+      ? objectMapper.writeValueAsString(normalized)
+      : normalized;
+  }
+}
@@ -0,0 +1,84 @@
+package com.cineclub_backend.cineclub_backend.shared.helpers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Filtro de Bloom sobre un arreglo de bytes con el mismo orden de bits que SETBIT/GETBIT de Redis
+ * (el bit 0 es el más significativo del primer byte), así el filtro se puede armar en memoria y
+ * guardarse con SET o actualizarse bit a bit con SETBIT.
+ *
+ * <p>Con 10 bits por elemento y 7 funciones hash la tasa de falsos positivos ronda el 1%.
+ */
+public final class BloomFilterHelper {
+
+  public static final int BITS_PER_ENTRY = 10;
+  public static final int HASHES = 7;
+
+  private BloomFilterHelper() {}
+
+  /**
+   * Tamaño en bytes para {@code capacity} elementos
+   */
+  public static int sizeInBytes(int capacity) {
+    long bits = (long) Math.max(1, capacity) * BITS_PER_ENTRY;
+    return (int) ((bits + 7) / 8);
+  }
+
+  /**
+   * Cantidad de elementos que admite un filtro de {@code bytes} bytes sin superar la tasa de
+   * falsos positivos esperada
+   */
+  public static int capacityOf(long bytes) {
+    return (int) (bytes * 8 / BITS_PER_ENTRY);
+  }
+
+  /**
+   * Offsets de bit del elemento para un filtro de {@code bits} bits (doble hashing)
+   */
+  public static long[] offsets(String item, long bits) {
+    long hash = hash64(item);
+    long h1 = (int) hash;
+    long h2 = (int) (hash >>> 32);
+    long[] offsets = new long[HASHES];
+    for (int i = 0; i < HASHES; i++) {
+      long combined = h1 + i * h2;
+      offsets[i] = (combined < 0 ? ~combined : combined) % bits;
+    }
+    return offsets;
+  }
+
+  public static void add(byte[] filter, String item) {
+    for (long offset : offsets(item, (long) filter.length * 8)) {
+      filter[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+    }
+  }
+
+  public static boolean mightContain(byte[] filter, String item) {
+    if (filter.length == 0) {
+      return false;
+    }
+    for (long offset : offsets(item, (long) filter.length * 8)) {
+      if ((filter[(int) (offset >>> 3)] & (0x80 >>> (offset & 7))) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * FNV-1a de 64 bits con el mezclado final de MurmurHash3 para repartir mejor los bits altos
+   */
+  private static long hash64(String item) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -0,0 +1,221 @@
+package com.cineclub_backend.cineclub_backend.shared.helpers;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * CSV (RFC 4180) en streaming, lectura y escritura: comillas dobles, comillas escapadas ("") y
+ * saltos de línea dentro de campos entre comillas. Solo mantiene en memoria la fila actual.
+ */
+public final class CsvHelper {
+
+  private CsvHelper() {}
+
+  /**
+   * Filas como mapas columna → valor según la primera línea. Las columnas que faltan en una
+   * fila quedan ausentes y las sobrantes se ignoran.
+   */
+  public static Rows read(Reader reader) {
+    return new Rows(
+      reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader)
+    );
+  }
+
+  /**
+   * Escribe filas de a una sobre el writer recibido, sin acumularlas
+   */
+  public static RowWriter write(Writer writer) {
+    return new RowWriter(writer);
+  }
+
+  /**
+   * Una fila sin el salto de línea final; null se escribe como campo vacío
+   */
+  public static String formatRow(Iterable<?> values) {
+    StringBuilder row = new StringBuilder();
+    appendRow(row, values);
+    return row.toString();
+  }
+
+  private static void appendRow(StringBuilder row, Iterable<?> values) {
+    boolean first = true;
+    for (Object value : values) {
+      if (!first) {
+        row.append(',');
+      }
+      first = false;
+      appendField(row, value != null ? value.toString() : "");
+    }
+  }
+
+  /**
+   * Entre comillas solo si el campo tiene coma, comillas o saltos de línea
+   */
+  private static void appendField(StringBuilder row, String field) {
+    boolean quote = false;
+    for (int i = 0; i < field.length() && !quote; i++) {
+      char c = field.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      row.append(field);
+      return;
+    }
+    row.append('"');
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      if (c == '"') {
+        row.append('"');
+      }
+      row.append(c);
+    }
+    row.append('"');
+  }
+
+  public static final class RowWriter implements Closeable, Flushable {
+
+    private final Writer writer;
+    private final StringBuilder row = new StringBuilder();
+
+    private RowWriter(Writer writer) {
+      this.writer = writer;
+    }
+
+    /**
+     * Escribe la fila terminada en CRLF, como pide RFC 4180
+     */
+    public void writeRow(Iterable<?> values) {
+      row.setLength(0);
+      appendRow(row, values);
+      row.append("\r\n");
+      try {
+        writer.append(row);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      writer.close();
+    }
+  }
+
+  public static final class Rows implements Iterator<Map<String, String>>, Closeable {
+
+    private final BufferedReader reader;
+    private final List<String> header;
+    private List<String> next;
+
+    private Rows(BufferedReader reader) {
+      this.reader = reader;
+      List<String> first = readRecord();
+      if (first != null && !first.isEmpty() && first.get(0).startsWith("\uFEFF")) {
+        first.set(0, first.get(0).substring(1));
+      }
+      this.header = first != null ? first : List.of();
+      this.next = first != null ? readRecord() : null;
+    }
+
+    public List<String> getHeader() {
+      return header;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Map<String, String> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      Map<String, String> row = new LinkedHashMap<>();
+      for (int i = 0; i < header.size() && i < next.size(); i++) {
+        row.put(header.get(i), next.get(i));
+      }
+      next = readRecord();
+      return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+
+    /**
+     * Siguiente registro; las líneas vacías se saltean
+     */
+    private List<String> readRecord() {
+      try {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean started = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+          if (quoted) {
+            if (c == '"') {
+              reader.mark(1);
+              if (reader.read() == '"') {
+                field.append('"');
+              } else {
+                reader.reset();
+                quoted = false;
+              }
+            } else {
+              field.append((char) c);
+            }
+            continue;
+          }
+          if (c == '"') {
+            quoted = true;
+            started = true;
+          } else if (c == ',') {
+            fields.add(field.toString());
+            field.setLength(0);
+            started = true;
+          } else if (c == '\n' || c == '\r') {
+            if (c == '\r') {
+              reader.mark(1);
+              if (reader.read() != '\n') {
+                reader.reset();
+              }
+            }
+            if (started || field.length() > 0) {
+              fields.add(field.toString());
+              return fields;
+            }
+          } else {
+            field.append((char) c);
+            started = true;
+          }
+        }
+        if (started || field.length() > 0) {
+          fields.add(field.toString());
+          return fields;
+        }
+        return null;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
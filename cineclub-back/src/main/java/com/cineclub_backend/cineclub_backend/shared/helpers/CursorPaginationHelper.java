@@ -0,0 +1,148 @@
+package com.cineclub_backend.cineclub_backend.shared.helpers;
+
+import com.cineclub_backend.cineclub_backend.shared.dtos.CursorSlice;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Paginación por cursor (keyset) para los listados que usan aggregation. En lugar de $facet con
+ * conteo + $skip, filtra por "después del último elemento" según las claves de orden más _id, así
+ * que cada página cuesta lo mismo sin importar la profundidad.
+ *
+ * <p>El cursor es el JSON extendido de los valores de orden del último elemento, en base64url;
+ * el cliente lo trata como opaco.
+ */
+public final class CursorPaginationHelper {
+
+  /**
+   * Campo con los valores de orden que se agrega a cada documento; las proyecciones de los
+   * servicios deben conservarlo
+   */
+  public static final String CURSOR_FIELD = "_cursor";
+
+  private static final String VALUES = "k";
+
+  private CursorPaginationHelper() {}
+
+  /**
+   * Etapas a insertar donde iría el $facet: filtro por cursor, orden, límite (uno extra para saber
+   * si hay más) y el campo _cursor. Las etapas de proyección van después.
+   */
+  public static List<AggregationOperation> stages(Sort sort, String after, int size) {
+    List<Sort.Order> orders = withIdTieBreaker(sort);
+    List<AggregationOperation> operations = new ArrayList<>();
+
+    if (after != null && !after.isBlank()) {
+      operations.add(Aggregation.match(afterCriteria(orders, decode(after, orders.size()))));
+    }
+    operations.add(Aggregation.sort(Sort.by(orders)));
+    operations.add(Aggregation.limit(Math.max(1, size) + 1L));
+
+    List<String> references = new ArrayList<>();
+    for (Sort.Order order : orders) {
+      references.add("$" + order.getProperty());
+    }
+    operations.add(
+      Aggregation.stage(new Document("$addFields", new Document(CURSOR_FIELD, references)))
+    );
+    return operations;
+  }
+
+  /**
+   * Convierte el resultado de {@link #stages} en la página, descartando el documento extra
+   */
+  public static <T> CursorSlice<T> toSlice(
+    List<Document> documents,
+    int size,
+    Function<Document, T> mapper
+  ) {
+    int limit = Math.max(1, size);
+    boolean hasNext = documents.size() > limit;
+    List<Document> page = hasNext ? documents.subList(0, limit) : documents;
+
+    List<T> data = new ArrayList<>(page.size());
+    for (Document document : page) {
+      data.add(mapper.apply(document));
+    }
+
+    String nextCursor = hasNext
+      ? encode(page.get(page.size() - 1).getList(CURSOR_FIELD, Object.class))
+      : null;
+    return new CursorSlice<>(data, nextCursor);
+  }
+
+  private static List<Sort.Order> withIdTieBreaker(Sort sort) {
+    List<Sort.Order> orders = new ArrayList<>();
+    sort.forEach(orders::add);
+    if (orders.stream().noneMatch(order -> "_id".equals(order.getProperty()))) {
+      orders.add(Sort.Order.asc("_id"));
+    }
+    return orders;
+  }
+
+  /**
+   * (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ... respetando la dirección de cada clave. Los nulos
+   * van primero en orden ascendente y al final en descendente, igual que en Mongo.
+   */
+  private static Criteria afterCriteria(List<Sort.Order> orders, List<Object> values) {
+    List<Criteria> branches = new ArrayList<>();
+    for (int i = 0; i < orders.size(); i++) {
+      Criteria next = nextCriteria(orders.get(i), values.get(i));
+      if (next == null) {
+        continue;
+      }
+      List<Criteria> parts = new ArrayList<>();
+      for (int j = 0; j < i; j++) {
+        parts.add(Criteria.where(orders.get(j).getProperty()).is(values.get(j)));
+      }
+      parts.add(next);
+      branches.add(parts.size() == 1 ? next : new Criteria().andOperator(parts));
+    }
+
+    if (branches.isEmpty()) {
+      return Criteria.where("_id").exists(false);
+    }
+    return branches.size() == 1 ? branches.get(0) : new Criteria().orOperator(branches);
+  }
+
+  private static Criteria nextCriteria(Sort.Order order, Object value) {
+    String key = order.getProperty();
+    if (order.isAscending()) {
+      return value != null ? Criteria.where(key).gt(value) : Criteria.where(key).ne(null);
+    }
+    if (value == null) {
+      return null;
+    }
+    return new Criteria().orOperator(Criteria.where(key).lt(value), Criteria.where(key).is(null));
+  }
+
+  private static String encode(List<Object> values) {
+    String json = new Document(VALUES, values).toJson();
+    return Base64.getUrlEncoder()
+      .withoutPadding()
+      .encodeToString(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<Object> decode(String cursor, int expectedValues) {
+    List<Object> values;
+    try {
+      String json = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      values = Document.parse(json).getList(VALUES, Object.class);
+    } catch (IllegalArgumentException | JsonParseException | ClassCastException e) {
+      throw new IllegalArgumentException("Cursor inválido");
+    }
+    if (values == null || values.size() != expectedValues) {
+      throw new IllegalArgumentException("El cursor no corresponde al orden solicitado");
+    }
+    return values;
+  }
+}
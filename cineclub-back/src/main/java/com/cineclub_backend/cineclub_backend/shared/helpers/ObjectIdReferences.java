@@ -0,0 +1,163 @@
+package com.cineclub_backend.cineclub_backend.shared.helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+
+/**
+ * Referencias entre colecciones que se guardan como id en hexadecimal. Cada una tiene un campo
+ * paralelo con el ObjectId para que los $lookup usen localField/foreignField contra _id o un
+ * índice secundario en lugar de comparar con $toString documento por documento.
+ *
+ * <p>El campo paralelo lo completa ObjectIdReferenceListener al guardar y
+ * ObjectIdReferenceMigration para los documentos existentes. Las escrituras con Update o bulk no
+ * pasan por el listener y tienen que ponerlo a mano (voto, importación). Mientras la migración
+ * de una colección no terminó, los $lookup de sus referencias usan el campo de texto (ver
+ * {@link #lookupReferencing} y {@link #lookupReferenced}).
+ */
+public final class ObjectIdReferences {
+
+  public record Reference(String collection, String field, String objectIdField) {}
+
+  public static final List<Reference> ALL = List.of(
+    new Reference("movie_votes", "movie_id", "movie_oid"),
+    new Reference("directors", "movie_id", "movie_oid"),
+    new Reference("reviews", "movie_id", "movie_oid"),
+    new Reference("comments", "review_id", "review_oid"),
+    new Reference("comments", "parent_id", "parent_oid"),
+    new Reference("review_likes", "review_id", "review_oid"),
+    new Reference("comment_likes", "comment_id", "comment_oid"),
+    new Reference("collections", "movies", "movie_oids")
+  );
+
+  /**
+   * Campo temporal con el _id en texto, para unir por el campo de texto de la referencia
+   */
+  public static final String ID_AS_STRING = "_id_str";
+
+  private ObjectIdReferences() {}
+
+  public static List<Reference> forCollection(String collection) {
+    return ALL.stream().filter(reference -> reference.collection().equals(collection)).toList();
+  }
+
+  public static Reference of(String collection, String field) {
+    return ALL.stream()
+      .filter(reference -> reference.collection().equals(collection))
+      .filter(reference -> reference.field().equals(field))
+      .findFirst()
+      .orElseThrow(() -> new IllegalArgumentException(collection + "." + field));
+  }
+
+  /**
+   * Id de la ObjectIdReferenceMigration de la colección, para MigrationService.isDone
+   */
+  public static String migrationId(String collection) {
+    return "2025-11-object-ids-" + collection;
+  }
+
+  /**
+   * $lookup de los documentos de la colección de la referencia que apuntan al _id actual, por el
+   * campo ObjectId si la migración terminó o por el campo de texto mientras tanto
+   */
+  public static List<AggregationOperation> lookupReferencing(
+    Reference reference,
+    boolean migrated,
+    String as
+  ) {
+    if (migrated) {
+      return List.of(
+        Aggregation.lookup(reference.collection(), "_id", reference.objectIdField(), as)
+      );
+    }
+    return List.of(
+      idAsString(),
+      Aggregation.lookup(reference.collection(), ID_AS_STRING, reference.field(), as)
+    );
+  }
+
+  /**
+   * $lookup de los documentos de {@code from} a los que apunta la referencia; si la migración no
+   * terminó, el campo ObjectId se calcula antes desde el de texto donde falta
+   */
+  public static List<AggregationOperation> lookupReferenced(
+    Reference reference,
+    boolean migrated,
+    String from,
+    String as
+  ) {
+    AggregationOperation lookup = Aggregation.lookup(from, reference.objectIdField(), "_id", as);
+    return migrated ? List.of(lookup) : List.of(fillObjectIdField(reference), lookup);
+  }
+
+  /**
+   * $addFields que copia el _id en texto a {@link #ID_AS_STRING}
+   */
+  public static AggregationOperation idAsString() {
+    return Aggregation.stage(
+      new Document("$addFields", new Document(ID_AS_STRING, new Document("$toString", "$_id")))
+    );
+  }
+
+  /**
+   * $addFields que completa el campo ObjectId desde el de texto (un id o una lista) en los
+   * documentos que la migración todavía no alcanzó
+   */
+  public static AggregationOperation fillObjectIdField(Reference reference) {
+    String field = "$" + reference.field();
+    Document converted = new Document(
+      "$cond",
+      Arrays.asList(
+        new Document("$isArray", field),
+        new Document("$map", new Document("input", field).append("in", toObjectId("$$this"))),
+        toObjectId(field)
+      )
+    );
+    return Aggregation.stage(
+      new Document(
+        "$addFields",
+        new Document(
+          reference.objectIdField(),
+          new Document("$ifNull", Arrays.asList("$" + reference.objectIdField(), converted))
+        )
+      )
+    );
+  }
+
+  private static Document toObjectId(String expression) {
+    return new Document(
+      "$convert",
+      new Document("input", expression)
+        .append("to", "objectId")
+        .append("onError", null)
+        .append("onNull", null)
+    );
+  }
+
+  /**
+   * Convierte un id o una lista de ids; los valores que no son ObjectId válidos quedan en null o
+   * se omiten de la lista
+   */
+  public static Object toObjectIds(Object value) {
+    if (value instanceof ObjectId) {
+      return value;
+    }
+    if (value instanceof String id) {
+      return ObjectId.isValid(id) ? new ObjectId(id) : null;
+    }
+    if (value instanceof List<?> ids) {
+      List<ObjectId> objectIds = new ArrayList<>(ids.size());
+      for (Object id : ids) {
+        if (toObjectIds(id) instanceof ObjectId objectId) {
+          objectIds.add(objectId);
+        }
+      }
+      return objectIds;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,48 @@
+package com.cineclub_backend.cineclub_backend.shared.helpers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Locks simples en Redis (SET NX con TTL). El valor es un token del dueño y se libera con un
+ * compare-and-delete: si el TTL venció y otro nodo tomó el lock, el DEL tardío no lo borra.
+ */
+public final class RedisLockHelper {
+
+  private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+    "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end " +
+    "return 0",
+    Long.class
+  );
+
+  private RedisLockHelper() {}
+
+  /**
+   * Token del lock, o null si lo tiene otro
+   */
+  public static String tryAcquire(RedisTemplate<String, String> redis, String key, Duration ttl) {
+    String token = UUID.randomUUID().toString();
+    return tryAcquire(redis, key, token, ttl) ? token : null;
+  }
+
+  public static boolean tryAcquire(
+    RedisTemplate<String, String> redis,
+    String key,
+    String token,
+    Duration ttl
+  ) {
+    return Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(key, token, ttl));
+  }
+
+  /**
+   * Borra el lock solo si todavía tiene el token de quien lo tomó
+   */
+  public static boolean release(RedisTemplate<String, String> redis, String key, String token) {
+    Long deleted = redis.execute(RELEASE, List.of(key), token);
+    return deleted != null && deleted > 0;
+  }
+}
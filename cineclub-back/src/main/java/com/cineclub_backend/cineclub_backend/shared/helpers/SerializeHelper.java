@@ -45,9 +45,6 @@ public class SerializeHelper {
   }
 
   public static String toCsv(Object obj) {
-    return String.join(
-      ",",
-      toMap(obj).values().stream().map(Object::toString).toArray(String[]::new)
-    );
+    return CsvHelper.formatRow(toMap(obj).values());
   }
 }
@@ -0,0 +1,90 @@
+package com.cineclub_backend.cineclub_backend.shared.indexes;
+
+import com.cineclub_backend.cineclub_backend.movies.migrations.MovieExternalIdUniqueMigration;
+import com.cineclub_backend.cineclub_backend.movies.migrations.MovieVotesUniqueMigration;
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences;
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Índices requeridos por colección. Producción corre con auto-index-creation=false, así que
+ * esta lista es la única fuente: IndexService la compara con lo que existe en Mongo y crea lo
+ * que falta.
+ */
+public final class IndexRegistry {
+
+  public static final List<RequiredIndex> REQUIRED = build();
+
+  private IndexRegistry() {}
+
+  private static List<RequiredIndex> build() {
+    List<RequiredIndex> indexes = new ArrayList<>();
+
+    indexes.add(index("movies", "genre_ids"));
+    indexes.add(index("movies", "director_id"));
+    // Clave del upsert de MovieImportService; único, lo crea la migración que une los duplicados
+    indexes.add(
+      new RequiredIndex(
+        "movies",
+        MovieExternalIdUniqueMigration.uniqueIndex(),
+        MovieExternalIdUniqueMigration.ID
+      )
+    );
+    indexes.add(new RequiredIndex("genres", new Index("key", Direction.ASC).unique()));
+
+    // Único: el voto atómico de CrudMovieVoteService depende de él; lo crea la migración después
+    // de borrar los votos duplicados
+    indexes.add(
+      new RequiredIndex(
+        "movie_votes",
+        new Index().on("user_id", Direction.ASC).on("movie_id", Direction.ASC).unique(),
+        MovieVotesUniqueMigration.ID
+      )
+    );
+    indexes.add(index("movie_votes", "movie_id", "type"));
+    indexes.add(index("directors", "movie_id"));
+    indexes.add(index("directors", "director"));
+
+    indexes.add(index("reviews", "movie_id"));
+    indexes.add(index("reviews", "user_id"));
+    // Orden por defecto del listado de reseñas por cursor
+    indexes.add(index("reviews", "created_at", "_id"));
+    indexes.add(index("comments", "review_id", "parent_id", "created_at"));
+    indexes.add(index("comments", "parent_id"));
+    indexes.add(index("review_likes", "review_id", "user_id"));
+    indexes.add(index("comment_likes", "comment_id", "user_id"));
+
+    indexes.add(index("collections", "user_id"));
+    indexes.add(index("collection_requests", "receiver_id", "status"));
+    indexes.add(index("collection_requests", "sender_id", "receiver_id", "status"));
+
+    indexes.add(
+      new RequiredIndex(
+        "notifications",
+        new Index().on("recipient_id", Direction.ASC).on("created_at", Direction.DESC)
+      )
+    );
+    indexes.add(index("friends", "user_id", "friend_id"));
+    indexes.add(index("friends", "friend_id"));
+    indexes.add(index("friendRequests", "sender_id", "receiver_id"));
+    indexes.add(index("friendRequests", "receiver_id"));
+    indexes.add(index("users", "email"));
+
+    // Los $lookup por ObjectId van contra estos campos
+    for (Reference reference : ObjectIdReferences.ALL) {
+      indexes.add(index(reference.collection(), reference.objectIdField()));
+    }
+    return List.copyOf(indexes);
+  }
+
+  private static RequiredIndex index(String collection, String... fields) {
+    Index index = new Index();
+    for (String field : fields) {
+      index.on(field, Direction.ASC);
+    }
+    return new RequiredIndex(collection, index);
+  }
+}
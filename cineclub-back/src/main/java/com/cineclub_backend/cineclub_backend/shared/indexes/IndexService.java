@@ -0,0 +1,194 @@
+package com.cineclub_backend.cineclub_backend.shared.indexes;
+
+import com.cineclub_backend.cineclub_backend.jobs.services.JobQueueService;
+import com.cineclub_backend.cineclub_backend.shared.migrations.MigrationService;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reconcilia los índices de {@link IndexRegistry} con los que existen en Mongo. La creación corre
+ * en el job worker para no demorar el arranque ni los requests; nunca borra índices, solo informa
+ * los que sobran o no se usan.
+ */
+@Service
+@Slf4j
+public class IndexService {
+
+  public static final String RECONCILE_JOB = "INDEXES_RECONCILE";
+
+  private static final String ID_INDEX = "_id_";
+
+  private final MongoTemplate mongoTemplate;
+  private final JobQueueService jobQueueService;
+  private final MigrationService migrationService;
+  private final boolean reconcileOnStartup;
+
+  public IndexService(
+    MongoTemplate mongoTemplate,
+    JobQueueService jobQueueService,
+    MigrationService migrationService,
+    @Value("${indexes.reconcile-on-startup:true}") boolean reconcileOnStartup
+  ) {
+    this.mongoTemplate = mongoTemplate;
+    this.jobQueueService = jobQueueService;
+    this.migrationService = migrationService;
+    this.reconcileOnStartup = reconcileOnStartup;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void scheduleOnStartup() {
+    if (reconcileOnStartup) {
+      requestReconcile();
+    }
+  }
+
+  /**
+   * Encola la reconciliación; devuelve false si ya hay una pendiente
+   */
+  public boolean requestReconcile() {
+    Map<String, Object> job = new HashMap<>();
+    job.put("type", RECONCILE_JOB);
+    return jobQueueService.enqueueJobOnce(job, RECONCILE_JOB, Duration.ofMinutes(10));
+  }
+
+  /**
+   * Crea los índices declarados que faltan. Un índice que no se puede crear (por ejemplo uno
+   * único con duplicados) se registra y no detiene el resto; los que crea una migración se
+   * posponen hasta que esta termine.
+   */
+  public Map<String, Object> reconcile() {
+    List<String> created = new ArrayList<>();
+    List<String> deferred = new ArrayList<>();
+    Map<String, String> failed = new LinkedHashMap<>();
+
+    for (Map.Entry<String, List<RequiredIndex>> entry : requiredByCollection().entrySet()) {
+      MongoCollection<Document> collection = mongoTemplate.getCollection(entry.getKey());
+      Set<String> existing = new HashSet<>();
+      for (Document info : collection.listIndexes()) {
+        existing.add(RequiredIndex.signatureOf(info));
+      }
+
+      for (RequiredIndex required : entry.getValue()) {
+        String description = entry.getKey() + "(" + required.signature() + ")";
+        if (existing.contains(required.signature())) {
+          continue;
+        }
+        if (required.migration() != null && !migrationService.isDone(required.migration())) {
+          deferred.add(description);
+          log.info("Índice {} pendiente de la migración {}", description, required.migration());
+          continue;
+        }
+        try {
+          Document options = required.index().getIndexOptions();
+          IndexOptions indexOptions = new IndexOptions()
+            .background(true)
+            .unique(options.getBoolean("unique", false));
+          if (options.get(RequiredIndex.PARTIAL) instanceof Document partial) {
+            indexOptions.partialFilterExpression(partial);
+          }
+          collection.createIndex(required.index().getIndexKeys(), indexOptions);
+          created.add(description);
+          log.info("Índice creado: {}", description);
+        } catch (RuntimeException e) {
+          failed.put(description, e.getMessage());
+          log.error("No se pudo crear el índice {}: {}", description, e.getMessage());
+        }
+      }
+    }
+
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("created", created);
+    result.put("deferred", deferred);
+    result.put("failed", failed);
+    return result;
+  }
+
+  /**
+   * Por colección: índices declarados que faltan, índices existentes que no están declarados y
+   * los que no registran accesos desde el último reinicio de Mongo ($indexStats)
+   */
+  public Map<String, Object> report() {
+    Map<String, Object> report = new LinkedHashMap<>();
+    for (Map.Entry<String, List<RequiredIndex>> entry : requiredByCollection().entrySet()) {
+      MongoCollection<Document> collection = mongoTemplate.getCollection(entry.getKey());
+
+      Map<String, String> existing = new LinkedHashMap<>();
+      for (Document info : collection.listIndexes()) {
+        String name = info.getString("name");
+        if (!ID_INDEX.equals(name)) {
+          existing.put(RequiredIndex.signatureOf(info), name);
+        }
+      }
+
+      Set<String> declared = new LinkedHashSet<>();
+      for (RequiredIndex required : entry.getValue()) {
+        declared.add(required.signature());
+      }
+
+      List<String> missing = new ArrayList<>();
+      for (String signature : declared) {
+        if (!existing.containsKey(signature)) {
+          missing.add(signature);
+        }
+      }
+
+      List<String> undeclared = new ArrayList<>();
+      existing.forEach((signature, name) -> {
+        if (!declared.contains(signature)) {
+          undeclared.add(name);
+        }
+      });
+
+      Map<String, Object> status = new LinkedHashMap<>();
+      status.put("missing", missing);
+      status.put("undeclared", undeclared);
+      status.put("unused", unusedIndexes(collection));
+      report.put(entry.getKey(), status);
+    }
+    return report;
+  }
+
+  private List<String> unusedIndexes(MongoCollection<Document> collection) {
+    List<String> unused = new ArrayList<>();
+    List<Document> pipeline = List.of(new Document("$indexStats", new Document()));
+    try {
+      for (Document stats : collection.aggregate(pipeline)) {
+        Document accesses = stats.get("accesses", Document.class);
+        Number ops = accesses != null ? accesses.get("ops", Number.class) : null;
+        String name = stats.getString("name");
+        if (!ID_INDEX.equals(name) && (ops == null || ops.longValue() == 0)) {
+          unused.add(name);
+        }
+      }
+    } catch (RuntimeException e) {
+      // El usuario de la aplicación puede no tener permiso para $indexStats
+      log.warn("No se pudo leer $indexStats de {}: {}", collection.getNamespace(), e.getMessage());
+      return null;
+    }
+    return unused;
+  }
+
+  private static Map<String, List<RequiredIndex>> requiredByCollection() {
+    Map<String, List<RequiredIndex>> byCollection = new LinkedHashMap<>();
+    for (RequiredIndex required : IndexRegistry.REQUIRED) {
+      byCollection.computeIfAbsent(required.collection(), key -> new ArrayList<>()).add(required);
+    }
+    return byCollection;
+  }
+}
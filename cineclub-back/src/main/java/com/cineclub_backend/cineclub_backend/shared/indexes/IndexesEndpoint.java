@@ -0,0 +1,31 @@
+package com.cineclub_backend.cineclub_backend.shared.indexes;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/indexes: GET informa el estado de los índices, POST encola la reconciliación
+ */
+@Component
+@Endpoint(id = "indexes")
+public class IndexesEndpoint {
+
+  private final IndexService indexService;
+
+  public IndexesEndpoint(IndexService indexService) {
+    this.indexService = indexService;
+  }
+
+  @ReadOperation
+  public Map<String, Object> indexes() {
+    return indexService.report();
+  }
+
+  @WriteOperation
+  public Map<String, Object> reconcile() {
+    return Map.of("queued", indexService.requestReconcile());
+  }
+}
@@ -0,0 +1,56 @@
+package com.cineclub_backend.cineclub_backend.shared.indexes;
+
+import java.util.StringJoiner;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Índice que las consultas necesitan sobre una colección. Si lo crea una migración (por ejemplo
+ * uno único que exige limpiar duplicados antes), {@code migration} es su id y IndexService no lo
+ * crea hasta que esa migración termine.
+ */
+public record RequiredIndex(String collection, Index index, String migration) {
+  public static final String PARTIAL = "partialFilterExpression";
+
+  public RequiredIndex(String collection, Index index) {
+    this(collection, index, null);
+  }
+
+  /**
+   * Claves en orden, unicidad y filtro parcial, por ejemplo "user_id:1,movie_id:1 unique"; dos
+   * índices con la misma firma son equivalentes aunque tengan distinto nombre
+   */
+  public String signature() {
+    Document options = index.getIndexOptions();
+    return signatureOf(
+      index.getIndexKeys(),
+      options.getBoolean("unique", false),
+      options.get(PARTIAL, Document.class)
+    );
+  }
+
+  public static String signatureOf(Document keys, boolean unique, Document partial) {
+    StringJoiner signature = new StringJoiner(",");
+    keys.forEach((field, direction) ->
+      signature.add(
+        field + ":" + (direction instanceof Number number ? number.intValue() : direction)
+      )
+    );
+    return (
+      signature +
+      (unique ? " unique" : "") +
+      (partial != null ? " partial " + partial.toJson() : "")
+    );
+  }
+
+  /**
+   * Firma de un índice tal como lo devuelve listIndexes
+   */
+  public static String signatureOf(Document indexInfo) {
+    return signatureOf(
+      indexInfo.get("key", Document.class),
+      indexInfo.getBoolean("unique", false),
+      indexInfo.get(PARTIAL, Document.class)
+    );
+  }
+}
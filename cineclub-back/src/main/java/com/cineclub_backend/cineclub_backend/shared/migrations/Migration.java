@@ -0,0 +1,24 @@
+package com.cineclub_backend.cineclub_backend.shared.migrations;
+
+/**
+ * Migración de datos por lotes. {@link MigrationService} guarda después de cada lote el último
+ * _id procesado, de modo que una ejecución interrumpida continúa donde quedó.
+ */
+public interface Migration {
+  /**
+   * Identificador estable; las migraciones se ejecutan en orden de id
+   */
+  String getId();
+
+  /**
+   * Se llama una vez antes del primer lote de cada ejecución (por ejemplo para crear índices)
+   */
+  default void prepare() {}
+
+  /**
+   * Procesa hasta {@code batchSize} documentos con _id mayor a {@code lastId}
+   *
+   * @param lastId último _id procesado o null si es la primera vez
+   */
+  MigrationBatch migrateBatch(Object lastId, int batchSize);
+}
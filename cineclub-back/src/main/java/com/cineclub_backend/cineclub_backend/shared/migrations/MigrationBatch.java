@@ -0,0 +1,10 @@
+package com.cineclub_backend.cineclub_backend.shared.migrations;
+
+/**
+ * Resultado de un lote. Un lote con {@code processed == 0} indica que la migración terminó.
+ */
+public record MigrationBatch(Object lastId, int processed) {
+  public static MigrationBatch done() {
+    return new MigrationBatch(null, 0);
+  }
+}
@@ -0,0 +1,146 @@
+package com.cineclub_backend.cineclub_backend.shared.migrations;
+
+import com.cineclub_backend.cineclub_backend.jobs.services.JobQueueService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Ejecuta las migraciones de datos pendientes desde el job worker y guarda su avance en la
+ * colección migrations: {_id, status, last_id, processed, updated_at}.
+ */
+@Service
+@Slf4j
+public class MigrationService {
+
+  public static final String RUN_JOB = "MIGRATIONS_RUN";
+
+  private static final String COLLECTION = "migrations";
+  private static final String STATUS_RUNNING = "RUNNING";
+  private static final String STATUS_FAILED = "FAILED";
+  private static final String STATUS_DONE = "DONE";
+  private static final long PENDING_RECHECK_MS = 30_000;
+
+  private final MongoTemplate mongoTemplate;
+  private final JobQueueService jobQueueService;
+  private final List<Migration> migrations;
+  private final int batchSize;
+  private final Set<String> done = ConcurrentHashMap.newKeySet();
+  private final Map<String, Long> pendingCheckedAt = new ConcurrentHashMap<>();
+
+  public MigrationService(
+    MongoTemplate mongoTemplate,
+    JobQueueService jobQueueService,
+    List<Migration> migrations,
+    @Value("${migrations.batch-size:500}") int batchSize
+  ) {
+    this.mongoTemplate = mongoTemplate;
+    this.jobQueueService = jobQueueService;
+    this.migrations = new ArrayList<>(migrations);
+    this.migrations.sort(Comparator.comparing(Migration::getId));
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Encola la ejecución al arrancar; el job worker de una sola instancia la procesa
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void scheduleOnStartup() {
+    Map<String, Object> job = new HashMap<>();
+    job.put("type", RUN_JOB);
+    jobQueueService.enqueueJobOnce(job, RUN_JOB, Duration.ofMinutes(10));
+  }
+
+  /**
+   * Si la migración terminó. Un DONE no se revierte y queda en memoria; mientras está pendiente
+   * se vuelve a consultar como mucho cada 30 s, así las lecturas pueden preguntarlo en cada
+   * request.
+   */
+  public boolean isDone(String id) {
+    if (done.contains(id)) {
+      return true;
+    }
+    long now = System.currentTimeMillis();
+    Long checkedAt = pendingCheckedAt.get(id);
+    if (checkedAt != null && now - checkedAt < PENDING_RECHECK_MS) {
+      return false;
+    }
+
+    Document state = mongoTemplate.findById(id, Document.class, COLLECTION);
+    if (state != null && STATUS_DONE.equals(state.getString("status"))) {
+      markDone(id);
+      return true;
+    }
+    pendingCheckedAt.put(id, now);
+    return false;
+  }
+
+  public void runPending() {
+    for (Migration migration : migrations) {
+      run(migration);
+    }
+  }
+
+  public void run(Migration migration) {
+    String id = migration.getId();
+    Document state = mongoTemplate.findById(id, Document.class, COLLECTION);
+    if (state != null && STATUS_DONE.equals(state.getString("status"))) {
+      markDone(id);
+      return;
+    }
+
+    Object lastId = state != null ? state.get("last_id") : null;
+    long processed = state != null ? state.get("processed", 0L) : 0L;
+    log.info("Ejecutando migración {} desde {}", id, lastId != null ? lastId : "el inicio");
+    saveState(id, new Update().set("status", STATUS_RUNNING).unset("error"));
+
+    try {
+      migration.prepare();
+      while (true) {
+        MigrationBatch batch = migration.migrateBatch(lastId, batchSize);
+        if (batch.processed() == 0) {
+          break;
+        }
+        lastId = batch.lastId();
+        processed += batch.processed();
+        saveState(id, new Update().set("last_id", lastId).set("processed", processed));
+      }
+    } catch (RuntimeException e) {
+      saveState(id, new Update().set("status", STATUS_FAILED).set("error", e.getMessage()));
+      throw e;
+    }
+
+    saveState(id, new Update().set("status", STATUS_DONE).set("finished_at", new Date()));
+    markDone(id);
+    log.info("Migración {} completada: {} documentos", id, processed);
+  }
+
+  private void markDone(String id) {
+    done.add(id);
+    pendingCheckedAt.remove(id);
+  }
+
+  private void saveState(String id, Update update) {
+    mongoTemplate.upsert(
+      new Query(Criteria.where("_id").is(id)),
+      update.set("updated_at", new Date()),
+      COLLECTION
+    );
+  }
+}
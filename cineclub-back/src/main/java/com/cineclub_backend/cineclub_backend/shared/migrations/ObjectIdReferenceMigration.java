@@ -0,0 +1,71 @@
+package com.cineclub_backend.cineclub_backend.shared.migrations;
+
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences;
+import com.cineclub_backend.cineclub_backend.shared.helpers.ObjectIdReferences.Reference;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Llena los campos ObjectId paralelos de una colección (ver {@link ObjectIdReferences}); sus
+ * índices los declara IndexRegistry. Hay una instancia por colección, declarada en MongoConfig.
+ */
+public class ObjectIdReferenceMigration implements Migration {
+
+  private final MongoTemplate mongoTemplate;
+  private final String collection;
+  private final List<Reference> references;
+
+  public ObjectIdReferenceMigration(MongoTemplate mongoTemplate, String collection) {
+    this.mongoTemplate = mongoTemplate;
+    this.collection = collection;
+    this.references = ObjectIdReferences.forCollection(collection);
+  }
+
+  @Override
+  public String getId() {
+    return ObjectIdReferences.migrationId(collection);
+  }
+
+  @Override
+  public MigrationBatch migrateBatch(Object lastId, int batchSize) {
+    Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+    if (lastId != null) {
+      query.addCriteria(Criteria.where("_id").gt(lastId));
+    }
+    for (Reference reference : references) {
+      query.fields().include(reference.field());
+    }
+
+    List<Document> documents = mongoTemplate.find(query, Document.class, collection);
+    if (documents.isEmpty()) {
+      return MigrationBatch.done();
+    }
+
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+    int updates = 0;
+    for (Document document : documents) {
+      Update update = new Update();
+      for (Reference reference : references) {
+        Object value = ObjectIdReferences.toObjectIds(document.get(reference.field()));
+        if (value != null) {
+          update.set(reference.objectIdField(), value);
+        }
+      }
+      if (!update.getUpdateObject().isEmpty()) {
+        bulk.updateOne(new Query(Criteria.where("_id").is(document.get("_id"))), update);
+        updates++;
+      }
+    }
+    if (updates > 0) {
+      bulk.execute();
+    }
+
+    return new MigrationBatch(documents.get(documents.size() - 1).get("_id"), documents.size());
+  }
+}
@@ -37,6 +37,16 @@ public class FriendsController {
     @AuthenticationPrincipal String userId,
     @ParameterObject FindFriendDto findFriendDto
   ) {
+    if (findFriendDto.usesCursor()) {
+      return new PagedResponseDto<>(
+        crudFriendsService.getFriendsByCursor(
+          userId,
+          findFriendDto.getName(),
+          findFriendDto.toPageable(),
+          findFriendDto.getAfter()
+        )
+      );
+    }
     Page<FriendResponseDto> page = crudFriendsService.getFriendsPaginated(
       userId,
       findFriendDto.getName(),
@@ -1,6 +1,7 @@
 package com.cineclub_backend.cineclub_backend.social.repositories;
 
 import com.cineclub_backend.cineclub_backend.users.models.User;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.neo4j.driver.Driver;
@@ -97,6 +98,28 @@ public class Neo4jClient {
     }
   }
 
+  /**
+   * Amigos directos del usuario con la cantidad de amigos en común con cada uno
+   */
+  public Map<String, Long> getFriendStrengths(String userId) {
+    try (Session session = driver.session()) {
+      return session.executeRead(tx -> {
+        var result = tx.run(
+          "MATCH (u:User {userId: $userId})-[:FRIEND]->(friend:User) " +
+            "OPTIONAL MATCH (u)-[:FRIEND]->(common:User)-[:FRIEND]->(friend) " +
+            "RETURN friend.userId AS userId, COUNT(common) AS mutualFriends",
+          Map.of("userId", userId)
+        );
+
+        Map<String, Long> strengths = new HashMap<>();
+        result.forEachRemaining(r ->
+          strengths.put(r.get("userId").asString(), r.get("mutualFriends").asLong())
+        );
+        return strengths;
+      });
+    }
+  }
+
   public void clearDatabase() {
     try (Session session = driver.session()) {
       session.executeWrite(tx -> {
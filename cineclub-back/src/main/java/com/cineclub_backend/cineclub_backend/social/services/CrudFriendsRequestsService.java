@@ -1,6 +1,7 @@
 package com.cineclub_backend.cineclub_backend.social.services;
 
 import com.cineclub_backend.cineclub_backend.jobs.services.JobQueueService;
+import com.cineclub_backend.cineclub_backend.movies.services.FriendsTasteService;
 import com.cineclub_backend.cineclub_backend.notifications.models.NotificationType;
 import com.cineclub_backend.cineclub_backend.notifications.services.NotificationService;
 import com.cineclub_backend.cineclub_backend.shared.services.WebSocketNotificationService;
@@ -36,6 +37,7 @@ public class CrudFriendsRequestsService {
   private final NotificationService persistentNotificationService;
   private final FriendsNotificationsService friendsNotificationsService;
   private final Neo4jClient neo4jClient;
+  private final FriendsTasteService friendsTasteService;
 
   public FriendRequest sendFriendRequest(String userId, String receiverId) {
     Optional<FriendRequest> existingRequest = friendRequestRepository.findBySenderIdAndReceiverId(
@@ -155,6 +157,8 @@ public class CrudFriendsRequestsService {
       System.err.println("Error syncing friendship to Neo4j: " + e.getMessage());
     }
 
+    friendsTasteService.invalidate(senderId, userId);
+
     friendRequest.setStatus("ACCEPTED");
     FriendRequest updatedRequest = friendRequestRepository.save(friendRequest);
 
@@ -1,5 +1,8 @@
 package com.cineclub_backend.cineclub_backend.social.services;
 
+import com.cineclub_backend.cineclub_backend.movies.services.FriendsTasteService;
+import com.cineclub_backend.cineclub_backend.shared.dtos.CursorSlice;
+import com.cineclub_backend.cineclub_backend.shared.helpers.CursorPaginationHelper;
 import com.cineclub_backend.cineclub_backend.social.dtos.FriendResponseDto;
 import com.cineclub_backend.cineclub_backend.social.models.FriendRequest;
 import com.cineclub_backend.cineclub_backend.social.repositories.FriendRequestRepository;
@@ -17,6 +20,7 @@ import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,17 +32,20 @@ public class CrudFriendsService {
   private final FriendRequestRepository friendRequestRepository;
   private final MongoTemplate mongoTemplate;
   private final Neo4jClient neo4jClient;
+  private final FriendsTasteService friendsTasteService;
 
   public CrudFriendsService(
     FriendsRepository friendsRepository,
     FriendRequestRepository friendRequestRepository,
     MongoTemplate mongoTemplate,
-    Neo4jClient neo4jClient
+    Neo4jClient neo4jClient,
+    FriendsTasteService friendsTasteService
   ) {
     this.friendsRepository = friendsRepository;
     this.friendRequestRepository = friendRequestRepository;
     this.mongoTemplate = mongoTemplate;
     this.neo4jClient = neo4jClient;
+    this.friendsTasteService = friendsTasteService;
   }
 
   public Page<FriendResponseDto> getFriendsPaginated(
@@ -47,17 +54,7 @@ public class CrudFriendsService {
     Pageable pageable
   ) {
     try {
-      List<AggregationOperation> operations = new ArrayList<>();
-
-      operations.add(Aggregation.match(Criteria.where("user_id").is(userId)));
-      operations.add(Aggregation.lookup("users", "friend_id", "_id", "friendDetails"));
-      operations.add(Aggregation.unwind("friendDetails"));
-
-      if (name != null && !name.trim().isEmpty()) {
-        operations.add(
-          Aggregation.match(Criteria.where("friendDetails.fullName").regex(name, "i"))
-        );
-      }
+      List<AggregationOperation> operations = filterOperations(userId, name);
 
       FacetOperation facetOperation = Aggregation.facet()
         .and(Aggregation.count().as("total"))
@@ -66,21 +63,7 @@ public class CrudFriendsService {
           Aggregation.sort(pageable.getSort()),
           Aggregation.skip((long) pageable.getPageNumber() * pageable.getPageSize()),
           Aggregation.limit(pageable.getPageSize()),
-          Aggregation.project()
-            .and("_id")
-            .as("_id")
-            .and("user_id")
-            .as("user_id")
-            .and("friend_id")
-            .as("friend_id")
-            .and("createdAt")
-            .as("createdAt")
-            .and("friendDetails._id")
-            .as("friendId")
-            .and("friendDetails.fullName")
-            .as("friendName")
-            .and("friendDetails.email")
-            .as("friendEmail")
+          projection()
         )
         .as("data");
 
@@ -124,6 +107,65 @@ public class CrudFriendsService {
     }
   }
 
+  /**
+   * Igual que {@link #getFriendsPaginated} pero paginando por cursor: sin conteo ni $skip
+   */
+  public CursorSlice<FriendResponseDto> getFriendsByCursor(
+    String userId,
+    String name,
+    Pageable pageable,
+    String after
+  ) {
+    List<AggregationOperation> operations = filterOperations(userId, name);
+    operations.addAll(
+      CursorPaginationHelper.stages(pageable.getSort(), after, pageable.getPageSize())
+    );
+    operations.add(projection());
+
+    List<Document> data = mongoTemplate
+      .aggregate(Aggregation.newAggregation(operations), "friends", Document.class)
+      .getMappedResults();
+
+    return CursorPaginationHelper.toSlice(
+      data,
+      pageable.getPageSize(),
+      this::convertDocumentToFriendResponseDto
+    );
+  }
+
+  private List<AggregationOperation> filterOperations(String userId, String name) {
+    List<AggregationOperation> operations = new ArrayList<>();
+
+    operations.add(Aggregation.match(Criteria.where("user_id").is(userId)));
+    operations.add(Aggregation.lookup("users", "friend_id", "_id", "friendDetails"));
+    operations.add(Aggregation.unwind("friendDetails"));
+
+    if (name != null && !name.trim().isEmpty()) {
+      operations.add(Aggregation.match(Criteria.where("friendDetails.fullName").regex(name, "i")));
+    }
+    return operations;
+  }
+
+  private ProjectionOperation projection() {
+    return Aggregation.project()
+      .and("_id")
+      .as("_id")
+      .and("user_id")
+      .as("user_id")
+      .and("friend_id")
+      .as("friend_id")
+      .and("createdAt")
+      .as("createdAt")
+      .and("friendDetails._id")
+      .as("friendId")
+      .and("friendDetails.fullName")
+      .as("friendName")
+      .and("friendDetails.email")
+      .as("friendEmail")
+      .and(CursorPaginationHelper.CURSOR_FIELD)
+      .as(CursorPaginationHelper.CURSOR_FIELD);
+  }
+
   private FriendResponseDto convertDocumentToFriendResponseDto(Document doc) {
     FriendResponseDto dto = new FriendResponseDto();
     dto.setId(doc.getObjectId("_id") != null ? doc.getObjectId("_id").toString() : null);
@@ -171,5 +213,7 @@ public class CrudFriendsService {
     } catch (Exception e) {
       System.err.println("Error removing friendship from Neo4j: " + e.getMessage());
     }
+
+    friendsTasteService.invalidate(userId, friendId);
   }
 }
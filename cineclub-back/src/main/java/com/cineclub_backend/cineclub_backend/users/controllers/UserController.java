@@ -90,6 +90,16 @@ public class UserController {
     description = "Obtiene la lista de usuarios de forma paginada con filtros opcionales"
   )
   public PagedResponseDto<User> getUsersPaginated(@ParameterObject FindUserDto findUserDto) {
+    if (findUserDto.usesCursor()) {
+      return new PagedResponseDto<>(
+        crudUserService.getUsersByCursor(
+          findUserDto.getName(),
+          findUserDto.getEmail(),
+          findUserDto.toPageable(),
+          findUserDto.getAfter()
+        )
+      );
+    }
     Page<User> page = crudUserService.getUsersPaginated(
       findUserDto.getName(),
       findUserDto.getEmail(),
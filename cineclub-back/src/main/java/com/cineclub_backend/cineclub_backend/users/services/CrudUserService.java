@@ -1,5 +1,7 @@
 package com.cineclub_backend.cineclub_backend.users.services;
 
+import com.cineclub_backend.cineclub_backend.shared.dtos.CursorSlice;
+import com.cineclub_backend.cineclub_backend.shared.helpers.CursorPaginationHelper;
 import com.cineclub_backend.cineclub_backend.social.repositories.Neo4jClient;
 import com.cineclub_backend.cineclub_backend.users.dtos.UserDto;
 import com.cineclub_backend.cineclub_backend.users.models.User;
@@ -63,22 +65,7 @@ public class CrudUserService {
 
   public Page<User> getUsersPaginated(String name, String email, Pageable pageable) {
     try {
-      List<AggregationOperation> operations = new ArrayList<>();
-      List<Criteria> criteriaList = new ArrayList<>();
-
-      if (name != null && !name.trim().isEmpty()) {
-        criteriaList.add(Criteria.where("fullName").regex(name, "i"));
-      }
-      if (email != null && !email.trim().isEmpty()) {
-        criteriaList.add(Criteria.where("email").regex(email, "i"));
-      }
-
-      if (!criteriaList.isEmpty()) {
-        Criteria combinedCriteria = new Criteria().andOperator(
-          criteriaList.toArray(new Criteria[0])
-        );
-        operations.add(Aggregation.match(combinedCriteria));
-      }
+      List<AggregationOperation> operations = filterOperations(name, email);
 
       FacetOperation facetOperation = Aggregation.facet()
         .and(Aggregation.count().as("total"))
@@ -130,6 +117,47 @@ public class CrudUserService {
     }
   }
 
+  /**
+   * Igual que {@link #getUsersPaginated} pero paginando por cursor: sin conteo ni $skip
+   */
+  public CursorSlice<User> getUsersByCursor(
+    String name,
+    String email,
+    Pageable pageable,
+    String after
+  ) {
+    List<AggregationOperation> operations = filterOperations(name, email);
+    operations.addAll(
+      CursorPaginationHelper.stages(pageable.getSort(), after, pageable.getPageSize())
+    );
+
+    List<Document> data = mongoTemplate
+      .aggregate(Aggregation.newAggregation(operations), "users", Document.class)
+      .getMappedResults();
+
+    return CursorPaginationHelper.toSlice(data, pageable.getPageSize(), doc ->
+      mongoTemplate.getConverter().read(User.class, doc)
+    );
+  }
+
+  private List<AggregationOperation> filterOperations(String name, String email) {
+    List<AggregationOperation> operations = new ArrayList<>();
+    List<Criteria> criteriaList = new ArrayList<>();
+
+    if (name != null && !name.trim().isEmpty()) {
+      criteriaList.add(Criteria.where("fullName").regex(name, "i"));
+    }
+    if (email != null && !email.trim().isEmpty()) {
+      criteriaList.add(Criteria.where("email").regex(email, "i"));
+    }
+
+    if (!criteriaList.isEmpty()) {
+      Criteria combinedCriteria = new Criteria().andOperator(criteriaList.toArray(new Criteria[0]));
+      operations.add(Aggregation.match(combinedCriteria));
+    }
+    return operations;
+  }
+
   public Page<UserDto> getNotFriendsPaginated(
     String userId,
     String name,
@@ -0,0 +1,117 @@
+package com.cineclub_backend.cineclub_backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cineclub_backend.cineclub_backend.movies.dtos.DirectorDto;
+import com.cineclub_backend.cineclub_backend.movies.dtos.MovieDto;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Cabecera, compresión LZ4 y entradas que deben leerse como ausentes
+ */
+class CacheValueCodecTest {
+
+  private static final List<Class<?>> KNOWN_TYPES = List.of(MovieDto.class, DirectorDto.class);
+
+  @Test
+  void smileRoundTripWritesCompactHeader() {
+    CacheValueCodec codec = new CacheValueCodec(CacheValueCodec.Format.SMILE, 0, KNOWN_TYPES);
+    MovieDto movie = movie("Drama");
+
+    byte[] bytes = codec.serialize(movie);
+
+    assertEquals(CacheValueCodec.MAGIC, bytes[0]);
+    assertEquals(CacheValueCodec.VERSION, bytes[1]);
+    assertEquals(2, bytes[2]);
+    assertEquals(0, bytes[3]);
+    assertEquals(1, bytes[4]);
+    assertEquals(movie, codec.deserialize(bytes));
+  }
+
+  @Test
+  void readsEntriesWrittenInTheOtherFormat() {
+    CacheValueCodec json = new CacheValueCodec(CacheValueCodec.Format.JSON, 0, KNOWN_TYPES);
+    CacheValueCodec smile = new CacheValueCodec(CacheValueCodec.Format.SMILE, 0, KNOWN_TYPES);
+    MovieDto movie = movie("Comedia");
+
+    byte[] bytes = json.serialize(movie);
+
+    assertEquals(1, bytes[2]);
+    assertEquals(movie, smile.deserialize(bytes));
+  }
+
+  @Test
+  void compressesValuesOverTheThreshold() {
+    CacheValueCodec codec = new CacheValueCodec(CacheValueCodec.Format.JSON, 256, KNOWN_TYPES);
+    MovieDto large = movie("Drama ".repeat(200));
+    MovieDto small = movie("Drama");
+
+    byte[] compressed = codec.serialize(large);
+    byte[] plain = codec.serialize(small);
+
+    assertEquals(1, compressed[3]);
+    assertEquals(0, plain[3]);
+    assertEquals(large, codec.deserialize(compressed));
+    assertEquals(small, codec.deserialize(plain));
+  }
+
+  @Test
+  void oldJsonEntryReadsAsMiss() {
+    CacheValueCodec codec = new CacheValueCodec(CacheValueCodec.Format.SMILE, 0, KNOWN_TYPES);
+    byte[] old = "{\"id\":\"1\",\"title\":\"Vieja\"}".getBytes(StandardCharsets.UTF_8);
+
+    assertNull(codec.deserialize(old));
+  }
+
+  @Test
+  void unregisteredTypeNameReadsAsMiss() {
+    CacheValueCodec codec = new CacheValueCodec(CacheValueCodec.Format.JSON, 0, KNOWN_TYPES);
+
+    byte[] bytes = codec.serialize("texto");
+
+    assertEquals(0xFF, bytes[4] & 0xFF);
+    assertNull(codec.deserialize(bytes));
+    assertNull(codec.deserialize(namedEntry("java.lang.ProcessBuilder", "[\"id\"]")));
+  }
+
+  @Test
+  void unknownTypeIdReadsAsMiss() {
+    CacheValueCodec writer = new CacheValueCodec(CacheValueCodec.Format.JSON, 0, KNOWN_TYPES);
+    CacheValueCodec reader = new CacheValueCodec(
+      CacheValueCodec.Format.JSON,
+      0,
+      List.of(MovieDto.class)
+    );
+    DirectorDto director = new DirectorDto();
+
+    byte[] bytes = writer.serialize(director);
+
+    assertEquals(2, bytes[4]);
+    assertNull(reader.deserialize(bytes));
+    assertTrue(writer.deserialize(bytes) instanceof DirectorDto);
+  }
+
+  private static MovieDto movie(String overview) {
+    return MovieDto.builder().id("1").externalId(10).title("Película").overview(overview).build();
+  }
+
+  private static byte[] namedEntry(String className, String json) {
+    byte[] name = className.getBytes(StandardCharsets.UTF_8);
+    byte[] data = json.getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(5 + 2 + name.length + data.length)
+      .put(CacheValueCodec.MAGIC)
+      .put(CacheValueCodec.VERSION)
+      .put((byte) 1)
+      .put((byte) 0)
+      .put((byte) 0xFF)
+      .putShort((short) name.length)
+      .put(name)
+      .put(data)
+      .array();
+  }
+}
@@ -0,0 +1,196 @@
+package com.cineclub_backend.cineclub_backend.movies.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.cineclub_backend.cineclub_backend.movies.models.MovieVote;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Muchos hilos votan la misma película con pocos usuarios (muchos clics repetidos por par) y al
+ * final up_votes/down_votes de la película deben coincidir con lo que quedó en movie_votes, con
+ * un solo voto por usuario. Los deltas se aplican directo en movies con $inc, como el camino de
+ * respaldo de MovieVoteCounterService. Usa un Mongo en Docker y una base temporal por prueba;
+ * sin Docker se omite.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CrudMovieVoteServiceConcurrencyTest {
+
+  private static final int THREADS = 32;
+  private static final int VOTES_PER_THREAD = 200;
+  private static final int USERS = 10;
+
+  @Container
+  private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+  private MongoClient client;
+  private MongoTemplate mongoTemplate;
+  private String database;
+  private String movieId;
+
+  @BeforeEach
+  void setUp() {
+    client = MongoClients.create(MONGO.getConnectionString());
+    database = "cineclub_votes_test_" + new ObjectId();
+    mongoTemplate = new MongoTemplate(client, database);
+
+    movieId = new ObjectId().toHexString();
+    mongoTemplate.insert(
+      new Document("_id", movieId).append("up_votes", 0).append("down_votes", 0),
+      "movies"
+    );
+  }
+
+  @AfterEach
+  void tearDown() {
+    client.getDatabase(database).drop();
+    client.close();
+  }
+
+  @Test
+  void concurrentVotesKeepCountersConsistent() throws Exception {
+    mongoTemplate
+      .indexOps("movie_votes")
+      .ensureIndex(
+        new Index().on("user_id", Sort.Direction.ASC).on("movie_id", Sort.Direction.ASC).unique()
+      );
+    CrudMovieVoteService service = newService();
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(
+        executor.submit(() -> {
+          start.await();
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (int i = 0; i < VOTES_PER_THREAD; i++) {
+            MovieVote.VoteType type = random.nextBoolean()
+              ? MovieVote.VoteType.UP
+              : MovieVote.VoteType.DOWN;
+            service.voteMovie(movieId, "user-" + random.nextInt(USERS), type);
+          }
+          return null;
+        })
+      );
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(2, TimeUnit.MINUTES);
+    }
+    executor.shutdown();
+
+    long votes = mongoTemplate.count(
+      new Query(Criteria.where("movie_id").is(movieId)),
+      "movie_votes"
+    );
+    List<String> voters = mongoTemplate.findDistinct(
+      new Query(Criteria.where("movie_id").is(movieId)),
+      "user_id",
+      "movie_votes",
+      String.class
+    );
+    assertTrue(votes <= USERS);
+    assertEquals(voters.size(), votes);
+    assertCounters();
+  }
+
+  /**
+   * Sin índice único el upsert atómico duplicaría el voto al repetir el mismo tipo: el servicio
+   * tiene que usar el camino de buscar y alternar
+   */
+  @Test
+  void withoutUniqueIndexFallsBackToFindAndToggle() {
+    CrudMovieVoteService service = newService();
+
+    service.voteMovie(movieId, "user-1", MovieVote.VoteType.UP);
+    assertVotes(1, 0);
+    service.voteMovie(movieId, "user-1", MovieVote.VoteType.UP);
+    assertVotes(0, 0);
+    service.voteMovie(movieId, "user-1", MovieVote.VoteType.DOWN);
+    assertVotes(0, 1);
+    service.voteMovie(movieId, "user-1", MovieVote.VoteType.UP);
+    assertVotes(1, 0);
+    service.voteMovie(movieId, "user-2", MovieVote.VoteType.DOWN);
+    assertVotes(1, 1);
+
+    assertEquals(
+      2,
+      mongoTemplate.count(new Query(Criteria.where("movie_id").is(movieId)), "movie_votes")
+    );
+  }
+
+  private CrudMovieVoteService newService() {
+    MovieVoteCounterService counterService = mock(MovieVoteCounterService.class);
+    doAnswer(invocation -> {
+      MovieVote.VoteType type = invocation.getArgument(1);
+      int delta = invocation.getArgument(2);
+      mongoTemplate.updateFirst(
+        new Query(Criteria.where("_id").is(invocation.getArgument(0))),
+        new Update().inc(type == MovieVote.VoteType.UP ? "up_votes" : "down_votes", delta),
+        "movies"
+      );
+      return null;
+    })
+      .when(counterService)
+      .increment(anyString(), any(MovieVote.VoteType.class), anyInt());
+
+    return new CrudMovieVoteService(
+      mongoTemplate,
+      mock(UserTasteProfileService.class),
+      mock(RecommendationBatchService.class),
+      mock(VotedMoviesFilterService.class),
+      counterService
+    );
+  }
+
+  private void assertVotes(long up, long down) {
+    assertEquals(up, countVotes(MovieVote.VoteType.UP));
+    assertEquals(down, countVotes(MovieVote.VoteType.DOWN));
+    assertCounters();
+  }
+
+  /**
+   * Los contadores de la película coinciden con los votos guardados
+   */
+  private void assertCounters() {
+    Document movie = mongoTemplate.findById(movieId, Document.class, "movies");
+    assertEquals(countVotes(MovieVote.VoteType.UP), movie.getInteger("up_votes").longValue());
+    assertEquals(countVotes(MovieVote.VoteType.DOWN), movie.getInteger("down_votes").longValue());
+  }
+
+  private long countVotes(MovieVote.VoteType type) {
+    return mongoTemplate.count(
+      new Query(Criteria.where("movie_id").is(movieId).and("type").is(type.name())),
+      "movie_votes"
+    );
+  }
+}